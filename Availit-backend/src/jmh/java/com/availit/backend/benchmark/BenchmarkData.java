@@ -0,0 +1,47 @@
+package com.availit.backend.benchmark;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Deterministic synthetic hospitals shared by the benchmarks. */
+final class BenchmarkData {
+
+    static final String[] CITIES = {
+        "Pune", "Mumbai", "Delhi", "Bangalore", "Chennai", "Hyderabad", "Kolkata", "Ahmedabad", "Jaipur", "Lucknow",
+        "Nagpur", "Indore", "Bhopal", "Patna", "Surat", "Kanpur", "Vadodara", "Nashik", "Pimpri", "Thane"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static List<HospitalAvailability> hospitals(int count) {
+        Random random = new Random(42);
+        List<HospitalAvailability> hospitals = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int total = 50 + random.nextInt(450);
+            HospitalAvailability hospital = new HospitalAvailability("Hospital " + i, total, random.nextInt(total),
+                random.nextBoolean(), "Street " + i + ", Sector " + random.nextInt(40), "020-555" + (1000 + i % 9000),
+                random.nextInt(30), random.nextInt(15));
+            ReflectionTestUtils.setField(hospital, "id", (long) i + 1);
+            List<Location> locations = new ArrayList<>();
+            for (int j = 0; j < 1 + random.nextInt(2); j++) {
+                Location location = new Location();
+                location.setAddress("Street " + i + "-" + j);
+                location.setCity(CITIES[random.nextInt(CITIES.length)]);
+                location.setState("Maharashtra");
+                location.setZipCode("4110" + String.format("%02d", random.nextInt(100)));
+                location.setLatitude(18 + random.nextDouble() * 10);
+                location.setLongitude(72 + random.nextDouble() * 10);
+                locations.add(location);
+            }
+            hospital.setLocations(locations);
+            hospitals.add(hospital);
+        }
+        return hospitals;
+    }
+}
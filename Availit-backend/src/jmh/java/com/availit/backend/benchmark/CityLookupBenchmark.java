@@ -0,0 +1,77 @@
+package com.availit.backend.benchmark;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.dto.CityCapacityStats;
+import com.availit.backend.dto.CitySuggestion;
+import com.availit.backend.index.CapacityColumnIndex;
+import com.availit.backend.index.CityCapacityAggregates;
+import com.availit.backend.index.CityDirectory;
+import com.availit.backend.model.HospitalAvailability;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * City filtering and lookup against the in-memory indexes, with a plain scan over all hospitals as
+ * the baseline. The indexes run without a snapshot cache and are built directly from the data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CityLookupBenchmark {
+
+    @Param({"1000", "20000"})
+    private int hospitals;
+
+    private List<HospitalAvailability> all;
+    private CapacityColumnIndex capacityIndex;
+    private CityDirectory cityDirectory;
+    private CityCapacityAggregates cityAggregates;
+
+    @Setup
+    public void setUp() {
+        all = BenchmarkData.hospitals(hospitals);
+        capacityIndex = new CapacityColumnIndex();
+        capacityIndex.rebuild(all);
+        cityDirectory = new CityDirectory();
+        cityDirectory.rebuild(all);
+        cityAggregates = new CityCapacityAggregates();
+        cityAggregates.rebuild(all);
+    }
+
+    @Benchmark
+    public List<HospitalAvailability> scanByCity() {
+        String key = HospitalSnapshotCache.cityKey("PUNE");
+        List<HospitalAvailability> matches = new ArrayList<>();
+        for (HospitalAvailability hospital : all) {
+            if (HospitalSnapshotCache.cityKeys(hospital).contains(key) && hospital.getAvailableBeds() >= 20) {
+                matches.add(hospital);
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public long[] filterByCity() {
+        return capacityIndex.filter("PUNE", 20, 0, 0, null);
+    }
+
+    @Benchmark
+    public List<CitySuggestion> suggestCities() {
+        return cityDirectory.suggest("Pu", 10);
+    }
+
+    @Benchmark
+    public CityCapacityStats cityStats() {
+        return cityAggregates.stats("pune");
+    }
+}
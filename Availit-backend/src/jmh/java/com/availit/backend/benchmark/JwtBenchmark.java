@@ -0,0 +1,62 @@
+package com.availit.backend.benchmark;
+
+import com.availit.backend.model.User;
+import com.availit.backend.repository.UserRepository;
+import com.availit.backend.service.JwtUtil;
+import com.availit.backend.service.VerifiedPrincipalCache;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/** Issuing tokens, and checking them with and without the verified-principal cache. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private VerifiedPrincipalCache principalCache;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        user = new User();
+        user.setUsername("benchmark");
+        user.setPassword("$2a$10$hash");
+        user.setRole("ADMIN");
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("benchmark")).thenReturn(Optional.of(user));
+        principalCache = new VerifiedPrincipalCache(jwtUtil, userRepository, 10_000, 600_000);
+        token = jwtUtil.generateToken(user);
+        principalCache.authenticate(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public Claims parseClaims() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    @Benchmark
+    public Optional<UserDetails> authenticateCached() {
+        return principalCache.authenticate(token);
+    }
+}
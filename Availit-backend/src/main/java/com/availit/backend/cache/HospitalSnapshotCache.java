@@ -0,0 +1,263 @@
+package com.availit.backend.cache;
+
+import com.availit.backend.event.HospitalChangeEvent;
+import com.availit.backend.event.HospitalSnapshotEvent;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Read-mostly, versioned copy of every hospital and its locations, partitioned by lower-cased city.
+ * Readers only dereference volatile immutable state and never wait; writers patch the partitions
+ * touched by a committed change under a single lock and publish a new version.
+ * <p>
+ * After-commit listeners do not run in commit order, so a change only replaces a hospital when it is
+ * not older than the copy held, and a deleted hospital is never brought back by a late save.
+ */
+@Component
+public class HospitalSnapshotCache {
+
+    private static final Comparator<HospitalAvailability> BY_ID = Comparator.comparing(HospitalAvailability::getId);
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${availit.snapshot.deletion-retention-ms:600000}")
+    private long deletionRetentionMs;
+
+    private final Object writeLock = new Object();
+    private final Map<Long, HospitalAvailability> byId = new ConcurrentHashMap<>();
+    // deleted ids by when they were deleted, oldest first. Ids are never reused, so a save arriving
+    // for one of these is from before its deletion; kept across reloads, since a reload can overtake
+    // a save event that is still on its way. Late events trail their commit by moments, so entries
+    // are dropped once older than deletionRetentionMs.
+    private final LinkedHashMap<Long, Long> deletedAt = new LinkedHashMap<>();
+
+    private volatile boolean loaded;
+    private volatile long version;
+    private volatile Map<String, CityPartition> partitions = Map.of();
+    private volatile AllHospitals all = new AllHospitals(-1, List.of());
+
+    public List<HospitalAvailability> getAllHospitals() {
+        ensureLoaded();
+        AllHospitals current = all;
+        long currentVersion = version;
+        if (current.version() == currentVersion) {
+            return current.hospitals();
+        }
+        List<HospitalAvailability> hospitals = new ArrayList<>(byId.values());
+        hospitals.sort(BY_ID);
+        current = new AllHospitals(currentVersion, Collections.unmodifiableList(hospitals));
+        all = current;
+        return current.hospitals();
+    }
+
+    public List<HospitalAvailability> getHospitalsByCity(String city) {
+        ensureLoaded();
+        CityPartition partition = partitions.get(cityKey(city));
+        return partition != null ? partition.hospitals() : List.of();
+    }
+
+    public HospitalAvailability getHospital(Long id) {
+        ensureLoaded();
+        return byId.get(id);
+    }
+
+    public long getVersion() {
+        ensureLoaded();
+        return version;
+    }
+
+    /**
+     * Hands the current version and hospitals to {@code action} while no change can be applied, so a
+     * derived index built here and then fed {@link HospitalSnapshotEvent}s misses nothing.
+     */
+    public void withCurrentHospitals(BiConsumer<Long, Collection<HospitalAvailability>> action) {
+        synchronized (writeLock) {
+            ensureLoaded();
+            action.accept(version, Collections.unmodifiableCollection(byId.values()));
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (writeLock) {
+            loaded = false;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHospitalChange(HospitalChangeEvent event) {
+        synchronized (writeLock) {
+            long now = System.nanoTime();
+            pruneDeletions(now);
+            event.getDeletedIds().forEach(id -> deletedAt.putIfAbsent(id, now));
+            if (!loaded) {
+                return;
+            }
+            Map<String, List<HospitalAvailability>> touched = new HashMap<>();
+            List<HospitalSnapshotEvent.Change> changes = new ArrayList<>();
+            for (Long id : event.getDeletedIds()) {
+                HospitalAvailability previous = byId.remove(id);
+                if (previous != null) {
+                    removeFromPartitions(previous, touched);
+                    changes.add(new HospitalSnapshotEvent.Change(previous, null));
+                }
+            }
+            for (HospitalAvailability saved : event.getSaved()) {
+                HospitalAvailability previous = byId.get(saved.getId());
+                if (deletedAt.containsKey(saved.getId()) || (previous != null && isNewer(previous, saved))) {
+                    continue;
+                }
+                // the writer's instance may still be managed, or changed by the caller afterwards
+                HospitalAvailability hospital = new HospitalAvailability(saved);
+                byId.put(hospital.getId(), hospital);
+                if (previous != null) {
+                    removeFromPartitions(previous, touched);
+                }
+                for (String key : cityKeys(hospital)) {
+                    touchedPartition(key, touched).add(hospital);
+                }
+                changes.add(new HospitalSnapshotEvent.Change(previous, hospital));
+            }
+            if (changes.isEmpty()) {
+                return;
+            }
+            publish(touched);
+            eventPublisher.publishEvent(HospitalSnapshotEvent.changed(version, changes));
+        }
+    }
+
+    private void pruneDeletions(long now) {
+        long cutoff = now - TimeUnit.MILLISECONDS.toNanos(deletionRetentionMs);
+        Iterator<Long> deletedTimes = deletedAt.values().iterator();
+        while (deletedTimes.hasNext() && deletedTimes.next() - cutoff <= 0) {
+            deletedTimes.remove();
+        }
+    }
+
+    /** Compares change feed positions when both are stamped, otherwise row versions. */
+    private static boolean isNewer(HospitalAvailability held, HospitalAvailability incoming) {
+        if (held.getChangeVersion() != null && incoming.getChangeVersion() != null) {
+            return held.getChangeVersion() > incoming.getChangeVersion();
+        }
+        return held.getVersion() != null && incoming.getVersion() != null && held.getVersion() > incoming.getVersion();
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (loaded) {
+                return;
+            }
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            List<HospitalAvailability> hospitals = tx.execute(status -> {
+                List<HospitalAvailability> found = repository.findAll();
+                for (HospitalAvailability hospital : found) {
+                    Hibernate.initialize(hospital.getLocations());
+                    // shared across requests, so keep it out of the caller's persistence context
+                    entityManager.detach(hospital);
+                }
+                return found;
+            });
+            byId.clear();
+            partitions = Map.of();
+            Map<String, List<HospitalAvailability>> grouped = new HashMap<>();
+            for (HospitalAvailability hospital : hospitals) {
+                byId.put(hospital.getId(), hospital);
+                for (String key : cityKeys(hospital)) {
+                    grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(hospital);
+                }
+            }
+            publish(grouped);
+            loaded = true;
+            eventPublisher.publishEvent(HospitalSnapshotEvent.reloaded(version));
+        }
+    }
+
+    private void removeFromPartitions(HospitalAvailability previous, Map<String, List<HospitalAvailability>> touched) {
+        Long id = previous.getId();
+        for (String key : cityKeys(previous)) {
+            touchedPartition(key, touched).removeIf(h -> h.getId().equals(id));
+        }
+    }
+
+    private List<HospitalAvailability> touchedPartition(String key, Map<String, List<HospitalAvailability>> touched) {
+        return touched.computeIfAbsent(key, k -> {
+            CityPartition existing = partitions.get(k);
+            return existing != null ? new ArrayList<>(existing.hospitals()) : new ArrayList<>();
+        });
+    }
+
+    private void publish(Map<String, List<HospitalAvailability>> touched) {
+        long next = version + 1;
+        Map<String, CityPartition> updated = new HashMap<>(partitions);
+        touched.forEach((key, hospitals) -> {
+            if (hospitals.isEmpty()) {
+                updated.remove(key);
+            } else {
+                hospitals.sort(BY_ID);
+                updated.put(key, new CityPartition(next, Collections.unmodifiableList(hospitals)));
+            }
+        });
+        partitions = Collections.unmodifiableMap(updated);
+        version = next;
+    }
+
+    public static Set<String> cityKeys(HospitalAvailability hospital) {
+        Set<String> keys = new LinkedHashSet<>();
+        if (hospital.getLocations() != null) {
+            for (Location location : hospital.getLocations()) {
+                if (location.getCity() != null) {
+                    keys.add(cityKey(location.getCity()));
+                }
+            }
+        }
+        return keys;
+    }
+
+    public static String cityKey(String city) {
+        return city.toLowerCase(Locale.ROOT);
+    }
+
+    record CityPartition(long version, List<HospitalAvailability> hospitals) {}
+
+    private record AllHospitals(long version, List<HospitalAvailability> hospitals) {}
+}
@@ -0,0 +1,17 @@
+package com.availit.backend.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class QueryLogConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer sampledStatementLogCustomizer(
+            @Value("${availit.sql-log.sample-rate:0}") double sampleRate) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SampledStatementLog(sampleRate));
+    }
+}
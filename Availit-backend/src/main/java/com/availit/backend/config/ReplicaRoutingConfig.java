@@ -0,0 +1,80 @@
+package com.availit.backend.config;
+
+import com.availit.backend.datasource.ReplicaRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Sends reads started through {@link com.availit.backend.datasource.ReplicaReads} to the read
+ * replicas in {@code availit.datasource.replica.urls}. With no replicas configured the auto-configured
+ * datasource is used unchanged.
+ * <p>
+ * The routing datasource sits behind a {@link LazyConnectionDataSourceProxy}: transactions take
+ * their connection before the read-only flag is published, so the real connection has to be
+ * fetched at the first statement for the routing decision to see it. The pools are built here
+ * rather than as beans, so they publish their hikaricp.* metrics themselves.
+ */
+@Configuration
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRouter replicaRouter(DataSourceProperties properties, Environment environment,
+            ObjectProvider<MeterRegistry> registry,
+            @Value("${availit.datasource.replica.urls:}") String urls,
+            @Value("${availit.datasource.replica.username:${spring.datasource.username:}}") String username,
+            @Value("${availit.datasource.replica.password:${spring.datasource.password:}}") String password,
+            @Value("${availit.datasource.replica.lag-query:SELECT 0}") String lagQuery,
+            @Value("${availit.datasource.replica.max-lag-ms:2000}") long maxLagMillis,
+            @Value("${availit.datasource.replica.read-your-writes-ms:5000}") long readYourWritesMillis) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls.split(",")) {
+            if (!url.isBlank()) {
+                String name = "replica-" + replicas.size();
+                HikariDataSource replica = pool(properties, environment, registry, "availit-" + name,
+                    url.trim(), username, password);
+                replica.setReadOnly(true);
+                replicas.put(name, replica);
+            }
+        }
+        return new ReplicaRouter(replicas, lagQuery, maxLagMillis, readYourWritesMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty("availit.datasource.replica.urls")
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ObjectProvider<MeterRegistry> registry, ReplicaRouter router) {
+        HikariDataSource primary = pool(properties, environment, registry, "availit-primary",
+            properties.determineUrl(), properties.determineUsername(), properties.determinePassword());
+        return new LazyConnectionDataSourceProxy(router.routingDataSource(primary));
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment,
+                                         ObjectProvider<MeterRegistry> registry, String name,
+                                         String url, String username, String password) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        registry.ifAvailable(meters -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meters)));
+        return pool;
+    }
+}
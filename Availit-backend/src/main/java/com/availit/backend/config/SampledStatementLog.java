@@ -0,0 +1,37 @@
+package com.availit.backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Replacement for {@code spring.jpa.show-sql}: logs a random sample of the statements Hibernate
+ * prepares, one key=value line each, under the {@code availit.sql} logger. At a rate of 0 it returns
+ * before drawing a random number, so it costs nothing when switched off.
+ */
+public class SampledStatementLog implements StatementInspector {
+
+    private static final Logger log = LoggerFactory.getLogger("availit.sql");
+
+    private final double sampleRate;
+
+    public SampledStatementLog(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (sampleRate > 0 && log.isInfoEnabled()
+                && (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate)) {
+            String compact = sql.replaceAll("\\s+", " ").trim();
+            int space = compact.indexOf(' ');
+            String kind = (space > 0 ? compact.substring(0, space) : compact).toLowerCase(Locale.ROOT);
+            log.info("sql_sample kind={} rate={} thread=\"{}\" sql=\"{}\"", kind, sampleRate,
+                Thread.currentThread().getName(), compact.replace("\"", "\\\""));
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,35 @@
+package com.availit.backend.config;
+
+import com.github.benmanes.caffeine.jcache.CacheManagerImpl;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * Gives the Hibernate second-level cache a cache manager of its own. The JCache provider hands out
+ * one manager per configuration URI for the whole JVM, so two application contexts over different
+ * databases (as in the test suite) would otherwise read each other's cached rows.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${spring.jpa.properties.hibernate.javax.cache.uri:hibernate-cache.conf}") String config) {
+        return new CacheManagerImpl(Caching.getCachingProvider(CaffeineCachingProvider.class.getName()), false,
+            URI.create("classpath:" + config), getClass().getClassLoader(), new Properties());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+}
@@ -1,12 +1,14 @@
 package com.availit.backend.config;
 
-import com.availit.backend.service.UserService;
-import com.availit.backend.service.JwtUtil;
+import com.availit.backend.service.VerifiedPrincipalCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,7 +16,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -32,9 +33,16 @@ import java.io.IOException;
 @EnableWebSecurity
 public class SecurityConfig {
     @Autowired
-    private JwtUtil jwtUtil;
-    @Autowired
-    private UserService userService;
+    private VerifiedPrincipalCache principalCache;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    @Value("${management.endpoints.web.base-path:/actuator}")
+    private String actuatorBasePath;
 
     @Bean
     public PasswordEncoder passwordEncoder() {
@@ -43,6 +51,7 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+        boolean actuatorOnApplicationPort = managementPort < 0 || managementPort == serverPort;
         http.csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -57,9 +66,12 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT, "/api/hospitals/**").permitAll()
                 .requestMatchers(HttpMethod.DELETE, "/api/hospitals/**").permitAll()
                 .requestMatchers("/swagger-ui.html", "/swagger-ui/**", "/api-docs/**").permitAll()
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                // metrics expose per-endpoint latencies and pool internals, so only on a separate management port
+                .requestMatchers(request -> actuatorOnApplicationPort && request.getRequestURI().startsWith(actuatorBasePath)).denyAll()
                 .anyRequest().permitAll()
             )
-            .addFilterBefore(new JwtAuthFilter(jwtUtil, userService), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(new JwtAuthFilter(principalCache), UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
@@ -86,40 +98,25 @@ public class SecurityConfig {
     }
 
     public static class JwtAuthFilter extends OncePerRequestFilter {
-        private final JwtUtil jwtUtil;
-        private final UserService userService;
+        private final VerifiedPrincipalCache principalCache;
 
-        public JwtAuthFilter(JwtUtil jwtUtil, UserService userService) {
-            this.jwtUtil = jwtUtil;
-            this.userService = userService;
+        public JwtAuthFilter(VerifiedPrincipalCache principalCache) {
+            this.principalCache = principalCache;
         }
 
         @Override
         protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
                 throws ServletException, IOException {
             String authHeader = request.getHeader("Authorization");
-            String token = null;
-            String username = null;
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                token = authHeader.substring(7);
-                try {
-                    username = jwtUtil.extractUsername(token);
-                } catch (Exception ignored) {}
-            }
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                var userOpt = userService.findByUsername(username);
-                if (userOpt.isPresent() && jwtUtil.validateToken(token, userOpt.get())) {
-                    UserDetails userDetails = org.springframework.security.core.userdetails.User
-                        .withUsername(userOpt.get().getUsername())
-                        .password(userOpt.get().getPassword())
-                        .roles(userOpt.get().getRole())
-                        .build();
+            if (authHeader != null && authHeader.startsWith("Bearer ")
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                principalCache.authenticate(authHeader.substring(7)).ifPresent(userDetails -> {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                     SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+                });
             }
             filterChain.doFilter(request, response);
         }
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,58 @@
+package com.availit.backend.config;
+
+import com.availit.backend.monitoring.SqlStatementRecorder;
+import com.availit.backend.monitoring.SqlStatisticsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application's {@link DataSource} in a datasource-proxy that reports every statement to
+ * {@link SqlStatementRecorder}, and registers the filter that keeps per-request SQL statistics.
+ */
+@Configuration
+public class SqlMonitoringConfig {
+
+    @Bean
+    public SqlStatementRecorder sqlStatementRecorder(@Value("${availit.sql.slow-query-ms:200}") long slowQueryMillis) {
+        return new SqlStatementRecorder(slowQueryMillis);
+    }
+
+    @Bean
+    public static BeanPostProcessor sqlRecordingDataSourcePostProcessor(ObjectProvider<SqlStatementRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(recorder.getObject())
+                        .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatisticsFilter> sqlStatisticsFilter(
+            SqlStatementRecorder recorder,
+            ObjectProvider<MeterRegistry> registry,
+            @Value("${availit.sql.budgets:}") String budgets,
+            @Value("${availit.sql.repeat-threshold:5}") int repeatThreshold,
+            @Value("${availit.sql.enforce-budgets:false}") boolean enforce) {
+        FilterRegistrationBean<SqlStatisticsFilter> registration = new FilterRegistrationBean<>(
+            new SqlStatisticsFilter(recorder, budgets, repeatThreshold, enforce, registry.getIfAvailable()));
+        // ahead of Spring Security, so statements run while authenticating are counted too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
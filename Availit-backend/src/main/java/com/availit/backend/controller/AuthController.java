@@ -1,6 +1,5 @@
 package com.availit.backend.controller;
 
-import com.availit.backend.model.User;
 import com.availit.backend.service.UserService;
 import com.availit.backend.service.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,6 +13,8 @@ import com.availit.backend.dto.RegisterRequest;
 import com.availit.backend.dto.LoginRequest;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -32,17 +33,18 @@ public class AuthController {
         ),
         responses = {
             @ApiResponse(responseCode = "200", description = "User registered successfully", content = @Content(schema = @Schema(example = "{\"message\": \"User registered successfully\"}"))),
-            @ApiResponse(responseCode = "400", description = "Registration failed", content = @Content(schema = @Schema(example = "{\"error\": \"Username already exists\"}")))
+            @ApiResponse(responseCode = "400", description = "Registration failed", content = @Content(schema = @Schema(example = "{\"error\": \"Username already exists\"}"))),
+            @ApiResponse(responseCode = "503", description = "Too many sign-in requests in progress; retry shortly")
         }
     )
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
-        try {
-            User user = userService.registerUser(request.getUsername(), request.getPassword(), request.getRole());
-            return ResponseEntity.ok(Map.of("message", "User registered successfully"));
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
-        }
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody RegisterRequest request) {
+        return userService.registerUser(request.getUsername(), request.getPassword(), request.getRole())
+            .<ResponseEntity<?>>thenApply(user -> ResponseEntity.ok(Map.of("message", "User registered successfully")))
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(cause.getMessage())));
+            });
     }
 
     @Operation(
@@ -54,22 +56,24 @@ public class AuthController {
         ),
         responses = {
             @ApiResponse(responseCode = "200", description = "Login successful", content = @Content(schema = @Schema(example = "{\"token\":\"<jwt>\",\"username\":\"user\",\"role\":\"USER\"}"))),
-            @ApiResponse(responseCode = "401", description = "Invalid credentials", content = @Content(schema = @Schema(example = "{\"error\":\"Invalid credentials\"}")))
+            @ApiResponse(responseCode = "401", description = "Invalid credentials", content = @Content(schema = @Schema(example = "{\"error\":\"Invalid credentials\"}"))),
+            @ApiResponse(responseCode = "503", description = "Too many sign-in requests in progress; retry shortly")
         }
     )
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
-        var userOpt = userService.authenticateUser(request.getUsername(), request.getPassword());
-        if (userOpt.isPresent()) {
-            String token = jwtUtil.generateToken(userOpt.get());
-            return ResponseEntity.ok(Map.of(
-                "token", token,
-                "username", userOpt.get().getUsername(),
-                "role", userOpt.get().getRole()
-            ));
-        } else {
-            return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
-        }
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request) {
+        return userService.authenticateUser(request.getUsername(), request.getPassword()).<ResponseEntity<?>>thenApply(userOpt -> {
+            if (userOpt.isPresent()) {
+                String token = jwtUtil.generateToken(userOpt.get());
+                return ResponseEntity.ok(Map.of(
+                    "token", token,
+                    "username", userOpt.get().getUsername(),
+                    "role", userOpt.get().getRole()
+                ));
+            } else {
+                return ResponseEntity.status(401).body(Map.of("error", "Invalid credentials"));
+            }
+        });
     }
 
     @GetMapping("/users")
@@ -1,7 +1,25 @@
 package com.availit.backend.controller;
 
+import com.availit.backend.dto.AvailabilityHistory;
+import com.availit.backend.dto.BulkIngestReport;
+import com.availit.backend.dto.CapacityAdjustment;
+import com.availit.backend.dto.CityCapacityStats;
+import com.availit.backend.dto.CitySuggestion;
+import com.availit.backend.dto.CursorPage;
+import com.availit.backend.dto.HospitalChanges;
+import com.availit.backend.dto.ImportReport;
+import com.availit.backend.dto.LiveSourceStatus;
+import com.availit.backend.dto.NearbyHospital;
 import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.repository.HospitalCursor;
+import com.availit.backend.service.AvailabilityHistoryService;
+import com.availit.backend.service.AvailabilityStreamService;
 import com.availit.backend.service.HospitalAvailabilityService;
+import com.availit.backend.service.HospitalBulkIngestService;
+import com.availit.backend.service.HospitalCsvImportService;
+import com.availit.backend.service.HospitalExportService;
+import com.availit.backend.service.LiveSourceIngestionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,14 +27,29 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/hospitals")
@@ -24,9 +57,33 @@ import java.util.List;
 @Tag(name = "Hospital Availability", description = "APIs for managing hospital bed and oxygen availability")
 public class HospitalAvailabilityController {
 
+    private static final double MAX_NEARBY_RADIUS_KM = 500;
+    private static final int MAX_CURSOR_PAGE_SIZE = 500;
+    private static final int MAX_CHANGES_PAGE_SIZE = 5000;
+    private static final int MAX_HISTORY_BUCKETS = 1000;
+    private static final Duration DEFAULT_HISTORY_WINDOW = Duration.ofHours(48);
+
     @Autowired
     private HospitalAvailabilityService hospitalAvailabilityService;
 
+    @Autowired
+    private AvailabilityStreamService availabilityStreamService;
+
+    @Autowired
+    private HospitalBulkIngestService hospitalBulkIngestService;
+
+    @Autowired
+    private LiveSourceIngestionService liveSourceIngestionService;
+
+    @Autowired
+    private AvailabilityHistoryService availabilityHistoryService;
+
+    @Autowired
+    private HospitalExportService hospitalExportService;
+
+    @Autowired
+    private HospitalCsvImportService hospitalCsvImportService;
+
     @GetMapping("/getAllHospitals")
     @Operation(
         summary = "Get all hospitals",
@@ -41,6 +98,10 @@ public class HospitalAvailabilityController {
                 schema = @Schema(implementation = HospitalAvailability.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Unchanged since the ETag sent in If-None-Match"
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error"
@@ -48,7 +109,46 @@ public class HospitalAvailabilityController {
     })
     public ResponseEntity<Page<HospitalAvailability>> getAllHospitals(Pageable pageable) {
         Page<HospitalAvailability> hospitals = hospitalAvailabilityService.getAllHospitals(pageable);
-        return ResponseEntity.ok(hospitals);
+        return ResponseEntity.ok().eTag(eTag(hospitals.getContent(), hospitals.getTotalElements())).body(hospitals);
+    }
+
+    @GetMapping("/cursor")
+    @Operation(
+        summary = "List hospitals with a cursor",
+        description = "Keyset-paginated listing ordered by the sort key and then id. Pass the returned nextCursor as 'after' to get the next page; the sort and direction are then taken from the cursor. Every page costs the same however deep it is, and the total is only counted when includeTotal is set."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved a page of hospitals",
+            content = @Content(schema = @Schema(implementation = CursorPage.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unknown sort key, size out of range or malformed cursor"
+        )
+    })
+    public ResponseEntity<CursorPage<HospitalAvailability>> getHospitalsByCursor(
+            @Parameter(description = "Sort key: id, hospitalName or availableBeds", example = "hospitalName")
+            @RequestParam(defaultValue = "id") String sort,
+            @Parameter(description = "Sort direction", example = "asc")
+            @RequestParam(defaultValue = "asc") String direction,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Page size, at most " + MAX_CURSOR_PAGE_SIZE, example = "50")
+            @RequestParam(defaultValue = "50") int size,
+            @Parameter(description = "Also count all hospitals", example = "false")
+            @RequestParam(defaultValue = "false") boolean includeTotal) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            HospitalCursor.Sort sortKey = HospitalCursor.Sort.fromProperty(sort);
+            return ResponseEntity.ok(hospitalAvailabilityService.getHospitalPage(
+                sortKey, "desc".equalsIgnoreCase(direction), after, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -99,6 +199,10 @@ public class HospitalAvailabilityController {
                 schema = @Schema(implementation = HospitalAvailability.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Unchanged since the ETag sent in If-None-Match"
+        ),
         @ApiResponse(
             responseCode = "404",
             description = "Hospital not found"
@@ -113,12 +217,57 @@ public class HospitalAvailabilityController {
             @PathVariable Long id) {
         HospitalAvailability hospital = hospitalAvailabilityService.getHospitalById(id);
         if (hospital != null) {
-            return ResponseEntity.ok(hospital);
+            return ResponseEntity.ok().eTag(eTag(List.of(hospital))).body(hospital);
         } else {
             return ResponseEntity.notFound().build();
         }
     }
 
+    @GetMapping("/{id}/history")
+    @Operation(
+        summary = "Get availability history",
+        description = "Returns how a hospital's beds, ICU beds, ventilators and oxygen changed over a time window, "
+            + "downsampled into equal buckets with min, max and average per field. Defaults to the last 48 hours."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "History retrieved successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = AvailabilityHistory.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Empty time window or bucket count out of range"
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Hospital not found"
+        )
+    })
+    public ResponseEntity<AvailabilityHistory> getHospitalHistory(
+            @Parameter(description = "ID of the hospital", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Start of the window (ISO-8601)", example = "2024-05-01T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @Parameter(description = "End of the window (ISO-8601), exclusive", example = "2024-05-03T00:00:00Z")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @Parameter(description = "Number of buckets, at most " + MAX_HISTORY_BUCKETS, example = "48")
+            @RequestParam(defaultValue = "48") int buckets) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(DEFAULT_HISTORY_WINDOW);
+        if (!start.isBefore(end) || buckets < 1 || buckets > MAX_HISTORY_BUCKETS) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (hospitalAvailabilityService.getHospitalById(id) == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(availabilityHistoryService.getHistory(
+            id, start.toEpochMilli(), end.toEpochMilli(), buckets));
+    }
+
     @PutMapping("/{id}")
     @Operation(
         summary = "Update hospital information",
@@ -141,6 +290,10 @@ public class HospitalAvailabilityController {
             responseCode = "400",
             description = "Invalid input data"
         ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Hospital was changed since the supplied version"
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error"
@@ -163,6 +316,50 @@ public class HospitalAvailabilityController {
         }
     }
 
+    @PostMapping("/{id}/beds/adjust")
+    @Operation(
+        summary = "Adjust hospital capacity",
+        description = "Atomically adds the given deltas to available beds, ICU beds and ventilators, e.g. -1 on admission and +1 on discharge. The change is rejected if any counter would drop below zero or available beds would exceed total beds."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Capacity adjusted successfully",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = HospitalAvailability.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "Hospital not found"
+        ),
+        @ApiResponse(
+            responseCode = "409",
+            description = "Adjustment would move a counter out of bounds"
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error"
+        )
+    })
+    public ResponseEntity<HospitalAvailability> adjustCapacity(
+            @Parameter(description = "ID of the hospital to adjust", example = "1")
+            @PathVariable Long id,
+            @Parameter(
+                description = "Deltas to apply",
+                required = true,
+                content = @Content(schema = @Schema(implementation = CapacityAdjustment.class))
+            )
+            @RequestBody CapacityAdjustment adjustment) {
+        HospitalAvailability adjusted = hospitalAvailabilityService.adjustCapacity(id, adjustment);
+        if (adjusted != null) {
+            return ResponseEntity.ok(adjusted);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
         summary = "Delete hospital",
@@ -207,6 +404,10 @@ public class HospitalAvailabilityController {
                 schema = @Schema(implementation = HospitalAvailability.class)
             )
         ),
+        @ApiResponse(
+            responseCode = "304",
+            description = "Unchanged since the ETag sent in If-None-Match"
+        ),
         @ApiResponse(
             responseCode = "500",
             description = "Internal server error"
@@ -214,12 +415,189 @@ public class HospitalAvailabilityController {
     })
     public ResponseEntity<List<HospitalAvailability>> getAllHospitalsPublic() {
         List<HospitalAvailability> hospitals = hospitalAvailabilityService.getAllHospitals();
-        return ResponseEntity.ok(hospitals);
+        return ResponseEntity.ok().eTag(eTag(hospitals)).body(hospitals);
+    }
+
+    @GetMapping("/export")
+    @Operation(
+        summary = "Export all hospitals",
+        description = "Streams every hospital, or only those in the given cities, as newline-delimited JSON or CSV in id order. Rows are written as they are read from the database, so exports of any size use the same server memory. The response is gzip-compressed by the server when the client accepts gzip."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Export streamed",
+            content = {
+                @Content(mediaType = "application/x-ndjson"),
+                @Content(mediaType = "text/csv")
+            }
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Unknown format"
+        )
+    })
+    public void exportHospitals(
+            @Parameter(description = "ndjson or csv", example = "csv")
+            @RequestParam(defaultValue = "ndjson") String format,
+            @Parameter(description = "Only hospitals with a location in these cities", example = "Pune,Mumbai")
+            @RequestParam(required = false) List<String> city,
+            HttpServletResponse response) throws IOException {
+        HospitalExportService.Format exportFormat = HospitalExportService.Format.of(format);
+        if (exportFormat == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown export format: " + format);
+            return;
+        }
+        // compressed by server.compression, which negotiates Accept-Encoding
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"hospitals." + exportFormat.getExtension() + "\"");
+        OutputStream body = response.getOutputStream();
+        hospitalExportService.export(city, exportFormat, body);
+        body.flush();
     }
 
     @GetMapping("/city/{cityName}")
     public ResponseEntity<List<HospitalAvailability>> getHospitalsByCity(@PathVariable String cityName) {
         List<HospitalAvailability> hospitals = hospitalAvailabilityService.getHospitalsByCity(cityName);
+        return ResponseEntity.ok().eTag(eTag(hospitals)).body(hospitals);
+    }
+
+    @GetMapping("/changes")
+    @Operation(
+        summary = "Hospitals changed since a version",
+        description = "Delta sync: returns hospitals written and ids of hospitals deleted after the given change version, oldest first. Start with since=0 and pass the returned version back as since; keep going while hasMore is true. With a city, only hospitals in that city are returned, hospitals that left the city are reported as deleted, and deletions are reported for every city. Deletions are kept for a limited time; an older version gets 410 and should sync again from since=0."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Changes since the given version",
+            content = @Content(schema = @Schema(implementation = HospitalChanges.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Negative version or limit out of range"
+        ),
+        @ApiResponse(
+            responseCode = "410",
+            description = "Deletions after the given version have been purged; sync again from since=0"
+        )
+    })
+    public ResponseEntity<HospitalChanges> getChanges(
+            @Parameter(description = "Change version returned by the previous call, or 0 for everything", example = "1042")
+            @RequestParam(defaultValue = "0") long since,
+            @Parameter(description = "Only hospitals with a location in this city", example = "Pune")
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Most changes to return, at most " + MAX_CHANGES_PAGE_SIZE, example = "500")
+            @RequestParam(defaultValue = "500") int limit) {
+        if (since < 0 || limit < 1 || limit > MAX_CHANGES_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(hospitalAvailabilityService.getChanges(since, city, limit));
+    }
+
+    @GetMapping("/filter")
+    @Operation(
+        summary = "Filter hospitals by capacity",
+        description = "Returns hospitals meeting the given minimum bed, ICU and ventilator counts, optionally limited to a city and to oxygen availability. Results are ordered by available beds, highest first."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully filtered hospitals",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = HospitalAvailability.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error"
+        )
+    })
+    public ResponseEntity<List<HospitalAvailability>> filterHospitals(
+            @Parameter(description = "City to search in", example = "Pune")
+            @RequestParam(required = false) String city,
+            @Parameter(description = "Minimum number of available beds", example = "1")
+            @RequestParam(defaultValue = "0") int minAvailableBeds,
+            @Parameter(description = "Minimum number of ICU beds", example = "0")
+            @RequestParam(defaultValue = "0") int minIcuBeds,
+            @Parameter(description = "Minimum number of ventilators", example = "0")
+            @RequestParam(defaultValue = "0") int minVentilators,
+            @Parameter(description = "Required oxygen availability", example = "true")
+            @RequestParam(required = false) Boolean oxygenAvailable,
+            @Parameter(description = "Maximum number of hospitals to return", example = "100")
+            @RequestParam(defaultValue = "100") int limit) {
+        List<HospitalAvailability> hospitals = hospitalAvailabilityService.filterHospitals(
+            city, minAvailableBeds, minIcuBeds, minVentilators, oxygenAvailable, Math.max(limit, 0));
+        return ResponseEntity.ok(hospitals);
+    }
+
+    @GetMapping("/nearby")
+    @Operation(
+        summary = "Find nearest hospitals with capacity",
+        description = "Returns the closest hospitals within the given radius that have at least the requested number of available beds, nearest first. Only locations with coordinates are considered."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved nearby hospitals",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = NearbyHospital.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Invalid coordinates or radius"
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error"
+        )
+    })
+    public ResponseEntity<List<NearbyHospital>> getNearbyHospitals(
+            @Parameter(description = "Latitude of the search position", example = "18.5204")
+            @RequestParam double lat,
+            @Parameter(description = "Longitude of the search position", example = "73.8567")
+            @RequestParam double lon,
+            @Parameter(description = "Search radius in kilometres", example = "10")
+            @RequestParam(defaultValue = "25") double radiusKm,
+            @Parameter(description = "Minimum number of available beds", example = "1")
+            @RequestParam(defaultValue = "0") int minBeds,
+            @Parameter(description = "Maximum number of hospitals to return", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180 || radiusKm <= 0 || radiusKm > MAX_NEARBY_RADIUS_KM) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<NearbyHospital> hospitals = hospitalAvailabilityService.findNearbyHospitals(lat, lon, radiusKm, minBeds, limit);
+        return ResponseEntity.ok(hospitals);
+    }
+
+    @GetMapping("/search")
+    @Operation(
+        summary = "Search hospitals by name or address",
+        description = "Fuzzy search over hospital names and addresses that tolerates partial words and small misspellings. Results are ranked by similarity, best match first."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully searched hospitals",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = HospitalAvailability.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error"
+        )
+    })
+    public ResponseEntity<List<HospitalAvailability>> searchHospitals(
+            @Parameter(description = "Text to search for", example = "Apolo")
+            @RequestParam String q,
+            @Parameter(description = "Maximum number of hospitals to return", example = "20")
+            @RequestParam(defaultValue = "20") int limit) {
+        List<HospitalAvailability> hospitals = hospitalAvailabilityService.searchHospitals(q, limit);
         return ResponseEntity.ok(hospitals);
     }
 
@@ -247,9 +625,169 @@ public class HospitalAvailabilityController {
         return ResponseEntity.ok(cities);
     }
 
+    @GetMapping("/cities/suggest")
+    @Operation(
+        summary = "Suggest cities by prefix",
+        description = "Autocompletes city names case-insensitively from the given prefix. Each suggestion carries the number of hospitals in that city; cities with more hospitals come first."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved city suggestions",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = CitySuggestion.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error"
+        )
+    })
+    public ResponseEntity<List<CitySuggestion>> suggestCities(
+            @Parameter(description = "Beginning of the city name", example = "Pu")
+            @RequestParam(defaultValue = "") String prefix,
+            @Parameter(description = "Maximum number of suggestions", example = "10")
+            @RequestParam(defaultValue = "10") int limit) {
+        List<CitySuggestion> suggestions = hospitalAvailabilityService.suggestCities(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    @GetMapping("/cities/stats")
+    @Operation(
+        summary = "Get capacity totals per city",
+        description = "Returns, for every city or only the given one, the number of hospitals, total and available beds, ICU beds, ventilators and hospitals with oxygen. Totals are kept up to date on every change, not computed per request."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved city totals",
+            content = @Content(
+                mediaType = "application/json",
+                schema = @Schema(implementation = CityCapacityStats.class)
+            )
+        ),
+        @ApiResponse(
+            responseCode = "500",
+            description = "Internal server error"
+        )
+    })
+    public ResponseEntity<List<CityCapacityStats>> getCityStats(
+            @Parameter(description = "Only this city, matched case-insensitively", example = "Pune")
+            @RequestParam(required = false) String city) {
+        if (city == null || city.isBlank()) {
+            return ResponseEntity.ok(hospitalAvailabilityService.getCityStats());
+        }
+        CityCapacityStats stats = hospitalAvailabilityService.getCityStats(city.trim());
+        return ResponseEntity.ok(stats != null ? List.of(stats) : List.of());
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+        summary = "Stream availability changes",
+        description = "Server-Sent Events stream of availability deltas for the given cities, or for all cities when none are given. Each 'availability' event carries the hospital id, the change type and only the fields that changed. A hospital that moves into the given cities arrives as CREATED with all its fields, and one that moves out as DELETED."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Event stream opened"
+        )
+    })
+    public SseEmitter streamAvailability(
+            @Parameter(description = "Cities to subscribe to", example = "Pune,Mumbai")
+            @RequestParam(required = false) List<String> cities) {
+        return availabilityStreamService.subscribe(cities);
+    }
+
+    @GetMapping("/live/sources")
+    @Operation(
+        summary = "Live source status",
+        description = "Lists the live hospital sources that are imported on a schedule, with the time and outcome of their last refresh"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Successfully retrieved source status",
+            content = @Content(schema = @Schema(implementation = LiveSourceStatus.class))
+        )
+    })
+    public ResponseEntity<Collection<LiveSourceStatus>> getLiveSources() {
+        return ResponseEntity.ok(liveSourceIngestionService.getStatuses());
+    }
+
     @PostMapping("/bulk")
     public ResponseEntity<List<HospitalAvailability>> createHospitals(@RequestBody List<HospitalAvailability> hospitals) {
         List<HospitalAvailability> created = hospitalAvailabilityService.createHospitals(hospitals);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
+
+    @PostMapping(value = "/bulk/ingest", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(
+        summary = "Bulk ingest hospitals",
+        description = "Streams a JSON array of hospitals and inserts it in JDBC batches, committing one chunk at a time. Invalid rows and elements that are not objects are rejected individually and a failing chunk does not roll back earlier ones. If the JSON breaks off part way, everything read before that point is still written and the report gives the element index where reading stopped."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Ingestion finished; see the per-chunk results",
+            content = @Content(schema = @Schema(implementation = BulkIngestReport.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Body is not a JSON array of hospitals, or is malformed part way; in that case the body is the report of what was written before the error",
+            content = @Content(schema = @Schema(implementation = BulkIngestReport.class))
+        )
+    })
+    public ResponseEntity<BulkIngestReport> ingestHospitals(HttpServletRequest request) throws IOException {
+        try {
+            BulkIngestReport report = hospitalBulkIngestService.ingest(request.getInputStream());
+            return report.getError() == null ? ResponseEntity.ok(report) : ResponseEntity.badRequest().body(report);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    @Operation(
+        summary = "Import hospitals from CSV",
+        description = "Streams a CSV file with a header row and upserts each row. Rows are matched to existing hospitals by external_source_id, or else by hospital name and address; only rows that change a hospital are written. Missing columns and empty cells keep the stored value. The CSV written by /export can be imported as is."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Import finished; see the counts and rejected lines",
+            content = @Content(schema = @Schema(implementation = ImportReport.class))
+        ),
+        @ApiResponse(
+            responseCode = "400",
+            description = "File is empty or its header names no hospital_name or external_source_id column"
+        )
+    })
+    public ResponseEntity<ImportReport> importHospitals(HttpServletRequest request) throws IOException {
+        try {
+            Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return ResponseEntity.ok(hospitalCsvImportService.importCsv(new InputStreamReader(request.getInputStream(), charset)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Weak validator over the id and both versions of every hospital in a response, so any write to
+     * one of them, or one joining or leaving the list, changes it. A request whose If-None-Match
+     * matches gets a 304 before the body is serialized.
+     */
+    private static String eTag(List<HospitalAvailability> hospitals, long... extra) {
+        long hash = 0xcbf29ce484222325L;
+        for (HospitalAvailability hospital : hospitals) {
+            hash = (hash ^ hospital.getId()) * 0x100000001b3L;
+            hash = (hash ^ Objects.requireNonNullElse(hospital.getVersion(), 0L)) * 0x100000001b3L;
+            hash = (hash ^ Objects.requireNonNullElse(hospital.getChangeVersion(), 0L)) * 0x100000001b3L;
+        }
+        for (long value : extra) {
+            hash = (hash ^ value) * 0x100000001b3L;
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
 }
@@ -0,0 +1,63 @@
+package com.availit.backend.datasource;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads that may be answered by a read replica. Only reads started here are routed to a
+ * replica; a read that must see a write made moments ago, such as reloading rows just inserted,
+ * keeps using a plain read-only transaction and goes to the primary. Inside an existing transaction
+ * the read joins it and uses its connection.
+ * <p>
+ * While replicas are configured, these reads use the second-level cache but never fill it: a
+ * lagging replica would otherwise put the old row back right after a write evicted it, and later
+ * writes on the primary would start from that copy.
+ */
+@Component
+public class ReplicaReads {
+
+    private static final String STORE_MODE = "jakarta.persistence.cache.storeMode";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ReplicaRouter router;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <T> T execute(Supplier<T> read) {
+        return execute(null, read);
+    }
+
+    /** Like {@link #execute(Supplier)}, but reads from the primary while {@code subject} has a recent write. */
+    public <T> T execute(String subject, Supplier<T> read) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+        return router.preferReplica(subject, () -> tx.execute(status -> {
+            if (!router.hasReplicas()) {
+                return read.get();
+            }
+            // the persistence context may be the request's, so restore its mode afterwards
+            Object previous = entityManager.getProperties().getOrDefault(STORE_MODE, CacheStoreMode.USE);
+            entityManager.setProperty(STORE_MODE, CacheStoreMode.BYPASS);
+            try {
+                return read.get();
+            } finally {
+                entityManager.setProperty(STORE_MODE, previous);
+            }
+        }));
+    }
+
+    public void recordWrite(String subject) {
+        router.recordWrite(subject);
+    }
+}
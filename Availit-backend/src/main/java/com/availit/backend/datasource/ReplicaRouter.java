@@ -0,0 +1,210 @@
+package com.availit.backend.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Chooses the database each connection is taken from. A connection goes to a replica only when it
+ * is opened for a read-only transaction started through {@link ReplicaReads}, some replica reported
+ * lag under {@code max-lag-ms} on its last check, and neither the current user nor the subject of
+ * the read has written within the read-your-writes window. Everything else goes to the primary.
+ * <p>
+ * Replicas are used in turn. A replica whose lag query fails counts as lagging until it answers again.
+ */
+public class ReplicaRouter implements MeterBinder {
+
+    public static final String PRIMARY = "primary";
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    private final String[] names;
+    private final DataSource[] replicas;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final AtomicLongArray lagMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Cache<String, Boolean> recentWriters;
+    private final ThreadLocal<ReplicaRead> currentRead = new ThreadLocal<>();
+    private final List<AutoCloseable> pools = new ArrayList<>();
+
+    public ReplicaRouter(Map<String, DataSource> replicas, String lagQuery, long maxLagMillis, long readYourWritesMillis) {
+        this.names = replicas.keySet().toArray(new String[0]);
+        this.replicas = replicas.values().toArray(new DataSource[0]);
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.lagMillis = new AtomicLongArray(names.length);
+        for (int i = 0; i < names.length; i++) {
+            lagMillis.set(i, UNREACHABLE);
+        }
+        this.recentWriters = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .expireAfterWrite(readYourWritesMillis, TimeUnit.MILLISECONDS)
+            .build();
+        replicas.values().forEach(this::closeOnShutdown);
+    }
+
+    public boolean hasReplicas() {
+        return names.length > 0;
+    }
+
+    /** Builds the datasource that routes between {@code primary} and the replicas; the router closes it on shutdown. */
+    public DataSource routingDataSource(DataSource primary) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return route();
+            }
+        };
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < names.length; i++) {
+            targets.put(names[i], replicas[i]);
+        }
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        closeOnShutdown(primary);
+        return routing;
+    }
+
+    /** Makes reads by or about {@code subject} go to the primary for the read-your-writes window. */
+    public void recordWrite(String subject) {
+        if (subject != null && hasReplicas()) {
+            recentWriters.put(subject, Boolean.TRUE);
+        }
+    }
+
+    /** Replica lag in milliseconds as of the last check, or {@link Long#MAX_VALUE} when it could not be measured. */
+    public Map<String, Long> getLagMillis() {
+        Map<String, Long> lag = new LinkedHashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            lag.put(names[i], lagMillis.get(i));
+        }
+        return lag;
+    }
+
+    @Scheduled(fixedDelayString = "${availit.datasource.replica.lag-check-ms:5000}")
+    public void checkLag() {
+        for (int i = 0; i < names.length; i++) {
+            long lag;
+            try {
+                Number measured = new JdbcTemplate(replicas[i]).queryForObject(lagQuery, Number.class);
+                lag = measured == null ? 0 : Math.max(0, measured.longValue());
+            } catch (DataAccessException e) {
+                if (lagMillis.get(i) != UNREACHABLE) {
+                    log.warn("Replica {} did not answer its lag check; reading from the primary", names[i], e);
+                }
+                lag = UNREACHABLE;
+            }
+            long previous = lagMillis.getAndSet(i, lag);
+            if (lag > maxLagMillis && lag != UNREACHABLE && previous <= maxLagMillis) {
+                log.warn("Replica {} is {} ms behind; reading from the primary", names[i], lag);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < names.length; i++) {
+            int replica = i;
+            Gauge.builder("availit.datasource.replica.lag", () -> {
+                    long lag = lagMillis.get(replica);
+                    return lag == UNREACHABLE ? Double.NaN : lag;
+                })
+                .description("Replication lag of a read replica as of its last check")
+                .baseUnit("milliseconds")
+                .tag("replica", names[i])
+                .register(registry);
+        }
+    }
+
+    public void close() {
+        for (AutoCloseable pool : pools) {
+            try {
+                pool.close();
+            } catch (Exception e) {
+                log.warn("Could not close datasource {}", pool, e);
+            }
+        }
+    }
+
+    <T> T preferReplica(String subject, Supplier<T> read) {
+        ReplicaRead previous = currentRead.get();
+        currentRead.set(new ReplicaRead(subject));
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                currentRead.remove();
+            } else {
+                currentRead.set(previous);
+            }
+        }
+    }
+
+    String route() {
+        ReplicaRead read = currentRead.get();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite(currentUser());
+            }
+            return PRIMARY;
+        }
+        if (read == null || wroteRecently(currentUser()) || wroteRecently(read.subject())) {
+            return PRIMARY;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), names.length);
+        for (int i = 0; i < names.length; i++) {
+            int candidate = (start + i) % names.length;
+            if (lagMillis.get(candidate) <= maxLagMillis) {
+                return names[candidate];
+            }
+        }
+        return PRIMARY;
+    }
+
+    private boolean wroteRecently(String subject) {
+        return subject != null && recentWriters.getIfPresent(subject) != null;
+    }
+
+    private void closeOnShutdown(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            pools.add(closeable);
+        }
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private record ReplicaRead(String subject) {}
+}
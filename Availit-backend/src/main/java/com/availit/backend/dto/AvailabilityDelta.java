@@ -0,0 +1,24 @@
+package com.availit.backend.dto;
+
+import java.util.Map;
+
+public class AvailabilityDelta {
+    public enum Type { CREATED, UPDATED, DELETED }
+
+    private final long version;
+    private final Type type;
+    private final Long hospitalId;
+    private final Map<String, Object> changes;
+
+    public AvailabilityDelta(long version, Type type, Long hospitalId, Map<String, Object> changes) {
+        this.version = version;
+        this.type = type;
+        this.hospitalId = hospitalId;
+        this.changes = changes;
+    }
+
+    public long getVersion() { return version; }
+    public Type getType() { return type; }
+    public Long getHospitalId() { return hospitalId; }
+    public Map<String, Object> getChanges() { return changes; }
+}
@@ -0,0 +1,68 @@
+package com.availit.backend.dto;
+
+import java.util.List;
+
+public class AvailabilityHistory {
+    private final Long hospitalId;
+    private final long from;
+    private final long to;
+    private final long bucketMs;
+    private final List<Bucket> buckets;
+
+    public AvailabilityHistory(Long hospitalId, long from, long to, long bucketMs, List<Bucket> buckets) {
+        this.hospitalId = hospitalId;
+        this.from = from;
+        this.to = to;
+        this.bucketMs = bucketMs;
+        this.buckets = buckets;
+    }
+
+    public Long getHospitalId() { return hospitalId; }
+    public long getFrom() { return from; }
+    public long getTo() { return to; }
+    public long getBucketMs() { return bucketMs; }
+    public List<Bucket> getBuckets() { return buckets; }
+
+    /** Recorded changes that fall in {@code [start, start + bucketMs)}; buckets without any are omitted. */
+    public static class Bucket {
+        private final long start;
+        private final long samples;
+        private final Stats availableBeds;
+        private final Stats icuBeds;
+        private final Stats ventilators;
+        private final double oxygenAvailableRatio;
+
+        public Bucket(long start, long samples, Stats availableBeds, Stats icuBeds, Stats ventilators,
+                      double oxygenAvailableRatio) {
+            this.start = start;
+            this.samples = samples;
+            this.availableBeds = availableBeds;
+            this.icuBeds = icuBeds;
+            this.ventilators = ventilators;
+            this.oxygenAvailableRatio = oxygenAvailableRatio;
+        }
+
+        public long getStart() { return start; }
+        public long getSamples() { return samples; }
+        public Stats getAvailableBeds() { return availableBeds; }
+        public Stats getIcuBeds() { return icuBeds; }
+        public Stats getVentilators() { return ventilators; }
+        public double getOxygenAvailableRatio() { return oxygenAvailableRatio; }
+    }
+
+    public static class Stats {
+        private final int min;
+        private final int max;
+        private final double avg;
+
+        public Stats(int min, int max, double avg) {
+            this.min = min;
+            this.max = max;
+            this.avg = avg;
+        }
+
+        public int getMin() { return min; }
+        public int getMax() { return max; }
+        public double getAvg() { return avg; }
+    }
+}
@@ -0,0 +1,68 @@
+package com.availit.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkIngestReport {
+    private int inserted;
+    private int rejected;
+    private int failedChunks;
+    private Integer stoppedAtIndex;
+    private String error;
+    private final List<ChunkResult> chunks = new ArrayList<>();
+
+    public void add(ChunkResult chunk) {
+        chunks.add(chunk);
+        inserted += chunk.getInserted();
+        rejected += chunk.getRejected();
+        if (chunk.getError() != null) {
+            failedChunks++;
+        }
+    }
+
+    /** Records that the body could not be read past element {@code index}; nothing from there on was written. */
+    public void stop(int index, String error) {
+        this.stoppedAtIndex = index;
+        this.error = error;
+    }
+
+    public int getInserted() { return inserted; }
+    public int getRejected() { return rejected; }
+    public int getFailedChunks() { return failedChunks; }
+    public Integer getStoppedAtIndex() { return stoppedAtIndex; }
+    public String getError() { return error; }
+    public List<ChunkResult> getChunks() { return chunks; }
+
+    public static class ChunkResult {
+        private final int chunk;
+        private final int firstIndex;
+        private final int size;
+        private int inserted;
+        private int rejected;
+        private String error;
+        private final List<String> rejections = new ArrayList<>();
+
+        public ChunkResult(int chunk, int firstIndex, int size) {
+            this.chunk = chunk;
+            this.firstIndex = firstIndex;
+            this.size = size;
+        }
+
+        public int getChunk() { return chunk; }
+        public int getFirstIndex() { return firstIndex; }
+        public int getSize() { return size; }
+        public int getInserted() { return inserted; }
+        public void setInserted(int inserted) { this.inserted = inserted; }
+        public int getRejected() { return rejected; }
+        public String getError() { return error; }
+        public void setError(String error) { this.error = error; }
+        public List<String> getRejections() { return rejections; }
+
+        public void reject(int index, String reason, int maxReported) {
+            rejected++;
+            if (rejections.size() < maxReported) {
+                rejections.add("[" + index + "] " + reason);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.availit.backend.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Relative change to apply to a hospital's capacity counters")
+public class CapacityAdjustment {
+    @Schema(description = "Change in available beds", example = "-1")
+    private int availableBeds;
+
+    @Schema(description = "Change in ICU beds", example = "-1")
+    private int icuBeds;
+
+    @Schema(description = "Change in ventilators", example = "0")
+    private int ventilators;
+
+    public int getAvailableBeds() { return availableBeds; }
+    public void setAvailableBeds(int availableBeds) { this.availableBeds = availableBeds; }
+    public int getIcuBeds() { return icuBeds; }
+    public void setIcuBeds(int icuBeds) { this.icuBeds = icuBeds; }
+    public int getVentilators() { return ventilators; }
+    public void setVentilators(int ventilators) { this.ventilators = ventilators; }
+}
@@ -0,0 +1,30 @@
+package com.availit.backend.dto;
+
+public class CityCapacityStats {
+    private final String city;
+    private final long hospitals;
+    private final long totalBeds;
+    private final long availableBeds;
+    private final long icuBeds;
+    private final long ventilators;
+    private final long hospitalsWithOxygen;
+
+    public CityCapacityStats(String city, long hospitals, long totalBeds, long availableBeds, long icuBeds,
+                             long ventilators, long hospitalsWithOxygen) {
+        this.city = city;
+        this.hospitals = hospitals;
+        this.totalBeds = totalBeds;
+        this.availableBeds = availableBeds;
+        this.icuBeds = icuBeds;
+        this.ventilators = ventilators;
+        this.hospitalsWithOxygen = hospitalsWithOxygen;
+    }
+
+    public String getCity() { return city; }
+    public long getHospitals() { return hospitals; }
+    public long getTotalBeds() { return totalBeds; }
+    public long getAvailableBeds() { return availableBeds; }
+    public long getIcuBeds() { return icuBeds; }
+    public long getVentilators() { return ventilators; }
+    public long getHospitalsWithOxygen() { return hospitalsWithOxygen; }
+}
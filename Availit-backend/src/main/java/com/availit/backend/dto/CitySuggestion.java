@@ -0,0 +1,14 @@
+package com.availit.backend.dto;
+
+public class CitySuggestion {
+    private final String city;
+    private final int hospitalCount;
+
+    public CitySuggestion(String city, int hospitalCount) {
+        this.city = city;
+        this.hospitalCount = hospitalCount;
+    }
+
+    public String getCity() { return city; }
+    public int getHospitalCount() { return hospitalCount; }
+}
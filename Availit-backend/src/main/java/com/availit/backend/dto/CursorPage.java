@@ -0,0 +1,20 @@
+package com.availit.backend.dto;
+
+import java.util.List;
+
+public class CursorPage<T> {
+    private final List<T> content;
+    private final String nextCursor;
+    private final Long totalElements;
+
+    public CursorPage(List<T> content, String nextCursor, Long totalElements) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+        this.totalElements = totalElements;
+    }
+
+    public List<T> getContent() { return content; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasMore() { return nextCursor != null; }
+    public Long getTotalElements() { return totalElements; }
+}
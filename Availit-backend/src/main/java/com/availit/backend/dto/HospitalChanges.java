@@ -0,0 +1,24 @@
+package com.availit.backend.dto;
+
+import com.availit.backend.model.HospitalAvailability;
+
+import java.util.List;
+
+public class HospitalChanges {
+    private final List<HospitalAvailability> changed;
+    private final List<Long> deleted;
+    private final long version;
+    private final boolean hasMore;
+
+    public HospitalChanges(List<HospitalAvailability> changed, List<Long> deleted, long version, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.version = version;
+        this.hasMore = hasMore;
+    }
+
+    public List<HospitalAvailability> getChanged() { return changed; }
+    public List<Long> getDeleted() { return deleted; }
+    public long getVersion() { return version; }
+    public boolean isHasMore() { return hasMore; }
+}
@@ -0,0 +1,39 @@
+package com.availit.backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    private int rejected;
+    private int failed;
+    private final List<String> rejections = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+
+    public int getInserted() { return inserted; }
+    public int getUpdated() { return updated; }
+    public int getUnchanged() { return unchanged; }
+    public int getRejected() { return rejected; }
+    public int getFailed() { return failed; }
+    public List<String> getRejections() { return rejections; }
+    public List<String> getErrors() { return errors; }
+
+    public void addInserted(int count) { inserted += count; }
+    public void addUpdated(int count) { updated += count; }
+    public void addUnchanged(int count) { unchanged += count; }
+
+    public void reject(int line, String reason, int maxReported) {
+        rejected++;
+        if (rejections.size() < maxReported) {
+            rejections.add("line " + line + ": " + reason);
+        }
+    }
+
+    /** Records a batch of {@code rows} rows that could not be written, starting at {@code firstLine}. */
+    public void fail(int firstLine, int rows, String error) {
+        failed += rows;
+        errors.add("lines from " + firstLine + ": " + error);
+    }
+}
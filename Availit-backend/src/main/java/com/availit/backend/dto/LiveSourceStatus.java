@@ -0,0 +1,32 @@
+package com.availit.backend.dto;
+
+import java.time.Instant;
+
+public class LiveSourceStatus {
+    private final String sourceId;
+    private final String city;
+    private final Instant lastAttempt;
+    private final Instant lastSuccess;
+    private final int hospitals;
+    private final int changed;
+    private final String error;
+
+    public LiveSourceStatus(String sourceId, String city, Instant lastAttempt, Instant lastSuccess,
+                            int hospitals, int changed, String error) {
+        this.sourceId = sourceId;
+        this.city = city;
+        this.lastAttempt = lastAttempt;
+        this.lastSuccess = lastSuccess;
+        this.hospitals = hospitals;
+        this.changed = changed;
+        this.error = error;
+    }
+
+    public String getSourceId() { return sourceId; }
+    public String getCity() { return city; }
+    public Instant getLastAttempt() { return lastAttempt; }
+    public Instant getLastSuccess() { return lastSuccess; }
+    public int getHospitals() { return hospitals; }
+    public int getChanged() { return changed; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,16 @@
+package com.availit.backend.dto;
+
+import com.availit.backend.model.HospitalAvailability;
+
+public class NearbyHospital {
+    private final HospitalAvailability hospital;
+    private final double distanceKm;
+
+    public NearbyHospital(HospitalAvailability hospital, double distanceKm) {
+        this.hospital = hospital;
+        this.distanceKm = distanceKm;
+    }
+
+    public HospitalAvailability getHospital() { return hospital; }
+    public double getDistanceKm() { return distanceKm; }
+}
@@ -0,0 +1,43 @@
+package com.availit.backend.event;
+
+import com.availit.backend.model.HospitalAvailability;
+
+import java.util.List;
+
+/**
+ * Published by {@code HospitalAvailabilityService} whenever hospitals are written. Listeners that
+ * keep in-memory views consume it after the surrounding transaction commits.
+ */
+public class HospitalChangeEvent {
+    private final List<HospitalAvailability> saved;
+    private final List<Long> deletedIds;
+
+    private HospitalChangeEvent(List<HospitalAvailability> saved, List<Long> deletedIds) {
+        this.saved = List.copyOf(saved);
+        this.deletedIds = List.copyOf(deletedIds);
+    }
+
+    public static HospitalChangeEvent saved(List<HospitalAvailability> hospitals) {
+        return new HospitalChangeEvent(hospitals, List.of());
+    }
+
+    public static HospitalChangeEvent saved(HospitalAvailability hospital) {
+        return saved(List.of(hospital));
+    }
+
+    public static HospitalChangeEvent deleted(Long id) {
+        return deleted(List.of(id));
+    }
+
+    public static HospitalChangeEvent deleted(List<Long> ids) {
+        return new HospitalChangeEvent(List.of(), ids);
+    }
+
+    public List<HospitalAvailability> getSaved() {
+        return saved;
+    }
+
+    public List<Long> getDeletedIds() {
+        return deletedIds;
+    }
+}
@@ -0,0 +1,45 @@
+package com.availit.backend.event;
+
+import com.availit.backend.model.HospitalAvailability;
+
+import java.util.List;
+
+/**
+ * Published by {@code HospitalSnapshotCache} each time it moves to a new version. Listeners run while
+ * the cache holds its write lock, so they observe changes in version order and must stay cheap.
+ */
+public class HospitalSnapshotEvent {
+    private final long version;
+    private final boolean reload;
+    private final List<Change> changes;
+
+    private HospitalSnapshotEvent(long version, boolean reload, List<Change> changes) {
+        this.version = version;
+        this.reload = reload;
+        this.changes = List.copyOf(changes);
+    }
+
+    public static HospitalSnapshotEvent changed(long version, List<Change> changes) {
+        return new HospitalSnapshotEvent(version, false, changes);
+    }
+
+    public static HospitalSnapshotEvent reloaded(long version) {
+        return new HospitalSnapshotEvent(version, true, List.of());
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** True when the snapshot was rebuilt from the database and derived state must be rebuilt too. */
+    public boolean isReload() {
+        return reload;
+    }
+
+    public List<Change> getChanges() {
+        return changes;
+    }
+
+    /** One hospital transition; {@code previous} is null for inserts and {@code current} is null for deletes. */
+    public record Change(HospitalAvailability previous, HospitalAvailability current) {}
+}
@@ -0,0 +1,7 @@
+package com.availit.backend.exception;
+
+public class CapacityOutOfBoundsException extends RuntimeException {
+    public CapacityOutOfBoundsException(Long hospitalId) {
+        super("Adjustment would take capacity of hospital " + hospitalId + " below zero or available beds above total beds");
+    }
+}
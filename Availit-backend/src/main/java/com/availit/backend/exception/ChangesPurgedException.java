@@ -0,0 +1,8 @@
+package com.availit.backend.exception;
+
+public class ChangesPurgedException extends RuntimeException {
+    public ChangesPurgedException(long since, long purgedThrough) {
+        super("Removals up to version " + purgedThrough + " have been purged, so changes since " + since
+            + " are incomplete; sync again from since=0");
+    }
+}
@@ -1,7 +1,9 @@
 package com.availit.backend.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -19,4 +21,26 @@ public class GlobalExceptionHandler {
         );
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
-} 
\ No newline at end of file
+
+    @ExceptionHandler(CapacityOutOfBoundsException.class)
+    public ResponseEntity<Map<String, String>> handleCapacityOutOfBounds(CapacityOutOfBoundsException ex) {
+        return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ChangesPurgedException.class)
+    public ResponseEntity<Map<String, String>> handleChangesPurged(ChangesPurgedException ex) {
+        return new ResponseEntity<>(Map.of("error", ex.getMessage()), HttpStatus.GONE);
+    }
+
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleOptimisticLocking(ObjectOptimisticLockingFailureException ex) {
+        return new ResponseEntity<>(Map.of("error", "Hospital was modified by someone else; reload and retry"), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, String>> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of("error", ex.getMessage()));
+    }
+}
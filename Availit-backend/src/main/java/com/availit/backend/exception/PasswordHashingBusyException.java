@@ -0,0 +1,7 @@
+package com.availit.backend.exception;
+
+public class PasswordHashingBusyException extends RuntimeException {
+    public PasswordHashingBusyException() {
+        super("Too many sign-in requests are being processed; retry shortly");
+    }
+}
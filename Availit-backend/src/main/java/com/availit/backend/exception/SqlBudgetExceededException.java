@@ -0,0 +1,7 @@
+package com.availit.backend.exception;
+
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String endpoint, int statements, int budget) {
+        super(endpoint + " ran " + statements + " SQL statements, budget is " + budget);
+    }
+}
@@ -0,0 +1,193 @@
+package com.availit.backend.index;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.model.HospitalAvailability;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented copy of the capacity fields of every hospital. Each hospital owns a slot in parallel
+ * primitive arrays; oxygen and city membership are bitsets over the same slots, so a filter is a
+ * single pass over set bits with no per-hospital allocation. Hospitals whose source reports no
+ * capacity figures get no slot, so they never match a filter.
+ */
+@Component
+public class CapacityColumnIndex extends SnapshotIndex {
+
+    private static final int INITIAL_SLOTS = 1024;
+    private static final String[] NO_CITIES = new String[0];
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] ids = new long[INITIAL_SLOTS];
+    private int[] availableBeds = new int[INITIAL_SLOTS];
+    private int[] icuBeds = new int[INITIAL_SLOTS];
+    private int[] ventilators = new int[INITIAL_SLOTS];
+    private String[][] cities = new String[INITIAL_SLOTS][];
+    private final BitSet occupied = new BitSet(INITIAL_SLOTS);
+    private final BitSet oxygen = new BitSet(INITIAL_SLOTS);
+    private final Map<String, BitSet> cityMembers = new HashMap<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private int[] freeSlots = new int[64];
+    private int freeCount;
+    private int nextSlot;
+
+    /**
+     * Returns the ids of hospitals meeting every minimum, optionally restricted to one city and to a
+     * given oxygen availability. Ids come back in slot order.
+     */
+    public long[] filter(String city, int minAvailableBeds, int minIcuBeds, int minVentilators, Boolean oxygenAvailable) {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            BitSet candidates = city != null ? cityMembers.get(HospitalSnapshotCache.cityKey(city)) : occupied;
+            if (candidates == null) {
+                return new long[0];
+            }
+            long[] matches = new long[Math.min(64, Math.max(1, candidates.cardinality()))];
+            int count = 0;
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                if (availableBeds[slot] < minAvailableBeds
+                        || icuBeds[slot] < minIcuBeds
+                        || ventilators[slot] < minVentilators
+                        || (oxygenAvailable != null && oxygen.get(slot) != oxygenAvailable)) {
+                    continue;
+                }
+                if (count == matches.length) {
+                    matches = Arrays.copyOf(matches, count * 2);
+                }
+                matches[count++] = ids[slot];
+            }
+            return count == matches.length ? matches : Arrays.copyOf(matches, count);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        ensureBuilt();
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(Collection<HospitalAvailability> hospitals) {
+        lock.writeLock().lock();
+        try {
+            int slots = Math.max(INITIAL_SLOTS, hospitals.size());
+            ids = new long[slots];
+            availableBeds = new int[slots];
+            icuBeds = new int[slots];
+            ventilators = new int[slots];
+            cities = new String[slots][];
+            occupied.clear();
+            oxygen.clear();
+            cityMembers.clear();
+            slotById.clear();
+            freeCount = 0;
+            nextSlot = 0;
+            for (HospitalAvailability hospital : hospitals) {
+                write(hospital);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(HospitalAvailability previous, HospitalAvailability current) {
+        lock.writeLock().lock();
+        try {
+            if (current != null) {
+                write(current);
+            } else if (previous != null) {
+                release(previous.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void write(HospitalAvailability hospital) {
+        if (!hospital.isCapacityReported()) {
+            release(hospital.getId());
+            return;
+        }
+        Integer existing = slotById.get(hospital.getId());
+        int slot;
+        if (existing != null) {
+            slot = existing;
+            leaveCities(slot);
+        } else {
+            slot = allocate();
+            slotById.put(hospital.getId(), slot);
+            occupied.set(slot);
+        }
+        ids[slot] = hospital.getId();
+        availableBeds[slot] = hospital.getAvailableBeds();
+        icuBeds[slot] = hospital.getIcuBeds();
+        ventilators[slot] = hospital.getVentilators();
+        oxygen.set(slot, hospital.isOxygenAvailable());
+        Set<String> keys = HospitalSnapshotCache.cityKeys(hospital);
+        cities[slot] = keys.isEmpty() ? NO_CITIES : keys.toArray(NO_CITIES);
+        for (String key : cities[slot]) {
+            cityMembers.computeIfAbsent(key, k -> new BitSet()).set(slot);
+        }
+    }
+
+    private void release(Long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        leaveCities(slot);
+        cities[slot] = null;
+        occupied.clear(slot);
+        oxygen.clear(slot);
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void leaveCities(int slot) {
+        if (cities[slot] == null) {
+            return;
+        }
+        for (String key : cities[slot]) {
+            BitSet members = cityMembers.get(key);
+            if (members != null) {
+                members.clear(slot);
+                if (members.isEmpty()) {
+                    cityMembers.remove(key);
+                }
+            }
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (nextSlot == ids.length) {
+            int grown = ids.length * 2;
+            ids = Arrays.copyOf(ids, grown);
+            availableBeds = Arrays.copyOf(availableBeds, grown);
+            icuBeds = Arrays.copyOf(icuBeds, grown);
+            ventilators = Arrays.copyOf(ventilators, grown);
+            cities = Arrays.copyOf(cities, grown);
+        }
+        return nextSlot++;
+    }
+}
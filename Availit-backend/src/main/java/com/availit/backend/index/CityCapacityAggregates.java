@@ -0,0 +1,196 @@
+package com.availit.backend.index;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.dto.CityCapacityStats;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running capacity totals per city. Each change adds the new hospital's figures and subtracts the old
+ * ones, so totals are never recomputed from the hospitals. Counters are {@link LongAdder}s and reads
+ * take no lock; a reader racing a change may see one field updated before another.
+ * <p>
+ * {@link #reconcile} compares the counters with totals computed by the database and corrects any
+ * difference that is seen twice in a row. A single sighting can be a commit whose event is still on
+ * its way.
+ */
+@Component
+public class CityCapacityAggregates extends SnapshotIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CityCapacityAggregates.class);
+
+    private static final int HOSPITALS = 0;
+    private static final int TOTAL_BEDS = 1;
+    private static final int AVAILABLE_BEDS = 2;
+    private static final int ICU_BEDS = 3;
+    private static final int VENTILATORS = 4;
+    private static final int WITH_OXYGEN = 5;
+    private static final int FIELDS = 6;
+
+    private final Map<String, CityTotals> totals = new ConcurrentHashMap<>();
+    private Map<String, long[]> lastDrift = Map.of();
+
+    /** Totals for every city, most available beds first. */
+    public List<CityCapacityStats> stats() {
+        ensureBuilt();
+        List<CityCapacityStats> result = new ArrayList<>(totals.size());
+        totals.values().forEach(city -> result.add(city.toStats()));
+        result.sort(Comparator.comparingLong(CityCapacityStats::getAvailableBeds).reversed()
+            .thenComparing(CityCapacityStats::getCity, String.CASE_INSENSITIVE_ORDER));
+        return result;
+    }
+
+    /** Totals for one city, matched case-insensitively, or null when it has no hospitals. */
+    public CityCapacityStats stats(String city) {
+        ensureBuilt();
+        CityTotals found = totals.get(HospitalSnapshotCache.cityKey(city));
+        return found != null ? found.toStats() : null;
+    }
+
+    /** False until the first read builds the totals; there is nothing to reconcile before that. */
+    public boolean isBuilt() {
+        return built();
+    }
+
+    @Override
+    public void rebuild(Collection<HospitalAvailability> hospitals) {
+        totals.clear();
+        lastDrift = Map.of();
+        hospitals.forEach(hospital -> add(hospital, 1));
+    }
+
+    @Override
+    public void apply(HospitalAvailability previous, HospitalAvailability current) {
+        if (previous != null) {
+            add(previous, -1);
+        }
+        if (current != null) {
+            add(current, 1);
+        }
+    }
+
+    /**
+     * Corrects counters that differ from {@code expected}, keyed by {@link HospitalSnapshotCache#cityKey}.
+     * Must run while no change can be applied. Returns the number of cities corrected.
+     */
+    public int reconcile(Map<String, CityCapacityStats> expected) {
+        Map<String, long[]> drift = new HashMap<>();
+        Set<String> keys = new HashSet<>(expected.keySet());
+        keys.addAll(totals.keySet());
+        for (String key : keys) {
+            CityCapacityStats stats = expected.get(key);
+            long[] want = stats != null ? sums(stats) : new long[FIELDS];
+            CityTotals city = totals.get(key);
+            long[] have = city != null ? city.sums() : new long[FIELDS];
+            long[] difference = new long[FIELDS];
+            boolean differs = false;
+            for (int i = 0; i < FIELDS; i++) {
+                difference[i] = want[i] - have[i];
+                differs |= difference[i] != 0;
+            }
+            if (differs) {
+                drift.put(key, difference);
+            }
+        }
+        int corrected = 0;
+        for (Map.Entry<String, long[]> entry : drift.entrySet()) {
+            if (!Arrays.equals(entry.getValue(), lastDrift.get(entry.getKey()))) {
+                continue;
+            }
+            log.warn("City capacity totals for '{}' drifted by {}; correcting", entry.getKey(),
+                Arrays.toString(entry.getValue()));
+            CityCapacityStats stats = expected.get(entry.getKey());
+            CityTotals city = totals.computeIfAbsent(entry.getKey(),
+                key -> new CityTotals(stats != null ? stats.getCity() : key));
+            city.add(entry.getValue(), 1);
+            if (city.counters[HOSPITALS].sum() <= 0) {
+                totals.remove(entry.getKey());
+            }
+            corrected++;
+        }
+        lastDrift = drift;
+        return corrected;
+    }
+
+    /**
+     * Adds one hospital's figures, multiplied by {@code sign}, to every city it has a location in.
+     * Hospitals without reported capacity are left out rather than counted as zero beds.
+     */
+    private void add(HospitalAvailability hospital, int sign) {
+        if (hospital.getLocations() == null || !hospital.isCapacityReported()) {
+            return;
+        }
+        Map<String, String> names = new HashMap<>();
+        for (Location location : hospital.getLocations()) {
+            if (location.getCity() != null) {
+                names.putIfAbsent(HospitalSnapshotCache.cityKey(location.getCity()), location.getCity());
+            }
+        }
+        long[] figures = figures(hospital);
+        names.forEach((key, name) -> {
+            CityTotals city = totals.computeIfAbsent(key, k -> new CityTotals(name));
+            city.add(figures, sign);
+            if (sign < 0 && city.counters[HOSPITALS].sum() == 0) {
+                totals.remove(key);
+            }
+        });
+    }
+
+    /** The figures one hospital contributes to each of its cities, in counter order. */
+    private static long[] figures(HospitalAvailability hospital) {
+        return new long[] {1, hospital.getTotalBeds(), hospital.getAvailableBeds(), hospital.getIcuBeds(),
+            hospital.getVentilators(), hospital.isOxygenAvailable() ? 1 : 0};
+    }
+
+    private static long[] sums(CityCapacityStats stats) {
+        return new long[] {stats.getHospitals(), stats.getTotalBeds(), stats.getAvailableBeds(), stats.getIcuBeds(),
+            stats.getVentilators(), stats.getHospitalsWithOxygen()};
+    }
+
+    private static final class CityTotals {
+        private final String name;
+        private final LongAdder[] counters = new LongAdder[FIELDS];
+
+        CityTotals(String name) {
+            this.name = name;
+            for (int i = 0; i < FIELDS; i++) {
+                counters[i] = new LongAdder();
+            }
+        }
+
+        void add(long[] figures, int sign) {
+            for (int i = 0; i < FIELDS; i++) {
+                counters[i].add(sign * figures[i]);
+            }
+        }
+
+        long[] sums() {
+            long[] sums = new long[FIELDS];
+            for (int i = 0; i < FIELDS; i++) {
+                sums[i] = counters[i].sum();
+            }
+            return sums;
+        }
+
+        CityCapacityStats toStats() {
+            long[] sums = sums();
+            return new CityCapacityStats(name, sums[HOSPITALS], sums[TOTAL_BEDS], sums[AVAILABLE_BEDS],
+                sums[ICU_BEDS], sums[VENTILATORS], sums[WITH_OXYGEN]);
+        }
+    }
+}
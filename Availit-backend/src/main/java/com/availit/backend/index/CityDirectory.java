@@ -0,0 +1,122 @@
+package com.availit.backend.index;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.dto.CitySuggestion;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Case-folded directory of every city with at least one hospital. Lookups binary-search a sorted
+ * array of folded names that is republished, copy-on-write, only when a city gains or loses a
+ * hospital, so bed-count updates never touch it and readers never lock.
+ */
+@Component
+public class CityDirectory extends SnapshotIndex {
+
+    private final Map<String, CityEntry> cities = new HashMap<>();
+    private volatile Entries entries = new Entries(new String[0], new String[0], new int[0]);
+
+    public List<String> cityNames() {
+        ensureBuilt();
+        Entries current = entries;
+        List<String> names = new ArrayList<>(current.names.length);
+        names.addAll(Arrays.asList(current.names));
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        return names;
+    }
+
+    /** Cities whose folded name starts with {@code prefix}, most hospitals first. */
+    public List<CitySuggestion> suggest(String prefix, int limit) {
+        ensureBuilt();
+        Entries current = entries;
+        String folded = HospitalSnapshotCache.cityKey(prefix == null ? "" : prefix.stripLeading());
+        int from = Arrays.binarySearch(current.keys, folded);
+        if (from < 0) {
+            from = -from - 1;
+        }
+        List<CitySuggestion> matches = new ArrayList<>();
+        for (int i = from; i < current.keys.length && current.keys[i].startsWith(folded); i++) {
+            matches.add(new CitySuggestion(current.names[i], current.counts[i]));
+        }
+        matches.sort(Comparator.comparingInt(CitySuggestion::getHospitalCount).reversed()
+            .thenComparing(CitySuggestion::getCity, String.CASE_INSENSITIVE_ORDER));
+        return matches.size() > limit ? matches.subList(0, Math.max(limit, 0)) : matches;
+    }
+
+    @Override
+    public void rebuild(Collection<HospitalAvailability> hospitals) {
+        cities.clear();
+        for (HospitalAvailability hospital : hospitals) {
+            join(hospital);
+        }
+        republish();
+    }
+
+    @Override
+    public void apply(HospitalAvailability previous, HospitalAvailability current) {
+        Set<String> before = previous != null ? HospitalSnapshotCache.cityKeys(previous) : Set.of();
+        Set<String> after = current != null ? HospitalSnapshotCache.cityKeys(current) : Set.of();
+        if (before.equals(after)) {
+            return;
+        }
+        if (previous != null) {
+            for (String key : before) {
+                CityEntry entry = cities.get(key);
+                if (entry != null && --entry.hospitals == 0) {
+                    cities.remove(key);
+                }
+            }
+        }
+        if (current != null) {
+            join(current);
+        }
+        republish();
+    }
+
+    private void join(HospitalAvailability hospital) {
+        if (hospital.getLocations() == null) {
+            return;
+        }
+        Map<String, String> names = new HashMap<>();
+        for (Location location : hospital.getLocations()) {
+            if (location.getCity() != null) {
+                names.putIfAbsent(HospitalSnapshotCache.cityKey(location.getCity()), location.getCity());
+            }
+        }
+        names.forEach((key, name) -> cities.computeIfAbsent(key, k -> new CityEntry(name)).hospitals++);
+    }
+
+    private void republish() {
+        String[] keys = cities.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        String[] names = new String[keys.length];
+        int[] counts = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            CityEntry entry = cities.get(keys[i]);
+            names[i] = entry.name;
+            counts[i] = entry.hospitals;
+        }
+        entries = new Entries(keys, names, counts);
+    }
+
+    private static final class CityEntry {
+        private final String name;
+        private int hospitals;
+
+        CityEntry(String name) {
+            this.name = name;
+        }
+    }
+
+    private record Entries(String[] keys, String[] names, int[] counts) {}
+}
@@ -0,0 +1,183 @@
+package com.availit.backend.index;
+
+import com.availit.backend.dto.NearbyHospital;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Fixed-size latitude/longitude grid over every hospital location that has coordinates. A nearby
+ * query only visits the cells overlapping the search circle's bounding box, so its cost depends on
+ * local density rather than on the national hospital count.
+ */
+@Component
+public class GeoGridIndex extends SnapshotIndex {
+
+    static final double CELL_DEGREES = 0.1;
+    private static final int COLUMNS = (int) Math.round(360.0 / CELL_DEGREES);
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE_LAT = 111.32;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, List<Point>> cells = new HashMap<>();
+    private final Map<Long, List<Point>> pointsByHospital = new HashMap<>();
+
+    /**
+     * Returns up to {@code limit} hospitals with at least {@code minBeds} available beds whose nearest
+     * location lies within {@code radiusKm} of the given position, closest first.
+     */
+    public List<NearbyHospital> nearest(double lat, double lon, double radiusKm, int minBeds, int limit) {
+        ensureBuilt();
+        if (limit <= 0 || radiusKm <= 0) {
+            return List.of();
+        }
+        Map<Long, Candidate> best = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            double latSpan = radiusKm / KM_PER_DEGREE_LAT;
+            double cos = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+            double lonSpan = Math.min(radiusKm / (KM_PER_DEGREE_LAT * cos), 180.0);
+            int minRow = row(Math.max(lat - latSpan, -90.0));
+            int maxRow = row(Math.min(lat + latSpan, 90.0));
+            int minCol = column(lon - lonSpan);
+            int maxCol = column(lon + lonSpan);
+            int colCount = Math.min(maxCol - minCol + 1, COLUMNS);
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int c = 0; c < colCount; c++) {
+                    List<Point> cell = cells.get(cellKey(r, wrapColumn(minCol + c)));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Point point : cell) {
+                        if (point.hospital.getAvailableBeds() < minBeds
+                                || (minBeds > 0 && !point.hospital.isCapacityReported())) {
+                            continue;
+                        }
+                        double distance = haversineKm(lat, lon, point.lat, point.lon);
+                        if (distance > radiusKm) {
+                            continue;
+                        }
+                        Candidate existing = best.get(point.hospital.getId());
+                        if (existing == null || distance < existing.distanceKm) {
+                            best.put(point.hospital.getId(), new Candidate(point.hospital, distance));
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        PriorityQueue<Candidate> top = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distanceKm).reversed());
+        for (Candidate candidate : best.values()) {
+            top.offer(candidate);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<NearbyHospital> result = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Candidate candidate = top.poll();
+            result.add(new NearbyHospital(candidate.hospital, candidate.distanceKm));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    @Override
+    public void rebuild(Collection<HospitalAvailability> hospitals) {
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            pointsByHospital.clear();
+            hospitals.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(HospitalAvailability previous, HospitalAvailability current) {
+        lock.writeLock().lock();
+        try {
+            remove(previous != null ? previous.getId() : current.getId());
+            if (current != null) {
+                insert(current);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(HospitalAvailability hospital) {
+        if (hospital.getLocations() == null) {
+            return;
+        }
+        List<Point> points = new ArrayList<>(1);
+        for (Location location : hospital.getLocations()) {
+            if (location.getLatitude() == null || location.getLongitude() == null) {
+                continue;
+            }
+            Point point = new Point(hospital, location.getLatitude(), location.getLongitude());
+            cells.computeIfAbsent(cellKey(row(point.lat), column(point.lon)), k -> new ArrayList<>()).add(point);
+            points.add(point);
+        }
+        if (!points.isEmpty()) {
+            pointsByHospital.put(hospital.getId(), points);
+        }
+    }
+
+    private void remove(Long hospitalId) {
+        List<Point> points = pointsByHospital.remove(hospitalId);
+        if (points == null) {
+            return;
+        }
+        for (Point point : points) {
+            long key = cellKey(row(point.lat), column(point.lon));
+            List<Point> cell = cells.get(key);
+            if (cell != null) {
+                cell.remove(point);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private static int row(double lat) {
+        return (int) Math.floor((lat + 90.0) / CELL_DEGREES);
+    }
+
+    private static int column(double lon) {
+        return (int) Math.floor((lon + 180.0) / CELL_DEGREES);
+    }
+
+    private static int wrapColumn(int column) {
+        return Math.floorMod(column, COLUMNS);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (wrapColumn(column) & 0xffffffffL);
+    }
+
+    private record Point(HospitalAvailability hospital, double lat, double lon) {}
+
+    private record Candidate(HospitalAvailability hospital, double distanceKm) {}
+}
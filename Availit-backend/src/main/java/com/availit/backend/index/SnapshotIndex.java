@@ -0,0 +1,63 @@
+package com.availit.backend.index;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.event.HospitalSnapshotEvent;
+import com.availit.backend.model.HospitalAvailability;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+
+import java.util.Collection;
+
+/**
+ * Base for in-memory structures derived from {@link HospitalSnapshotCache}. The structure is built
+ * lazily from the snapshot on first use and afterwards patched incrementally from
+ * {@link HospitalSnapshotEvent}s. Building and patching both happen under the cache's write lock,
+ * so subclasses only have to make their own reads safe against a concurrent writer.
+ */
+public abstract class SnapshotIndex {
+
+    @Autowired
+    private HospitalSnapshotCache snapshotCache;
+
+    private volatile boolean built;
+    private long builtVersion;
+
+    protected final void ensureBuilt() {
+        // without a cache (tests, benchmarks) callers drive rebuild/apply themselves
+        if (built || snapshotCache == null) {
+            return;
+        }
+        snapshotCache.withCurrentHospitals((version, hospitals) -> {
+            if (!built) {
+                rebuild(hospitals);
+                builtVersion = version;
+                built = true;
+            }
+        });
+    }
+
+    protected final boolean built() {
+        return built;
+    }
+
+    @EventListener
+    public void onSnapshotChange(HospitalSnapshotEvent event) {
+        if (event.isReload()) {
+            built = false;
+            return;
+        }
+        if (!built || event.getVersion() <= builtVersion) {
+            return;
+        }
+        for (HospitalSnapshotEvent.Change change : event.getChanges()) {
+            apply(change.previous(), change.current());
+        }
+        builtVersion = event.getVersion();
+    }
+
+    /** Replaces the whole structure with {@code hospitals}. */
+    public abstract void rebuild(Collection<HospitalAvailability> hospitals);
+
+    /** Applies one transition; {@code previous} is null for inserts and {@code current} is null for deletes. */
+    public abstract void apply(HospitalAvailability previous, HospitalAvailability current);
+}
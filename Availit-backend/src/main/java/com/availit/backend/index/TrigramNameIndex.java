@@ -0,0 +1,310 @@
+package com.availit.backend.index;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted trigram index over hospital names and addresses, in the style of pg_trgm: every word is
+ * padded with two leading blanks and one trailing blank before being cut into trigrams, so prefixes
+ * and small misspellings still share most of their trigrams with the indexed text.
+ * <p>
+ * Documents are append-only slots. Updating or deleting a hospital retires its slot and the posting
+ * lists are compacted by a rebuild once retired slots outnumber a quarter of the live ones.
+ */
+@Component
+public class TrigramNameIndex extends SnapshotIndex {
+
+    private static final double MIN_SCORE = 0.3;
+    private static final double ADDRESS_WEIGHT = 0.6;
+    private static final int MIN_SLOTS_BEFORE_COMPACTION = 1024;
+    // lower score first, then the newer slot: the order matches leave the bounded result heap in
+    private static final Comparator<Match> WORST_FIRST =
+        Comparator.comparingDouble(Match::score).thenComparing(Comparator.comparingInt(Match::slot).reversed());
+
+    // hit counters reused by each searching thread; only the slots a query touched are reset after it
+    private static final ThreadLocal<Hits> HITS = ThreadLocal.withInitial(Hits::new);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Postings> namePostings = new HashMap<>();
+    private final Map<Long, Postings> addressPostings = new HashMap<>();
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final BitSet retired = new BitSet();
+    private HospitalAvailability[] documents = new HospitalAvailability[256];
+    private String[] normalizedNames = new String[256];
+    private int[] nameGramCounts = new int[256];
+    private int[] addressGramCounts = new int[256];
+    private int slots;
+
+    /** Returns hospitals whose name or address resembles {@code query}, best match first. */
+    public List<HospitalAvailability> search(String query, int limit) {
+        ensureBuilt();
+        long[] queryGrams = trigrams(query);
+        if (queryGrams.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        String normalizedQuery = normalize(query);
+        Hits hits = HITS.get();
+        lock.readLock().lock();
+        try {
+            hits.ensureCapacity(slots);
+            for (long gram : queryGrams) {
+                hits.count(namePostings.get(gram), hits.name);
+                hits.count(addressPostings.get(gram), hits.address);
+            }
+            // the best limit matches so far, worst on top
+            PriorityQueue<Match> top = new PriorityQueue<>(Math.min(limit, hits.touchedCount) + 1, WORST_FIRST);
+            for (int i = 0; i < hits.touchedCount; i++) {
+                int slot = hits.touched[i];
+                if (retired.get(slot)) {
+                    continue;
+                }
+                double score = Math.max(
+                    similarity(hits.name[slot], queryGrams.length, nameGramCounts[slot]),
+                    ADDRESS_WEIGHT * similarity(hits.address[slot], queryGrams.length, addressGramCounts[slot]));
+                if (normalizedNames[slot].contains(normalizedQuery)) {
+                    score += 1.0;
+                }
+                if (score >= MIN_SCORE) {
+                    top.offer(new Match(documents[slot], slot, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+            List<HospitalAvailability> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                result.add(top.poll().hospital());
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            hits.reset();
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void rebuild(Collection<HospitalAvailability> hospitals) {
+        lock.writeLock().lock();
+        try {
+            clear(Math.max(256, hospitals.size()));
+            hospitals.forEach(this::insert);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(HospitalAvailability previous, HospitalAvailability current) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.remove(previous != null ? previous.getId() : current.getId());
+            if (slot != null) {
+                retired.set(slot);
+                documents[slot] = null;
+                normalizedNames[slot] = null;
+            }
+            if (current != null) {
+                insert(current);
+            }
+            int live = slotById.size();
+            if (slots > MIN_SLOTS_BEFORE_COMPACTION && retired.cardinality() > live / 4) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void compact() {
+        List<HospitalAvailability> live = new ArrayList<>(slotById.size());
+        for (int slot = 0; slot < slots; slot++) {
+            if (!retired.get(slot)) {
+                live.add(documents[slot]);
+            }
+        }
+        clear(Math.max(256, live.size()));
+        live.forEach(this::insert);
+    }
+
+    private void clear(int capacity) {
+        namePostings.clear();
+        addressPostings.clear();
+        slotById.clear();
+        retired.clear();
+        documents = new HospitalAvailability[capacity];
+        normalizedNames = new String[capacity];
+        nameGramCounts = new int[capacity];
+        addressGramCounts = new int[capacity];
+        slots = 0;
+    }
+
+    private void insert(HospitalAvailability hospital) {
+        if (slots == documents.length) {
+            int grown = documents.length * 2;
+            documents = Arrays.copyOf(documents, grown);
+            normalizedNames = Arrays.copyOf(normalizedNames, grown);
+            nameGramCounts = Arrays.copyOf(nameGramCounts, grown);
+            addressGramCounts = Arrays.copyOf(addressGramCounts, grown);
+        }
+        int slot = slots++;
+        documents[slot] = hospital;
+        normalizedNames[slot] = normalize(hospital.getHospitalName());
+        slotById.put(hospital.getId(), slot);
+
+        long[] nameGrams = trigrams(hospital.getHospitalName());
+        nameGramCounts[slot] = nameGrams.length;
+        for (long gram : nameGrams) {
+            namePostings.computeIfAbsent(gram, g -> new Postings()).add(slot);
+        }
+
+        StringBuilder address = new StringBuilder();
+        if (hospital.getAddress() != null) {
+            address.append(hospital.getAddress());
+        }
+        if (hospital.getLocations() != null) {
+            for (Location location : hospital.getLocations()) {
+                if (location.getAddress() != null) {
+                    address.append(' ').append(location.getAddress());
+                }
+            }
+        }
+        long[] addressGrams = trigrams(address.toString());
+        addressGramCounts[slot] = addressGrams.length;
+        for (long gram : addressGrams) {
+            addressPostings.computeIfAbsent(gram, g -> new Postings()).add(slot);
+        }
+    }
+
+    /** Blend of how much of the query was found and how well the two texts overlap overall. */
+    private static double similarity(int hits, int queryGrams, int documentGrams) {
+        if (hits == 0) {
+            return 0;
+        }
+        double coverage = (double) hits / queryGrams;
+        double jaccard = (double) hits / (queryGrams + documentGrams - hits);
+        return 0.7 * coverage + 0.3 * jaccard;
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean space = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+                space = false;
+            } else if (!space) {
+                normalized.append(' ');
+                space = true;
+            }
+        }
+        int end = normalized.length();
+        if (end > 0 && normalized.charAt(end - 1) == ' ') {
+            normalized.setLength(end - 1);
+        }
+        return normalized.toString();
+    }
+
+    /** Distinct trigrams of every word in {@code text}, each packed into a long as three 16-bit chars. */
+    static long[] trigrams(String text) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return new long[0];
+        }
+        long[] grams = new long[normalized.length() * 2 + 4];
+        int count = 0;
+        for (String word : normalized.split(" ")) {
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                if (count == grams.length) {
+                    grams = Arrays.copyOf(grams, count * 2);
+                }
+                grams[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        long[] sorted = Arrays.copyOf(grams, count);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+
+    /**
+     * Hit counters indexed by slot, plus the list of slots hit at least once. Kept per thread and
+     * zero between queries, so a search costs the slots it touches rather than the size of the index.
+     */
+    private static final class Hits {
+        private int[] name = new int[0];
+        private int[] address = new int[0];
+        private int[] touched = new int[64];
+        private int touchedCount;
+
+        /** Grows the counters after the index has; a rebuild may have added slots since the last query. */
+        void ensureCapacity(int slots) {
+            if (name.length < slots) {
+                int capacity = Math.max(slots, name.length * 2);
+                name = new int[capacity];
+                address = new int[capacity];
+            }
+        }
+
+        void reset() {
+            for (int i = 0; i < touchedCount; i++) {
+                name[touched[i]] = 0;
+                address[touched[i]] = 0;
+            }
+            touchedCount = 0;
+        }
+
+        void count(Postings postings, int[] field) {
+            if (postings == null) {
+                return;
+            }
+            for (int i = 0; i < postings.size; i++) {
+                int slot = postings.slots[i];
+                if (name[slot] == 0 && address[slot] == 0) {
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, touchedCount * 2);
+                    }
+                    touched[touchedCount++] = slot;
+                }
+                field[slot]++;
+            }
+        }
+    }
+
+    private record Match(HospitalAvailability hospital, int slot, double score) {}
+}
@@ -0,0 +1,76 @@
+package com.availit.backend.ingest;
+
+import com.availit.backend.model.HospitalAvailability;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Hospital directory of the Bengaluru Urban district portal. Each hospital is a
+ * {@code gen-card-content} card with the name in an {@code h2.heading4}, the address as the link of
+ * the first paragraph and the phone number after a "Phone" label in the second. The portal lists
+ * no bed counts, so hospitals from it carry contact details only.
+ */
+@Component
+public class BengaluruUrbanAdapter extends HtmlLiveSourceAdapter {
+
+    @Value("${availit.live.bengaluru.url:https://bengaluruurban.nic.in/en/public-utility-category/hospitals/}")
+    private String url;
+
+    @Override
+    public String getSourceId() {
+        return "bengaluru-urban";
+    }
+
+    @Override
+    public String getCity() {
+        return "Bangalore";
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    protected String recordQuery() {
+        return "div.gen-card-content";
+    }
+
+    @Override
+    protected HospitalAvailability toHospital(Element card) {
+        Element heading = card.selectFirst("h2.heading4");
+        String name = heading != null ? heading.text().trim() : "";
+        Elements paragraphs = card.select("p");
+        Element addressLink = paragraphs.isEmpty() ? null : paragraphs.get(0).selectFirst("a");
+        String address = addressLink != null ? addressLink.text().trim() : "";
+        String phone = paragraphs.size() > 1 ? phone(labelledText(paragraphs.get(1), "phone")) : null;
+        // a card without a phone number is still imported, so the hospital is not delisted
+        if (name.isEmpty()) {
+            return null;
+        }
+        if (address.length() < 5) {
+            address = name + ", Bengaluru";
+        }
+        HospitalAvailability hospital = hospital(slug(name), name, address, phone, "Karnataka", "560001");
+        // the directory lists hospitals only, with no bed or oxygen figures
+        hospital.setCapacityReported(false);
+        return hospital;
+    }
+
+    /** Text right after the {@code strong} label starting with {@code label}. */
+    private static String labelledText(Element paragraph, String label) {
+        for (Element strong : paragraph.select("strong")) {
+            if (strong.text().trim().toLowerCase(Locale.ROOT).startsWith(label)) {
+                Node next = strong.nextSibling();
+                return next instanceof TextNode text ? text.text() : null;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package com.availit.backend.ingest;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 records one at a time, so a file of any length is parsed in constant memory.
+ * Quoted fields may hold delimiters, doubled quotes and line breaks. The delimiter is taken from
+ * the first line: spreadsheets saved in some locales separate fields with semicolons or tabs.
+ */
+public class CsvRecordReader implements Closeable {
+
+    private static final int MAX_HEADER_LENGTH = 64 * 1024;
+
+    private final BufferedReader in;
+    private final char delimiter;
+    private int line = 1;
+    private int recordLine;
+    private boolean done;
+
+    public CsvRecordReader(Reader in) throws IOException {
+        this.in = in instanceof BufferedReader buffered ? buffered : new BufferedReader(in);
+        this.in.mark(MAX_HEADER_LENGTH);
+        if (this.in.read() != '\uFEFF') {
+            this.in.reset();
+        }
+        this.in.mark(MAX_HEADER_LENGTH);
+        String header = this.in.readLine();
+        this.in.reset();
+        this.delimiter = header == null ? ',' : detectDelimiter(header);
+    }
+
+    /** The next record, or null at the end of input. */
+    public List<String> next() throws IOException {
+        if (done) {
+            return null;
+        }
+        recordLine = line;
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean empty = true;
+        int c;
+        while ((c = in.read()) != -1) {
+            empty = false;
+            if (quoted) {
+                if (c == '"') {
+                    in.mark(1);
+                    if (in.read() == '"') {
+                        field.append('"');
+                    } else {
+                        in.reset();
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    in.mark(1);
+                    if (in.read() != '\n') {
+                        in.reset();
+                    }
+                }
+                line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+        done = true;
+        if (empty) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Line on which the record last returned by {@link #next()} started, counting from 1. */
+    public int getRecordLine() {
+        return recordLine;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static char detectDelimiter(String header) {
+        char best = ',';
+        long bestCount = header.chars().filter(c -> c == ',').count();
+        for (char candidate : new char[] {';', '\t'}) {
+            long count = header.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+}
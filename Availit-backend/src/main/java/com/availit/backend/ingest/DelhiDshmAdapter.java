@@ -0,0 +1,74 @@
+package com.availit.backend.ingest;
+
+import com.availit.backend.model.HospitalAvailability;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Free-bed monitoring report of the Delhi State Health Mission. Each hospital is a centred row of
+ * the {@code DataGridBody} table with fourteen cells: id, name, total free beds, the three totals
+ * (critical without ventilator, critical with ventilator, non-critical), the same three currently
+ * available, phone, contact person, contact mobile, liaison officer and last update.
+ */
+@Component
+public class DelhiDshmAdapter extends HtmlLiveSourceAdapter {
+
+    private static final int CELLS = 14;
+
+    @Value("${availit.live.delhi.url:https://dshm.delhi.gov.in/mis/(S(0phtuhcljd0u01xfvsz3cgrg))/Private/frmFreeBedMonitoringReport.aspx}")
+    private String url;
+
+    @Override
+    public String getSourceId() {
+        return "delhi-dshm";
+    }
+
+    @Override
+    public String getCity() {
+        return "Delhi";
+    }
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    protected String recordQuery() {
+        return "table.DataGridBody tr[align=center]";
+    }
+
+    @Override
+    protected HospitalAvailability toHospital(Element row) {
+        Elements cells = row.children().select("td");
+        if (cells.size() < CELLS) {
+            return null;
+        }
+        String name = cells.get(1).text().trim();
+        String phone = phone(cells.get(9).text(), cells.get(11).text());
+        // a row without a phone number is still imported, so the hospital is not delisted
+        if (name.isEmpty()) {
+            return null;
+        }
+        String key = cells.get(0).text().trim();
+        // the report has no street address, so name the hospital and the city instead
+        HospitalAvailability hospital = hospital(key.isEmpty() ? slug(name) : key, name, name + ", Delhi", phone,
+            "Delhi", "110001");
+
+        int criticalNoVent = count(cells.get(3).text());
+        int criticalVent = count(cells.get(4).text());
+        int nonCritical = count(cells.get(5).text());
+        int freeCriticalNoVent = count(cells.get(6).text());
+        int freeCriticalVent = count(cells.get(7).text());
+        int freeNonCritical = count(cells.get(8).text());
+        hospital.setTotalBeds(criticalNoVent + criticalVent + nonCritical);
+        hospital.setAvailableBeds(freeCriticalNoVent + freeCriticalVent + freeNonCritical);
+        hospital.setIcuBeds(freeCriticalNoVent + freeCriticalVent);
+        hospital.setVentilators(freeCriticalVent);
+        // critical-care beds are oxygen supported
+        hospital.setOxygenAvailable(freeCriticalNoVent + freeCriticalVent > 0);
+        return hospital;
+    }
+}
@@ -0,0 +1,118 @@
+package com.availit.backend.ingest;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.jsoup.nodes.Element;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Base for adapters that read one repeated element per hospital. The page is parsed as it streams
+ * in, and each record element is dropped from the tree once read, so memory stays flat however
+ * long the listing is.
+ */
+abstract class HtmlLiveSourceAdapter implements LiveSourceAdapter {
+
+    private static final Pattern PIN_CODE = Pattern.compile("\\b\\d{6}\\b");
+    private static final Pattern PHONE = Pattern.compile("\\+?[0-9][0-9 ()-]{5,17}[0-9]");
+
+    /** CSS query matching one hospital record. */
+    protected abstract String recordQuery();
+
+    /** Maps one record element, or returns null to skip it. */
+    protected abstract HospitalAvailability toHospital(Element record);
+
+    @Override
+    public List<HospitalAvailability> parse(Reader html, String baseUri) throws IOException {
+        List<HospitalAvailability> hospitals = new ArrayList<>();
+        try (StreamParser streamer = new StreamParser(Parser.htmlParser()).parse(html, baseUri)) {
+            Element record;
+            while ((record = streamer.selectNext(recordQuery())) != null) {
+                HospitalAvailability hospital = toHospital(record);
+                if (hospital != null) {
+                    hospitals.add(hospital);
+                }
+                record.remove();
+            }
+        }
+        return hospitals;
+    }
+
+    protected HospitalAvailability hospital(String key, String name, String address, String phone,
+                                            String state, String defaultZipCode) {
+        HospitalAvailability hospital = new HospitalAvailability();
+        hospital.setExternalSourceId(getSourceId() + ":" + key);
+        hospital.setHospitalName(name);
+        hospital.setAddress(address);
+        hospital.setContactNumber(phone);
+
+        Location location = new Location();
+        location.setAddress(address);
+        location.setCity(getCity());
+        location.setState(state);
+        // the portals do not publish a PIN code for every hospital, so fall back to the city's head office
+        location.setZipCode(pinCode(address, defaultZipCode));
+        hospital.setLocations(new ArrayList<>(List.of(location)));
+        return hospital;
+    }
+
+    /** Leading integer in {@code text}, or 0 when there is none. */
+    static int count(String text) {
+        int value = 0;
+        boolean digits = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits = true;
+            } else if (digits || !Character.isWhitespace(c)) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    /** First usable phone number among {@code candidates}, at most 20 characters, or null. */
+    static String phone(String... candidates) {
+        for (String candidate : candidates) {
+            if (candidate == null) {
+                continue;
+            }
+            Matcher matcher = PHONE.matcher(candidate);
+            if (matcher.find()) {
+                return matcher.group().trim();
+            }
+        }
+        return null;
+    }
+
+    static String pinCode(String address, String fallback) {
+        Matcher matcher = address != null ? PIN_CODE.matcher(address) : null;
+        return matcher != null && matcher.find() ? matcher.group() : fallback;
+    }
+
+    /** Lower-cased name reduced to letters, digits and single dashes, for sources without their own ids. */
+    static String slug(String text) {
+        StringBuilder slug = new StringBuilder(text.length());
+        for (char c : text.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                slug.append(c);
+            } else if (slug.length() > 0 && slug.charAt(slug.length() - 1) != '-') {
+                slug.append('-');
+            }
+        }
+        int end = slug.length();
+        if (end > 0 && slug.charAt(end - 1) == '-') {
+            slug.setLength(end - 1);
+        }
+        return slug.toString();
+    }
+}
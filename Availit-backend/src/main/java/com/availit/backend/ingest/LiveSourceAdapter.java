@@ -0,0 +1,23 @@
+package com.availit.backend.ingest;
+
+import com.availit.backend.model.HospitalAvailability;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * A public portal that publishes hospital data for one city. Adapters only turn a page into
+ * hospitals; fetching, scheduling and storing are handled by the ingestion service.
+ */
+public interface LiveSourceAdapter {
+
+    /** Short stable id, also used as the prefix of every {@code externalSourceId} this source writes. */
+    String getSourceId();
+
+    String getCity();
+
+    String getUrl();
+
+    List<HospitalAvailability> parse(Reader html, String baseUri) throws IOException;
+}
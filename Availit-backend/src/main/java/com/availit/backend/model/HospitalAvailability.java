@@ -5,9 +5,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import jakarta.validation.groups.Default;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hospitals")
+@Table(indexes = {
+    @Index(name = "idx_hospital_name_id", columnList = "hospital_name, id"),
+    @Index(name = "idx_available_beds_id", columnList = "available_beds, id"),
+    @Index(name = "idx_hospital_change_version", columnList = "change_version")
+})
 @Schema(description = "Hospital availability information including bed and oxygen availability")
 public class HospitalAvailability {
 
@@ -33,8 +44,9 @@ public class HospitalAvailability {
     @Size(min = 5, max = 255)
     private String address;
 
-    @Schema(description = "Contact number of the hospital", example = "+1-555-1234", required = true)
-    @NotNull
+    // live portals list some hospitals without a phone number, so only submitted hospitals need one
+    @Schema(description = "Contact number of the hospital; may be missing for hospitals imported from a live feed", example = "+1-555-1234", required = true)
+    @NotNull(groups = Submitted.class)
     @Size(min = 7, max = 20)
     private String contactNumber;
 
@@ -46,10 +58,41 @@ public class HospitalAvailability {
     @Min(0)
     private int ventilators;
 
+    // false for sources that list hospitals without publishing bed or oxygen figures
+    @Column(columnDefinition = "boolean default true")
+    @Schema(description = "Whether the bed, ICU, ventilator and oxygen figures were reported by the source; when false they are unknown, not zero", example = "true")
+    private boolean capacityReported = true;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0")
+    @Schema(description = "Row version; send it back on update to detect conflicting changes", example = "3")
+    private Long version;
+
+    // assigned by HospitalChangeLog when the writing transaction commits, never by Hibernate
+    @Column(insertable = false, updatable = false)
+    @Schema(description = "Position of the hospital's latest write in the change feed; pass the highest one seen as 'since' to /changes", example = "1042")
+    private Long changeVersion;
+
+    // lower-cased cities as of the latest change version, kept by HospitalChangeLog to notice a hospital
+    // leaving a city; not part of the API
+    @Column(length = 4000, insertable = false, updatable = false)
+    private String feedCities;
+
+    @Column(unique = true)
+    @Schema(description = "Source-qualified id for hospitals imported from a live feed", example = "delhi-dshm:1234")
+    private String externalSourceId;
+
     @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "hospital_id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "hospital-locations")
     private List<Location> locations;
 
+    /**
+     * Validation group for hospitals created through the API, bulk ingestion or CSV import. It adds
+     * the checks that live feeds cannot always meet to the default ones.
+     */
+    public interface Submitted extends Default {}
+
     public HospitalAvailability() {}
 
     public HospitalAvailability(String hospitalName, int totalBeds, int availableBeds, boolean oxygenAvailable, String address, String contactNumber, int icuBeds, int ventilators) {
@@ -63,6 +106,20 @@ public class HospitalAvailability {
         this.ventilators = ventilators;
     }
 
+    /** Unmanaged copy of {@code source}, ids and versions included, with copies of its locations. */
+    public HospitalAvailability(HospitalAvailability source) {
+        this(source.hospitalName, source.totalBeds, source.availableBeds, source.oxygenAvailable, source.address,
+            source.contactNumber, source.icuBeds, source.ventilators);
+        this.id = source.id;
+        this.version = source.version;
+        this.changeVersion = source.changeVersion;
+        this.externalSourceId = source.externalSourceId;
+        this.capacityReported = source.capacityReported;
+        if (source.locations != null) {
+            this.locations = new ArrayList<>(source.locations.size());
+            source.locations.forEach(location -> this.locations.add(new Location(location)));
+        }
+    }
 
     public Long getId() {
         return id;
@@ -132,6 +189,38 @@ public class HospitalAvailability {
         this.ventilators = ventilators;
     }
 
+    public boolean isCapacityReported() {
+        return capacityReported;
+    }
+
+    public void setCapacityReported(boolean capacityReported) {
+        this.capacityReported = capacityReported;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public void setChangeVersion(Long changeVersion) {
+        this.changeVersion = changeVersion;
+    }
+
+    public String getExternalSourceId() {
+        return externalSourceId;
+    }
+
+    public void setExternalSourceId(String externalSourceId) {
+        this.externalSourceId = externalSourceId;
+    }
+
     public List<Location> getLocations() {
         return locations;
     }
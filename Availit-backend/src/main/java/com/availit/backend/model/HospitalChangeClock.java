@@ -0,0 +1,42 @@
+package com.availit.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * The single row {@code HospitalChangeLog} hands change versions out of, and how far removals have
+ * been purged from the change feed. Advanced with plain updates so the row lock lasts until commit.
+ */
+@Entity
+public class HospitalChangeClock {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long version;
+
+    // highest version among purged tombstones and city exits; older watermarks may have missed removals
+    @Column(columnDefinition = "bigint default 0")
+    private long purgedThrough;
+
+    protected HospitalChangeClock() {}
+
+    public HospitalChangeClock(int id) {
+        this.id = id;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public long getPurgedThrough() {
+        return purgedThrough;
+    }
+}
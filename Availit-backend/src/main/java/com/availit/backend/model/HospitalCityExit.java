@@ -0,0 +1,46 @@
+package com.availit.backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Marks a hospital leaving a city in the change feed, so clients syncing one city with
+ * {@code /changes?city=} learn to drop it. Written by {@code HospitalChangeLog} in the
+ * transaction that moved the hospital's locations.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_city_exit_city_version", columnList = "city, change_version"))
+public class HospitalCityExit {
+
+    @Id
+    private Long changeVersion;
+
+    private Long hospitalId;
+
+    // lower-cased, as the city feed compares it
+    private String city;
+
+    private Instant leftAt;
+
+    protected HospitalCityExit() {}
+
+    public Long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public Long getHospitalId() {
+        return hospitalId;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public Instant getLeftAt() {
+        return leftAt;
+    }
+}
@@ -0,0 +1,38 @@
+package com.availit.backend.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+
+/**
+ * Marks a deleted hospital in the change feed, so clients syncing with {@code /changes} learn to
+ * drop it. Written by {@code HospitalChangeLog} in the deleting transaction.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_tombstone_change_version", columnList = "change_version"))
+public class HospitalTombstone {
+
+    @Id
+    private Long hospitalId;
+
+    private long changeVersion;
+
+    private Instant deletedAt;
+
+    protected HospitalTombstone() {}
+
+    public Long getHospitalId() {
+        return hospitalId;
+    }
+
+    public long getChangeVersion() {
+        return changeVersion;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -1,10 +1,16 @@
 package com.availit.backend.model;
 
 import jakarta.persistence.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "locations")
 public class Location {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -26,6 +32,27 @@ public class Location {
     @Size(min = 4, max = 10)
     private String zipCode;
 
+    @DecimalMin("-90.0")
+    @DecimalMax("90.0")
+    private Double latitude;
+
+    @DecimalMin("-180.0")
+    @DecimalMax("180.0")
+    private Double longitude;
+
+    public Location() {}
+
+    /** Unmanaged copy of {@code source}, id included. */
+    public Location(Location source) {
+        this.id = source.id;
+        this.address = source.address;
+        this.city = source.city;
+        this.state = source.state;
+        this.zipCode = source.zipCode;
+        this.latitude = source.latitude;
+        this.longitude = source.longitude;
+    }
+
     public Long getId() { return id; }
     public String getAddress() { return address; }
     public void setAddress(String address) { this.address = address; }
@@ -35,4 +62,8 @@ public class Location {
     public void setState(String state) { this.state = state; }
     public String getZipCode() { return zipCode; }
     public void setZipCode(String zipCode) { this.zipCode = zipCode; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
 } 
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.availit.backend.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Statements one HTTP request sent to the database: how many, how long they took in total, and how
+ * often each normalized statement ran. Only touched by the request's own thread.
+ */
+public class RequestSqlStats {
+
+    /** Request attribute under which the finished stats are left for the caller to inspect. */
+    public static final String ATTRIBUTE = RequestSqlStats.class.getName();
+
+    private final Map<String, Integer> executions = new LinkedHashMap<>();
+    private int statements;
+    private long elapsedMillis;
+
+    void record(String normalizedSql, long millis) {
+        statements++;
+        elapsedMillis += millis;
+        executions.merge(normalizedSql, 1, Integer::sum);
+    }
+
+    public int getStatements() { return statements; }
+    public long getElapsedMillis() { return elapsedMillis; }
+    public Map<String, Integer> getExecutions() { return executions; }
+
+    /** Statements that ran at least {@code threshold} times, the usual sign of lazy loading in a loop. */
+    public Map<String, Integer> getRepeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+}
@@ -0,0 +1,102 @@
+package com.availit.backend.monitoring;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Sees every statement at the JDBC level, below Hibernate, so it also counts what the JDBC batch
+ * writers send. Statements are attributed to the request open on the current thread, if any, and
+ * any statement slower than the threshold is logged with the types of its bind parameters, never
+ * their values.
+ */
+public class SqlStatementRecorder implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatementRecorder.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+
+    private final ThreadLocal<RequestSqlStats> current = new ThreadLocal<>();
+    private final long slowQueryMillis;
+
+    public SqlStatementRecorder(long slowQueryMillis) {
+        this.slowQueryMillis = slowQueryMillis;
+    }
+
+    /** Starts attributing statements on this thread to a new {@link RequestSqlStats}. */
+    public RequestSqlStats begin() {
+        RequestSqlStats stats = new RequestSqlStats();
+        current.set(stats);
+        return stats;
+    }
+
+    public void end() {
+        current.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestSqlStats stats = current.get();
+        long elapsed = execInfo.getElapsedTime();
+        for (QueryInfo query : queryInfoList) {
+            String sql = normalize(query.getQuery());
+            if (stats != null) {
+                // a batch is one round trip however many rows it carries
+                stats.record(sql, elapsed / queryInfoList.size());
+            }
+            if (elapsed >= slowQueryMillis) {
+                log.warn("slow_query elapsed_ms={} batch={} rows={} params={} sql=\"{}\"", elapsed, execInfo.isBatch(),
+                    Math.max(1, query.getParametersList().size()), parameterShapes(query), sql);
+            }
+        }
+    }
+
+    /** Collapses whitespace, literals and placeholder lists, so the same statement always reads the same. */
+    static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        return PLACEHOLDER_LIST.matcher(normalized).replaceAll("?...");
+    }
+
+    /** Parameter types of the first row in index order, e.g. {@code [Long, String(12)]}. */
+    private static List<String> parameterShapes(QueryInfo query) {
+        List<String> shapes = new ArrayList<>();
+        if (query.getParametersList().isEmpty()) {
+            return shapes;
+        }
+        Map<Object, Object> byIndex = new TreeMap<>((a, b) -> String.valueOf(a).compareTo(String.valueOf(b)));
+        for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+            Object[] args = operation.getArgs();
+            if (args != null && args.length >= 2) {
+                byIndex.put(args[0] instanceof Integer i ? String.format("%05d", i) : args[0], args[1]);
+            }
+        }
+        for (Object value : byIndex.values()) {
+            if (value == null) {
+                shapes.add("null");
+            } else if (value instanceof CharSequence text) {
+                shapes.add("String(" + text.length() + ")");
+            } else {
+                shapes.add(value.getClass().getSimpleName());
+            }
+        }
+        return shapes;
+    }
+}
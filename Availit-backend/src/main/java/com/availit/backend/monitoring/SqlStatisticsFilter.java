@@ -0,0 +1,111 @@
+package com.availit.backend.monitoring;
+
+import com.availit.backend.exception.SqlBudgetExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opens a {@link RequestSqlStats} around each request and checks it when the request is done: repeated
+ * identical statements are reported as a likely N+1, and endpoints with a statement budget are held
+ * to it. Budgets are written as {@code "GET /api/hospitals/{id}=2, /api/hospitals/cities=1"}, keyed
+ * by the handler's URL pattern with an optional method. With {@code enforce} set, such as in tests,
+ * a request over budget ends in a {@link SqlBudgetExceededException}. Otherwise it is logged and
+ * counted.
+ */
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+    private final SqlStatementRecorder recorder;
+    private final Map<String, Integer> budgets;
+    private final int repeatThreshold;
+    private final boolean enforce;
+    private final MeterRegistry registry;
+
+    public SqlStatisticsFilter(SqlStatementRecorder recorder, String budgets, int repeatThreshold, boolean enforce,
+                               MeterRegistry registry) {
+        this.recorder = recorder;
+        this.budgets = parseBudgets(budgets);
+        this.repeatThreshold = repeatThreshold;
+        this.enforce = enforce;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = recorder.begin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            recorder.end();
+            request.setAttribute(RequestSqlStats.ATTRIBUTE, stats);
+        }
+        // the rest of an async request runs on other threads and is not seen here
+        if (!request.isAsyncStarted()) {
+            check(request, stats);
+        }
+    }
+
+    private void check(HttpServletRequest request, RequestSqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = pattern != null ? pattern.toString() : request.getRequestURI();
+        String endpoint = request.getMethod() + " " + path;
+        if (registry != null && pattern != null) {
+            DistributionSummary.builder("availit.sql.statements.per.request")
+                .tag("method", request.getMethod())
+                .tag("uri", path)
+                .register(registry)
+                .record(stats.getStatements());
+        }
+        stats.getRepeated(repeatThreshold).forEach((sql, count) ->
+            log.warn("possible_n_plus_one endpoint=\"{}\" executions={} sql=\"{}\"", endpoint, count, sql));
+        Integer budget = budgets.getOrDefault(endpoint, budgets.get(path));
+        if (budget != null && stats.getStatements() > budget) {
+            log.warn("sql_budget_exceeded endpoint=\"{}\" statements={} budget={} elapsed_ms={}",
+                endpoint, stats.getStatements(), budget, stats.getElapsedMillis());
+            if (registry != null) {
+                Counter.builder("availit.sql.budget.exceeded").tag("uri", path).register(registry).increment();
+            }
+            if (enforce) {
+                throw new SqlBudgetExceededException(endpoint, stats.getStatements(), budget);
+            }
+        } else if (log.isDebugEnabled()) {
+            log.debug("sql_request endpoint=\"{}\" statements={} elapsed_ms={}",
+                endpoint, stats.getStatements(), stats.getElapsedMillis());
+        }
+    }
+
+    static Map<String, Integer> parseBudgets(String budgets) {
+        Map<String, Integer> parsed = new HashMap<>();
+        if (budgets == null) {
+            return parsed;
+        }
+        for (String entry : budgets.split(",")) {
+            String trimmed = entry.trim();
+            int equals = trimmed.lastIndexOf('=');
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (equals < 0) {
+                throw new IllegalArgumentException("SQL budget '" + trimmed + "' must look like 'GET /path=2'");
+            }
+            String endpoint = trimmed.substring(0, equals).trim().replaceAll("\\s+", " ");
+            parsed.put(endpoint, Integer.parseInt(trimmed.substring(equals + 1).trim()));
+        }
+        return parsed;
+    }
+}
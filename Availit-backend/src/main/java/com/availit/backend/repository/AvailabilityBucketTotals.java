@@ -0,0 +1,61 @@
+package com.availit.backend.repository;
+
+/**
+ * Running count, min, max and sum of each capacity field over the samples of one time bucket.
+ * Totals from the database and from memory merge by adding, so a bucket can span both.
+ */
+public class AvailabilityBucketTotals {
+    long samples;
+    int minAvailableBeds = Integer.MAX_VALUE;
+    int maxAvailableBeds = Integer.MIN_VALUE;
+    long sumAvailableBeds;
+    int minIcuBeds = Integer.MAX_VALUE;
+    int maxIcuBeds = Integer.MIN_VALUE;
+    long sumIcuBeds;
+    int minVentilators = Integer.MAX_VALUE;
+    int maxVentilators = Integer.MIN_VALUE;
+    long sumVentilators;
+    long oxygenAvailable;
+
+    public void add(int availableBeds, int icuBeds, int ventilators, boolean oxygen) {
+        samples++;
+        minAvailableBeds = Math.min(minAvailableBeds, availableBeds);
+        maxAvailableBeds = Math.max(maxAvailableBeds, availableBeds);
+        sumAvailableBeds += availableBeds;
+        minIcuBeds = Math.min(minIcuBeds, icuBeds);
+        maxIcuBeds = Math.max(maxIcuBeds, icuBeds);
+        sumIcuBeds += icuBeds;
+        minVentilators = Math.min(minVentilators, ventilators);
+        maxVentilators = Math.max(maxVentilators, ventilators);
+        sumVentilators += ventilators;
+        if (oxygen) {
+            oxygenAvailable++;
+        }
+    }
+
+    public void merge(AvailabilityBucketTotals other) {
+        samples += other.samples;
+        minAvailableBeds = Math.min(minAvailableBeds, other.minAvailableBeds);
+        maxAvailableBeds = Math.max(maxAvailableBeds, other.maxAvailableBeds);
+        sumAvailableBeds += other.sumAvailableBeds;
+        minIcuBeds = Math.min(minIcuBeds, other.minIcuBeds);
+        maxIcuBeds = Math.max(maxIcuBeds, other.maxIcuBeds);
+        sumIcuBeds += other.sumIcuBeds;
+        minVentilators = Math.min(minVentilators, other.minVentilators);
+        maxVentilators = Math.max(maxVentilators, other.maxVentilators);
+        sumVentilators += other.sumVentilators;
+        oxygenAvailable += other.oxygenAvailable;
+    }
+
+    public long getSamples() { return samples; }
+    public int getMinAvailableBeds() { return minAvailableBeds; }
+    public int getMaxAvailableBeds() { return maxAvailableBeds; }
+    public double getAvgAvailableBeds() { return (double) sumAvailableBeds / samples; }
+    public int getMinIcuBeds() { return minIcuBeds; }
+    public int getMaxIcuBeds() { return maxIcuBeds; }
+    public double getAvgIcuBeds() { return (double) sumIcuBeds / samples; }
+    public int getMinVentilators() { return minVentilators; }
+    public int getMaxVentilators() { return maxVentilators; }
+    public double getAvgVentilators() { return (double) sumVentilators / samples; }
+    public double getOxygenAvailableRatio() { return (double) oxygenAvailable / samples; }
+}
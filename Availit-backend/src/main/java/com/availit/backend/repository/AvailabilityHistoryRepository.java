@@ -0,0 +1,159 @@
+package com.availit.backend.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Append-only store for {@link AvailabilitySample}s. The table is not a JPA entity because on
+ * PostgreSQL it is range-partitioned by month on {@code recorded_at}, which schema generation cannot
+ * express; elsewhere (H2 in tests) it is a plain table. Old months are dropped whole instead of
+ * being deleted row by row.
+ */
+@Repository
+public class AvailabilityHistoryRepository {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityHistoryRepository.class);
+    private static final String TABLE = "availability_history";
+
+    private static final String COLUMNS =
+        "hospital_id BIGINT NOT NULL, recorded_at BIGINT NOT NULL, available_beds INT NOT NULL, " +
+        "icu_beds INT NOT NULL, ventilators INT NOT NULL, oxygen_available BOOLEAN NOT NULL";
+
+    private static final String INSERT =
+        "INSERT INTO " + TABLE + " (hospital_id, recorded_at, available_beds, icu_beds, ventilators, oxygen_available) " +
+        "VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String AGGREGATE =
+        "SELECT (recorded_at - ?) / ? AS bucket, COUNT(*), " +
+        "MIN(available_beds), MAX(available_beds), SUM(available_beds), " +
+        "MIN(icu_beds), MAX(icu_beds), SUM(icu_beds), " +
+        "MIN(ventilators), MAX(ventilators), SUM(ventilators), " +
+        "SUM(CASE WHEN oxygen_available THEN 1 ELSE 0 END) " +
+        "FROM " + TABLE + " WHERE hospital_id = ? AND recorded_at >= ? AND recorded_at < ? " +
+        "GROUP BY bucket";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean partitioned;
+
+    @PostConstruct
+    void createSchema() {
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        partitioned = product != null && product.toLowerCase(Locale.ROOT).contains("postgres");
+        if (partitioned) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" + COLUMNS + ") PARTITION BY RANGE (recorded_at)");
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + "_default PARTITION OF " + TABLE + " DEFAULT");
+            ensurePartitions(YearMonth.now(ZoneOffset.UTC), 2);
+        } else {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" + COLUMNS + ")");
+        }
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_availability_history_hospital_time ON " + TABLE +
+            " (hospital_id, recorded_at)");
+    }
+
+    /** Creates the monthly partitions from {@code from} for {@code months} months, if they are missing. */
+    public void ensurePartitions(YearMonth from, int months) {
+        if (!partitioned) {
+            return;
+        }
+        for (int i = 0; i < months; i++) {
+            YearMonth month = from.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE +
+                " FOR VALUES FROM (" + startMillis(month) + ") TO (" + startMillis(month.plusMonths(1)) + ")");
+        }
+    }
+
+    /** Drops monthly partitions that end before {@code cutoff}. Returns how many were dropped. */
+    public int dropPartitionsBefore(YearMonth cutoff) {
+        if (!partitioned) {
+            return 0;
+        }
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "JOIN pg_class p ON p.oid = i.inhparent WHERE p.relname = ?", String.class, TABLE);
+        int dropped = 0;
+        for (String partition : partitions) {
+            if (!partition.matches(TABLE + "_y\\d{4}m\\d{2}")) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(partition.substring(TABLE.length() + 2, TABLE.length() + 6)),
+                Integer.parseInt(partition.substring(TABLE.length() + 7)));
+            if (month.isBefore(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped availability history partition {}", partition);
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    public void insert(List<AvailabilitySample> samples) {
+        jdbcTemplate.batchUpdate(INSERT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AvailabilitySample sample = samples.get(i);
+                ps.setLong(1, sample.hospitalId());
+                ps.setLong(2, sample.recordedAt());
+                ps.setInt(3, sample.availableBeds());
+                ps.setInt(4, sample.icuBeds());
+                ps.setInt(5, sample.ventilators());
+                ps.setBoolean(6, sample.oxygenAvailable());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return samples.size();
+            }
+        });
+    }
+
+    /**
+     * Groups the samples of one hospital in {@code [from, to)} into buckets of {@code bucketMs} in the
+     * database and adds each bucket's totals to {@code buckets}, indexed from {@code from}.
+     */
+    public void aggregateInto(long hospitalId, long from, long to, long bucketMs, AvailabilityBucketTotals[] buckets) {
+        jdbcTemplate.query(AGGREGATE, (ResultSet rs) -> {
+            AvailabilityBucketTotals totals = new AvailabilityBucketTotals();
+            totals.samples = rs.getLong(2);
+            totals.minAvailableBeds = rs.getInt(3);
+            totals.maxAvailableBeds = rs.getInt(4);
+            totals.sumAvailableBeds = rs.getLong(5);
+            totals.minIcuBeds = rs.getInt(6);
+            totals.maxIcuBeds = rs.getInt(7);
+            totals.sumIcuBeds = rs.getLong(8);
+            totals.minVentilators = rs.getInt(9);
+            totals.maxVentilators = rs.getInt(10);
+            totals.sumVentilators = rs.getLong(11);
+            totals.oxygenAvailable = rs.getLong(12);
+            int bucket = rs.getInt(1);
+            if (buckets[bucket] == null) {
+                buckets[bucket] = totals;
+            } else {
+                buckets[bucket].merge(totals);
+            }
+        }, from, bucketMs, hospitalId, from, to);
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format(Locale.ROOT, "%s_y%04dm%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    private static long startMillis(YearMonth month) {
+        return month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
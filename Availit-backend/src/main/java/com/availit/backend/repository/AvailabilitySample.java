@@ -0,0 +1,5 @@
+package com.availit.backend.repository;
+
+/** One recorded state of a hospital's capacity, timestamped in epoch milliseconds. */
+public record AvailabilitySample(long hospitalId, long recordedAt, int availableBeds, int icuBeds,
+                                 int ventilators, boolean oxygenAvailable) {}
@@ -1,17 +1,82 @@
 package com.availit.backend.repository;
 
 import com.availit.backend.model.HospitalAvailability;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface HospitalAvailabilityRepository extends JpaRepository<HospitalAvailability, Long> {
-    @Query("SELECT h FROM HospitalAvailability h JOIN h.locations l WHERE LOWER(l.city) = LOWER(:city)")
+public interface HospitalAvailabilityRepository extends JpaRepository<HospitalAvailability, Long>, HospitalKeysetRepository,
+        HospitalExportRepository {
+    String CITY_QUERY_REGION = "hospital-city-queries";
+    String CAPACITY_QUERY_SPACE = "hospital_capacity";
+
+    @Override
+    @EntityGraph(attributePaths = "locations")
+    List<HospitalAvailability> findAll();
+
+    @EntityGraph(attributePaths = "locations")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CITY_QUERY_REGION)})
+    @Query("SELECT h FROM HospitalAvailability h WHERE h.id IN " +
+           "(SELECT m.id FROM HospitalAvailability m JOIN m.locations l WHERE LOWER(l.city) = LOWER(:city))")
     List<HospitalAvailability> findByLocationCityIgnoreCase(@Param("city") String city);
 
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CITY_QUERY_REGION)})
     @Query("SELECT DISTINCT l.city FROM HospitalAvailability h JOIN h.locations l WHERE l.city IS NOT NULL")
     List<String> findDistinctCities();
+
+    // One row per hospital and location, for checking the per-city totals kept in memory.
+    @Query("SELECT h.id, h.totalBeds, h.availableBeds, h.icuBeds, h.ventilators, h.oxygenAvailable, l.city " +
+           "FROM HospitalAvailability h JOIN h.locations l WHERE l.city IS NOT NULL AND h.capacityReported = true")
+    List<Object[]> findCapacityByCity();
+
+    // First phase of paged listing: page over ids only, so LIMIT/OFFSET never meets a collection fetch.
+    @Query(value = "SELECT h.id FROM HospitalAvailability h",
+           countQuery = "SELECT COUNT(h) FROM HospitalAvailability h")
+    Page<Long> findIdPage(Pageable pageable);
+
+    @EntityGraph(attributePaths = "locations")
+    List<HospitalAvailability> findByIdIn(Collection<Long> ids);
+
+    // Change feed: (id, changeVersion) pairs after a watermark, in version order.
+    @Query("SELECT h.id, h.changeVersion FROM HospitalAvailability h WHERE h.changeVersion > :since " +
+           "ORDER BY h.changeVersion")
+    List<Object[]> findChangedSince(@Param("since") long since, Limit limit);
+
+    @Query("SELECT h.id, h.changeVersion FROM HospitalAvailability h WHERE h.changeVersion > :since AND h.id IN " +
+           "(SELECT m.id FROM HospitalAvailability m JOIN m.locations l WHERE LOWER(l.city) = LOWER(:city)) " +
+           "ORDER BY h.changeVersion")
+    List<Object[]> findChangedSinceInCity(@Param("since") long since, @Param("city") String city, Limit limit);
+
+    // Single-statement relative update; the WHERE clause enforces the bounds, so 0 rows means missing or out of bounds.
+    // Native, with a query space no entity maps, so Hibernate does not drop the whole hospitals cache region
+    // the way it does after a JPQL bulk update; the caller evicts the one hospital instead.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = CAPACITY_QUERY_SPACE))
+    @Query(value = "UPDATE hospital_availability SET " +
+           "available_beds = available_beds + :availableBeds, " +
+           "icu_beds = icu_beds + :icuBeds, " +
+           "ventilators = ventilators + :ventilators, " +
+           "version = COALESCE(version, 0) + 1 " +
+           "WHERE id = :id " +
+           "AND available_beds + :availableBeds BETWEEN 0 AND total_beds " +
+           "AND icu_beds + :icuBeds >= 0 " +
+           "AND ventilators + :ventilators >= 0", nativeQuery = true)
+    int adjustCapacity(@Param("id") Long id,
+                       @Param("availableBeds") int availableBeds,
+                       @Param("icuBeds") int icuBeds,
+                       @Param("ventilators") int ventilators);
 }
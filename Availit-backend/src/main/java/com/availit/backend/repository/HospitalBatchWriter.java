@@ -0,0 +1,169 @@
+package com.availit.backend.repository;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain-JDBC batch inserts for hospitals and their locations. IDENTITY ids make Hibernate insert
+ * one row per round trip, so bulk paths write here instead and read the new ids back from the
+ * generated keys of each batch.
+ * <p>
+ * Hibernate does not see these inserts, so cached query results over the hospital tables are
+ * evicted once the inserting transaction commits.
+ */
+@Repository
+public class HospitalBatchWriter {
+
+    private static final String INSERT_HOSPITAL =
+        "INSERT INTO hospital_availability (hospital_name, total_beds, available_beds, oxygen_available, " +
+        "address, contact_number, icu_beds, ventilators, external_source_id, capacity_reported, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String INSERT_LOCATION =
+        "INSERT INTO location (address, city, state, zip_code, latitude, longitude, hospital_id) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HospitalChangeLog changeLog;
+
+    @Value("${availit.bulk.jdbc-batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Schemas created while the contact number was required for every hospital keep the column
+     * NOT NULL, which schema update does not relax; live feeds may now leave it out.
+     */
+    @PostConstruct
+    public void allowMissingContactNumbers() {
+        jdbcTemplate.execute("ALTER TABLE hospital_availability ALTER COLUMN contact_number DROP NOT NULL");
+    }
+
+    /** Inserts {@code hospitals} and their locations in JDBC batches and returns the new ids in order. */
+    public List<Long> insert(List<HospitalAvailability> hospitals) {
+        List<Long> ids = new ArrayList<>(hospitals.size());
+        for (int from = 0; from < hospitals.size(); from += batchSize) {
+            List<HospitalAvailability> batch = hospitals.subList(from, Math.min(from + batchSize, hospitals.size()));
+            ids.addAll(insertHospitals(batch));
+        }
+        List<Location> locations = new ArrayList<>();
+        List<Long> owners = new ArrayList<>();
+        for (int i = 0; i < hospitals.size(); i++) {
+            if (hospitals.get(i).getLocations() != null) {
+                for (Location location : hospitals.get(i).getLocations()) {
+                    locations.add(location);
+                    owners.add(ids.get(i));
+                }
+            }
+        }
+        for (int from = 0; from < locations.size(); from += batchSize) {
+            int to = Math.min(from + batchSize, locations.size());
+            insertLocations(locations.subList(from, to), owners.subList(from, to));
+        }
+        changeLog.recordSavedIds(ids);
+        evictQueryResultsAfterCommit();
+        return ids;
+    }
+
+    private void evictQueryResultsAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictQueryResults();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictQueryResults();
+            }
+        });
+    }
+
+    private void evictQueryResults() {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    private List<Long> insertHospitals(List<HospitalAvailability> batch) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_HOSPITAL, new String[] {"id"}),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    HospitalAvailability h = batch.get(i);
+                    ps.setString(1, h.getHospitalName());
+                    ps.setInt(2, h.getTotalBeds());
+                    ps.setInt(3, h.getAvailableBeds());
+                    ps.setBoolean(4, h.isOxygenAvailable());
+                    ps.setString(5, h.getAddress());
+                    ps.setString(6, h.getContactNumber());
+                    ps.setInt(7, h.getIcuBeds());
+                    ps.setInt(8, h.getVentilators());
+                    ps.setString(9, h.getExternalSourceId());
+                    ps.setBoolean(10, h.isCapacityReported());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            }, keys);
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (Map<String, Object> row : keys.getKeyList()) {
+            Object id = row.size() == 1 ? row.values().iterator().next() : row.get("id");
+            ids.add(((Number) id).longValue());
+        }
+        return ids;
+    }
+
+    private void insertLocations(List<Location> batch, List<Long> owners) {
+        jdbcTemplate.batchUpdate(INSERT_LOCATION, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Location l = batch.get(i);
+                ps.setString(1, l.getAddress());
+                ps.setString(2, l.getCity());
+                ps.setString(3, l.getState());
+                ps.setString(4, l.getZipCode());
+                setDouble(ps, 5, l.getLatitude());
+                setDouble(ps, 6, l.getLongitude());
+                ps.setLong(7, owners.get(i));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return batch.size();
+            }
+        });
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+}
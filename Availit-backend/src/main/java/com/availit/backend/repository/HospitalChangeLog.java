@@ -0,0 +1,279 @@
+package com.availit.backend.repository;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.HospitalChangeClock;
+import com.availit.backend.model.HospitalCityExit;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Gives every hospital write a position in the change feed. Writers record which hospitals they
+ * saved or deleted; just before their transaction commits, each of those rows gets the next value
+ * of a single-row clock in {@code change_version}, each deletion a tombstone, and each city a saved
+ * hospital no longer has a location in a {@link HospitalCityExit}, so city-scoped clients drop it.
+ * <p>
+ * The clock row stays locked until the commit, so versions become visible in the order they were
+ * handed out and a client that has seen version n never misses a later commit below n. Writers
+ * only queue on it for the end of their transaction, after everything else has been flushed.
+ */
+@Repository
+public class HospitalChangeLog {
+
+    private static final Logger log = LoggerFactory.getLogger(HospitalChangeLog.class);
+    private static final String CITY_SEPARATOR = "\n";
+    private static final String CLOCK = "hospital_change_clock";
+
+    private static final String STAMP_HOSPITAL =
+        "UPDATE hospital_availability SET change_version = ?, feed_cities = ? WHERE id = ?";
+
+    private static final String INSERT_TOMBSTONE =
+        "INSERT INTO hospital_tombstone (hospital_id, change_version, deleted_at) VALUES (?, ?, ?)";
+
+    private static final String INSERT_CITY_EXIT =
+        "INSERT INTO hospital_city_exit (change_version, hospital_id, city, left_at) VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${availit.bulk.jdbc-batch-size:500}")
+    private int batchSize;
+
+    @PostConstruct
+    void initialize() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> {
+                if (entityManager.find(HospitalChangeClock.class, HospitalChangeClock.ID) == null) {
+                    entityManager.persist(new HospitalChangeClock(HospitalChangeClock.ID));
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            // another instance starting at the same time created it first
+            log.debug("Change clock created concurrently: {}", e.getMessage());
+        }
+        // rows written before the change feed existed join it once, in id order
+        List<Long> unstamped = jdbcTemplate.queryForList(
+            "SELECT id FROM hospital_availability WHERE change_version IS NULL ORDER BY id", Long.class);
+        if (!unstamped.isEmpty()) {
+            Pending pending = new Pending();
+            unstamped.forEach(id -> pending.saved.put(id, null));
+            transaction.executeWithoutResult(status -> stamp(pending));
+            log.info("Assigned change versions to {} hospitals", unstamped.size());
+        }
+    }
+
+    /** Records that {@code hospitals} were inserted or updated in the current transaction. */
+    public void recordSaved(Collection<HospitalAvailability> hospitals) {
+        Pending pending = pending();
+        for (HospitalAvailability hospital : hospitals) {
+            pending.saved.put(hospital.getId(), hospital);
+        }
+        stampIfNoTransaction(pending);
+    }
+
+    /** Like {@link #recordSaved}, for rows written without an entity, such as JDBC batch inserts. */
+    public void recordSavedIds(Collection<Long> ids) {
+        Pending pending = pending();
+        for (Long id : ids) {
+            pending.saved.putIfAbsent(id, null);
+        }
+        stampIfNoTransaction(pending);
+    }
+
+    public void recordDeleted(Long id) {
+        Pending pending = pending();
+        pending.deleted.add(id);
+        stampIfNoTransaction(pending);
+    }
+
+    /** The highest version handed out so far. */
+    public long currentVersion() {
+        return jdbcTemplate.queryForObject("SELECT version FROM " + CLOCK + " WHERE id = ?", Long.class,
+            HospitalChangeClock.ID);
+    }
+
+    /** Watermarks below this version may have missed removals that were purged since. */
+    public long purgedThrough() {
+        return jdbcTemplate.queryForObject("SELECT purged_through FROM " + CLOCK + " WHERE id = ?", Long.class,
+            HospitalChangeClock.ID);
+    }
+
+    /**
+     * Deletes tombstones and city exits written before {@code cutoff} and moves the purge horizon
+     * past them. Returns the number of rows deleted.
+     */
+    @Transactional
+    public int purgeRemovalsBefore(Instant cutoff) {
+        Timestamp before = Timestamp.from(cutoff);
+        Long horizon = jdbcTemplate.queryForObject(
+            "SELECT MAX(v) FROM (SELECT MAX(change_version) AS v FROM hospital_tombstone WHERE deleted_at < ? " +
+            "UNION ALL SELECT MAX(change_version) FROM hospital_city_exit WHERE left_at < ?) removals",
+            Long.class, before, before);
+        if (horizon == null) {
+            return 0;
+        }
+        jdbcTemplate.update("UPDATE " + CLOCK + " SET purged_through = ? WHERE id = ? AND purged_through < ?",
+            horizon, HospitalChangeClock.ID, horizon);
+        return jdbcTemplate.update("DELETE FROM hospital_tombstone WHERE change_version <= ?", horizon)
+            + jdbcTemplate.update("DELETE FROM hospital_city_exit WHERE change_version <= ?", horizon);
+    }
+
+    private Pending pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new Pending();
+        }
+        // looked up among the synchronizations, which a REQUIRES_NEW transaction suspends
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending pending && pending.owner() == this) {
+                return pending;
+            }
+        }
+        Pending pending = new Pending();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void stampIfNoTransaction(Pending pending) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> stamp(pending));
+            pending.evictStamped();
+        }
+    }
+
+    private void stamp(Pending pending) {
+        pending.saved.keySet().removeAll(pending.deleted);
+        if (pending.saved.isEmpty() && pending.deleted.isEmpty()) {
+            return;
+        }
+        // take every row lock this transaction needs before the clock's, so waiting on it cannot deadlock
+        entityManager.flush();
+        Map<Long, Set<String>> previousCities = new HashMap<>();
+        Map<Long, Set<String>> cities = new HashMap<>();
+        readCities(pending.saved.keySet(), previousCities, cities);
+        List<Object[]> exits = new ArrayList<>();
+        previousCities.forEach((id, previous) -> previous.stream()
+            .filter(city -> !cities.getOrDefault(id, Set.of()).contains(city))
+            .forEach(city -> exits.add(new Object[] {id, city})));
+        int count = pending.saved.size() + pending.deleted.size() + exits.size();
+        jdbcTemplate.update("UPDATE " + CLOCK + " SET version = version + ? WHERE id = ?", count, HospitalChangeClock.ID);
+        long next = currentVersion() - count + 1;
+
+        List<Object[]> stamps = new ArrayList<>(pending.saved.size());
+        for (Map.Entry<Long, HospitalAvailability> entry : pending.saved.entrySet()) {
+            long version = next++;
+            Set<String> keys = cities.get(entry.getKey());
+            stamps.add(new Object[] {version, keys == null ? null : String.join(CITY_SEPARATOR, keys), entry.getKey()});
+            if (entry.getValue() != null) {
+                entry.getValue().setChangeVersion(version);
+            }
+        }
+        jdbcTemplate.batchUpdate(STAMP_HOSPITAL, stamps, batchSize,
+            (ps, stamp) -> {
+                ps.setLong(1, (Long) stamp[0]);
+                ps.setString(2, (String) stamp[1]);
+                ps.setLong(3, (Long) stamp[2]);
+            });
+
+        Timestamp now = Timestamp.from(Instant.now());
+        if (!exits.isEmpty()) {
+            List<Object[]> rows = new ArrayList<>(exits.size());
+            for (Object[] exit : exits) {
+                rows.add(new Object[] {next++, exit[0], exit[1], now});
+            }
+            jdbcTemplate.batchUpdate(INSERT_CITY_EXIT, rows);
+        }
+        List<Object[]> tombstones = new ArrayList<>(pending.deleted.size());
+        for (Long id : pending.deleted) {
+            tombstones.add(new Object[] {id, next++, now});
+        }
+        if (!tombstones.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TOMBSTONE, tombstones);
+        }
+    }
+
+    /**
+     * Reads, for each of {@code ids}, the cities recorded at its previous stamp and the cities of its
+     * locations now, both lower-cased by the database.
+     */
+    private void readCities(Collection<Long> ids, Map<Long, Set<String>> previous, Map<Long, Set<String>> current) {
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += batchSize) {
+            Map<String, Object> chunk = Map.of("ids", all.subList(from, Math.min(from + batchSize, all.size())));
+            named.query("SELECT id, feed_cities FROM hospital_availability WHERE feed_cities IS NOT NULL AND id IN (:ids)",
+                chunk, rs -> {
+                    previous.put(rs.getLong(1), new TreeSet<>(List.of(rs.getString(2).split(CITY_SEPARATOR))));
+                });
+            named.query("SELECT hospital_id, LOWER(city) FROM location WHERE city IS NOT NULL AND hospital_id IN (:ids)",
+                chunk, rs -> {
+                    current.computeIfAbsent(rs.getLong(1), id -> new TreeSet<>()).add(rs.getString(2));
+                });
+        }
+    }
+
+    /** Hospitals touched by one transaction, stamped in id order as it commits. */
+    private final class Pending implements TransactionSynchronization {
+        private final Map<Long, HospitalAvailability> saved = new TreeMap<>();
+        private final Set<Long> deleted = new LinkedHashSet<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            stamp(this);
+        }
+
+        @Override
+        public void afterCommit() {
+            evictStamped();
+        }
+
+        HospitalChangeLog owner() {
+            return HospitalChangeLog.this;
+        }
+
+        /** Cached copies were taken before the stamp and would serve the previous change version. */
+        void evictStamped() {
+            Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            for (Long id : saved.keySet()) {
+                cache.evictEntityData(HospitalAvailability.class, id);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.availit.backend.repository;
+
+import com.availit.backend.model.HospitalCityExit;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HospitalCityExitRepository extends JpaRepository<HospitalCityExit, Long> {
+
+    @Query("SELECT e FROM HospitalCityExit e WHERE e.city = LOWER(:city) AND e.changeVersion > :since " +
+           "ORDER BY e.changeVersion")
+    List<HospitalCityExit> findLeavingCitySince(@Param("city") String city, @Param("since") long since, Limit limit);
+}
@@ -0,0 +1,60 @@
+package com.availit.backend.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset listing: the sort key and id of the last row returned. Encoded for clients as
+ * an opaque URL-safe token that also carries the ordering, so a cursor cannot be replayed against a
+ * different sort.
+ */
+public record HospitalCursor(Sort sort, boolean descending, Long id, Object key) {
+
+    public enum Sort {
+        ID("id", false),
+        HOSPITAL_NAME("hospitalName", true),
+        AVAILABLE_BEDS("availableBeds", false);
+
+        private final String property;
+        private final boolean nullable;
+
+        Sort(String property, boolean nullable) {
+            this.property = property;
+            this.nullable = nullable;
+        }
+
+        public String property() { return property; }
+        public boolean nullable() { return nullable; }
+
+        public static Sort fromProperty(String property) {
+            for (Sort sort : values()) {
+                if (sort.property.equalsIgnoreCase(property)) {
+                    return sort;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported sort: " + property);
+        }
+    }
+
+    public String encode() {
+        String raw = sort.name() + "\n" + (descending ? "d" : "a") + "\n" + id + "\n" + (key == null ? "" : "=" + key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static HospitalCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\n", 4);
+            Sort sort = Sort.valueOf(parts[0]);
+            boolean descending = "d".equals(parts[1]);
+            Long id = Long.valueOf(parts[2]);
+            Object key = null;
+            if (!parts[3].isEmpty()) {
+                String value = parts[3].substring(1);
+                key = sort == Sort.AVAILABLE_BEDS ? (Object) Integer.valueOf(value) : value;
+            }
+            return new HospitalCursor(sort, descending, id, key);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.availit.backend.repository;
+
+import com.availit.backend.model.HospitalAvailability;
+
+import java.util.Collection;
+import java.util.stream.Stream;
+
+public interface HospitalExportRepository {
+
+    /**
+     * Hospitals with their locations in id order, read through a server-side cursor. Only hospitals
+     * with a location in one of {@code cities} are returned when cities are given. The stream must be
+     * consumed inside a transaction and closed.
+     */
+    Stream<HospitalAvailability> streamForExport(Collection<String> cities);
+}
@@ -0,0 +1,51 @@
+package com.availit.backend.repository;
+
+import com.availit.backend.model.HospitalAvailability;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Reads hospitals for export in one statement, fetching {@code fetch-size} rows per round trip.
+ * Ordering by id keeps each hospital's location rows together, which Hibernate needs to assemble
+ * the collection while scrolling. Results skip the second-level cache so an export does not
+ * evict the hospitals that interactive requests keep there.
+ */
+public class HospitalExportRepositoryImpl implements HospitalExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${availit.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Override
+    public Stream<HospitalAvailability> streamForExport(Collection<String> cities) {
+        boolean filtered = cities != null && !cities.isEmpty();
+        StringBuilder jpql = new StringBuilder("SELECT h FROM HospitalAvailability h LEFT JOIN FETCH h.locations");
+        if (filtered) {
+            jpql.append(" WHERE h.id IN (SELECT m.id FROM HospitalAvailability m JOIN m.locations l WHERE LOWER(l.city) IN :cities)");
+        }
+        jpql.append(" ORDER BY h.id");
+        TypedQuery<HospitalAvailability> query = entityManager.createQuery(jpql.toString(), HospitalAvailability.class)
+            .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+            .setHint(HibernateHints.HINT_READ_ONLY, true)
+            .setHint(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS)
+            .setHint(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+        if (filtered) {
+            List<String> keys = cities.stream().map(city -> city.trim().toLowerCase(Locale.ROOT)).toList();
+            query.setParameter("cities", keys);
+        }
+        return query.getResultStream();
+    }
+}
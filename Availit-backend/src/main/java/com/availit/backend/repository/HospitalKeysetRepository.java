@@ -0,0 +1,12 @@
+package com.availit.backend.repository;
+
+import java.util.List;
+
+public interface HospitalKeysetRepository {
+
+    /**
+     * Positions of up to {@code limit} hospitals after {@code after} (or from the start when null), in
+     * {@code (sort key, id)} order. Hospitals without a sort key come last.
+     */
+    List<HospitalCursor> findKeysetPage(HospitalCursor.Sort sort, boolean descending, HospitalCursor after, int limit);
+}
@@ -0,0 +1,72 @@
+package com.availit.backend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Seeks with a row-value comparison on {@code (sort key, id)} instead of an offset, so with an index
+ * on the same pair every page costs one index range scan however deep it is. Rows with a null sort
+ * key cannot be compared that way and are read as a second segment ordered by id.
+ */
+public class HospitalKeysetRepositoryImpl implements HospitalKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<HospitalCursor> findKeysetPage(HospitalCursor.Sort sort, boolean descending, HospitalCursor after, int limit) {
+        String direction = descending ? " DESC" : " ASC";
+        String comparison = descending ? " < " : " > ";
+        String key = "h." + sort.property();
+        List<HospitalCursor> page = new ArrayList<>(limit);
+
+        if (after == null || after.key() != null || sort == HospitalCursor.Sort.ID) {
+            StringBuilder jpql = new StringBuilder("SELECT h.id, ").append(key)
+                .append(" FROM HospitalAvailability h WHERE ").append(key).append(" IS NOT NULL");
+            if (after != null) {
+                if (sort == HospitalCursor.Sort.ID) {
+                    jpql.append(" AND h.id").append(comparison).append(":id");
+                } else {
+                    jpql.append(" AND (").append(key).append(", h.id)").append(comparison).append("(:key, :id)");
+                }
+            }
+            jpql.append(" ORDER BY ").append(key).append(direction);
+            if (sort != HospitalCursor.Sort.ID) {
+                jpql.append(", h.id").append(direction);
+            }
+            TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class).setMaxResults(limit);
+            if (after != null) {
+                query.setParameter("id", after.id());
+                if (sort != HospitalCursor.Sort.ID) {
+                    query.setParameter("key", after.key());
+                }
+            }
+            for (Object[] row : query.getResultList()) {
+                page.add(new HospitalCursor(sort, descending, (Long) row[0], row[1]));
+            }
+        }
+
+        if (sort.nullable() && page.size() < limit) {
+            StringBuilder jpql = new StringBuilder("SELECT h.id FROM HospitalAvailability h WHERE ")
+                .append(key).append(" IS NULL");
+            boolean inNullSegment = after != null && after.key() == null;
+            if (inNullSegment) {
+                jpql.append(" AND h.id").append(comparison).append(":id");
+            }
+            jpql.append(" ORDER BY h.id").append(direction);
+            TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class)
+                .setMaxResults(limit - page.size());
+            if (inNullSegment) {
+                query.setParameter("id", after.id());
+            }
+            for (Long id : query.getResultList()) {
+                page.add(new HospitalCursor(sort, descending, id, null));
+            }
+        }
+        return page;
+    }
+}
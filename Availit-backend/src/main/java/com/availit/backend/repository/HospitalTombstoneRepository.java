@@ -0,0 +1,14 @@
+package com.availit.backend.repository;
+
+import com.availit.backend.model.HospitalTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface HospitalTombstoneRepository extends JpaRepository<HospitalTombstone, Long> {
+
+    List<HospitalTombstone> findByChangeVersionGreaterThanOrderByChangeVersion(long since, Limit limit);
+}
@@ -0,0 +1,261 @@
+package com.availit.backend.service;
+
+import com.availit.backend.dto.AvailabilityHistory;
+import com.availit.backend.event.HospitalChangeEvent;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.repository.AvailabilityBucketTotals;
+import com.availit.backend.repository.AvailabilityHistoryRepository;
+import com.availit.backend.repository.AvailabilitySample;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Records every committed change to a hospital's capacity. The most recent changes of each hospital
+ * stay in a small ring of primitive arrays, which answers recent-window queries without touching
+ * the database; the rings are flushed to {@link AvailabilityHistoryRepository} in batches.
+ */
+@Service
+public class AvailabilityHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityHistoryService.class);
+    private static final int INITIAL_RING_CAPACITY = 8;
+
+    @Autowired
+    private AvailabilityHistoryRepository historyRepository;
+
+    @Value("${availit.history.ring-capacity:128}")
+    private int ringCapacity;
+
+    @Value("${availit.history.retention-months:12}")
+    private int retentionMonths;
+
+    private final Map<Long, Ring> rings = new ConcurrentHashMap<>();
+    // held for writing while a flush is between writing rows and marking them flushed
+    private final ReentrantReadWriteLock flushLock = new ReentrantReadWriteLock();
+    private final LongAdder overwritten = new LongAdder();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHospitalChange(HospitalChangeEvent event) {
+        long now = System.currentTimeMillis();
+        for (HospitalAvailability hospital : event.getSaved()) {
+            if (!hospital.isCapacityReported()) {
+                continue;
+            }
+            rings.computeIfAbsent(hospital.getId(), id -> new Ring()).record(now, hospital);
+        }
+        // rows already flushed stay in the table; only the in-memory tail goes
+        event.getDeletedIds().forEach(rings::remove);
+    }
+
+    /**
+     * Downsamples the changes recorded for {@code hospitalId} in {@code [from, to)} into
+     * {@code bucketCount} equal buckets, with min, max and average per field.
+     */
+    public AvailabilityHistory getHistory(Long hospitalId, long from, long to, int bucketCount) {
+        long bucketMs = Math.max(1, (to - from + bucketCount - 1) / bucketCount);
+        AvailabilityBucketTotals[] buckets = new AvailabilityBucketTotals[(int) ((to - from + bucketMs - 1) / bucketMs)];
+        Ring ring = rings.get(hospitalId);
+        flushLock.readLock().lock();
+        try {
+            if (ring != null && ring.covers(from)) {
+                ring.aggregateInto(from, to, bucketMs, buckets, false);
+            } else {
+                historyRepository.aggregateInto(hospitalId, from, to, bucketMs, buckets);
+                if (ring != null) {
+                    ring.aggregateInto(from, to, bucketMs, buckets, true);
+                }
+            }
+        } finally {
+            flushLock.readLock().unlock();
+        }
+        List<AvailabilityHistory.Bucket> result = new ArrayList<>();
+        for (int i = 0; i < buckets.length; i++) {
+            AvailabilityBucketTotals totals = buckets[i];
+            if (totals == null || totals.getSamples() == 0) {
+                continue;
+            }
+            result.add(new AvailabilityHistory.Bucket(from + i * bucketMs, totals.getSamples(),
+                new AvailabilityHistory.Stats(totals.getMinAvailableBeds(), totals.getMaxAvailableBeds(), totals.getAvgAvailableBeds()),
+                new AvailabilityHistory.Stats(totals.getMinIcuBeds(), totals.getMaxIcuBeds(), totals.getAvgIcuBeds()),
+                new AvailabilityHistory.Stats(totals.getMinVentilators(), totals.getMaxVentilators(), totals.getAvgVentilators()),
+                totals.getOxygenAvailableRatio()));
+        }
+        return new AvailabilityHistory(hospitalId, from, to, bucketMs, result);
+    }
+
+    @Scheduled(fixedDelayString = "${availit.history.flush-ms:5000}")
+    public void flush() {
+        flushLock.writeLock().lock();
+        try {
+            List<AvailabilitySample> batch = new ArrayList<>();
+            List<Ring> flushed = new ArrayList<>();
+            List<Long> marks = new ArrayList<>();
+            rings.forEach((id, ring) -> {
+                long mark = ring.collectUnflushed(id, batch);
+                if (mark >= 0) {
+                    flushed.add(ring);
+                    marks.add(mark);
+                }
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+            historyRepository.insert(batch);
+            for (int i = 0; i < flushed.size(); i++) {
+                flushed.get(i).markFlushed(marks.get(i));
+            }
+        } catch (RuntimeException e) {
+            // rows stay unflushed and are retried on the next run
+            log.warn("Could not flush availability history", e);
+        } finally {
+            flushLock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(cron = "${availit.history.maintenance-cron:0 15 3 * * *}")
+    public void maintainPartitions() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        historyRepository.ensurePartitions(current, 2);
+        historyRepository.dropPartitionsBefore(current.minusMonths(retentionMonths));
+    }
+
+    /** Changes overwritten in memory before they could be flushed; non-zero means flush more often. */
+    public long getOverwrittenCount() {
+        return overwritten.sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Last changes of one hospital in parallel primitive arrays, oldest at {@code start}. Capacity
+     * grows from a few slots to {@code ringCapacity}, so rarely changing hospitals stay small.
+     */
+    private final class Ring {
+        private long[] times = new long[0];
+        private int[] availableBeds;
+        private int[] icuBeds;
+        private int[] ventilators;
+        private boolean[] oxygen;
+        private int start;
+        private int size;
+        private long written;
+        private long flushed;
+
+        Ring() {
+            grow(Math.min(INITIAL_RING_CAPACITY, Math.max(1, ringCapacity)));
+        }
+
+        synchronized void record(long time, HospitalAvailability hospital) {
+            if (size > 0) {
+                int last = slot(size - 1);
+                if (availableBeds[last] == hospital.getAvailableBeds() && icuBeds[last] == hospital.getIcuBeds()
+                        && ventilators[last] == hospital.getVentilators() && oxygen[last] == hospital.isOxygenAvailable()) {
+                    return;
+                }
+            }
+            if (size == times.length && times.length < ringCapacity) {
+                grow(Math.min(ringCapacity, times.length * 2));
+            }
+            int slot;
+            if (size == times.length) {
+                slot = start;
+                start = (start + 1) % times.length;
+                if (written - flushed >= size) {
+                    overwritten.increment();
+                }
+            } else {
+                slot = slot(size++);
+            }
+            times[slot] = time;
+            availableBeds[slot] = hospital.getAvailableBeds();
+            icuBeds[slot] = hospital.getIcuBeds();
+            ventilators[slot] = hospital.getVentilators();
+            oxygen[slot] = hospital.isOxygenAvailable();
+            written++;
+        }
+
+        /** True when nothing at or after {@code from} can have been evicted from this ring. */
+        synchronized boolean covers(long from) {
+            return size > 0 && times[start] <= from;
+        }
+
+        synchronized void aggregateInto(long from, long to, long bucketMs, AvailabilityBucketTotals[] buckets,
+                                        boolean unflushedOnly) {
+            int first = unflushedOnly ? size - (int) Math.min(size, written - flushed) : 0;
+            for (int i = first; i < size; i++) {
+                int slot = slot(i);
+                long time = times[slot];
+                if (time < from || time >= to) {
+                    continue;
+                }
+                int bucket = (int) ((time - from) / bucketMs);
+                if (buckets[bucket] == null) {
+                    buckets[bucket] = new AvailabilityBucketTotals();
+                }
+                buckets[bucket].add(availableBeds[slot], icuBeds[slot], ventilators[slot], oxygen[slot]);
+            }
+        }
+
+        /** Adds unflushed samples to {@code batch} and returns the mark to pass to {@link #markFlushed}, or -1. */
+        synchronized long collectUnflushed(long hospitalId, List<AvailabilitySample> batch) {
+            int pending = (int) Math.min(size, written - flushed);
+            if (pending == 0) {
+                return -1;
+            }
+            for (int i = size - pending; i < size; i++) {
+                int slot = slot(i);
+                batch.add(new AvailabilitySample(hospitalId, times[slot], availableBeds[slot], icuBeds[slot],
+                    ventilators[slot], oxygen[slot]));
+            }
+            return written;
+        }
+
+        synchronized void markFlushed(long mark) {
+            flushed = Math.max(flushed, mark);
+        }
+
+        private int slot(int index) {
+            return (start + index) % times.length;
+        }
+
+        private void grow(int capacity) {
+            long[] newTimes = new long[capacity];
+            int[] newAvailable = new int[capacity];
+            int[] newIcu = new int[capacity];
+            int[] newVentilators = new int[capacity];
+            boolean[] newOxygen = new boolean[capacity];
+            for (int i = 0; i < size; i++) {
+                int slot = slot(i);
+                newTimes[i] = times[slot];
+                newAvailable[i] = availableBeds[slot];
+                newIcu[i] = icuBeds[slot];
+                newVentilators[i] = ventilators[slot];
+                newOxygen[i] = oxygen[slot];
+            }
+            times = newTimes;
+            availableBeds = newAvailable;
+            icuBeds = newIcu;
+            ventilators = newVentilators;
+            oxygen = newOxygen;
+            start = 0;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.availit.backend.service;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.dto.AvailabilityDelta;
+import com.availit.backend.event.HospitalSnapshotEvent;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pushes availability deltas to Server-Sent Events subscribers. Subscribers hold no thread while idle.
+ * Deltas are queued per subscriber from the snapshot listener and written by a small sender pool,
+ * so one slow client can delay only itself; a client whose queue overflows is disconnected and
+ * expected to reconnect and refetch.
+ * <p>
+ * Each subscriber sees a change relative to its own cities: a hospital that moves into them arrives
+ * as CREATED with its full state, one that moves out as DELETED.
+ */
+@Service
+public class AvailabilityStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(AvailabilityStreamService.class);
+    private static final String ALL_CITIES = "";
+
+    private static final Map<String, Function<HospitalAvailability, Object>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("hospitalName", HospitalAvailability::getHospitalName);
+        FIELDS.put("totalBeds", HospitalAvailability::getTotalBeds);
+        FIELDS.put("availableBeds", HospitalAvailability::getAvailableBeds);
+        FIELDS.put("icuBeds", HospitalAvailability::getIcuBeds);
+        FIELDS.put("ventilators", HospitalAvailability::getVentilators);
+        FIELDS.put("oxygenAvailable", HospitalAvailability::isOxygenAvailable);
+        FIELDS.put("address", HospitalAvailability::getAddress);
+        FIELDS.put("contactNumber", HospitalAvailability::getContactNumber);
+        FIELDS.put("locations", AvailabilityStreamService::locationValues);
+    }
+
+    @Autowired
+    private HospitalSnapshotCache snapshotCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${availit.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${availit.stream.max-queued-events:256}")
+    private int maxQueuedEvents;
+
+    private final Map<String, Set<Subscriber>> subscribersByCity = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService senders = Executors.newFixedThreadPool(
+        Math.max(2, Runtime.getRuntime().availableProcessors()), runnable -> {
+            Thread thread = new Thread(runnable, "availability-stream-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /** Subscribes to changes in {@code cities}, or to every change when no city is given. */
+    public SseEmitter subscribe(Collection<String> cities) {
+        // deltas only flow once the snapshot is loaded
+        snapshotCache.getVersion();
+        Set<String> keys = new LinkedHashSet<>();
+        if (cities != null) {
+            for (String city : cities) {
+                if (city != null && !city.isBlank()) {
+                    keys.add(HospitalSnapshotCache.cityKey(city.trim()));
+                }
+            }
+        }
+        if (keys.isEmpty()) {
+            keys.add(ALL_CITIES);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, keys);
+        for (String key : keys) {
+            subscribersByCity.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        }
+        subscriberCount.incrementAndGet();
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @EventListener
+    public void onSnapshotChange(HospitalSnapshotEvent event) {
+        if (event.isReload() || subscriberCount.get() == 0) {
+            return;
+        }
+        for (HospitalSnapshotEvent.Change change : event.getChanges()) {
+            HospitalAvailability previous = change.previous();
+            HospitalAvailability current = change.current();
+            Set<String> before = previous != null ? HospitalSnapshotCache.cityKeys(previous) : Set.of();
+            Set<String> after = current != null ? HospitalSnapshotCache.cityKeys(current) : Set.of();
+            Set<Subscriber> recipients = new LinkedHashSet<>();
+            addRecipients(ALL_CITIES, recipients);
+            before.forEach(key -> addRecipients(key, recipients));
+            after.forEach(key -> addRecipients(key, recipients));
+            // at most one message per type, shared by every subscriber that gets it
+            Map<AvailabilityDelta.Type, Set<ResponseBodyEmitter.DataWithMediaType>> messages = new EnumMap<>(AvailabilityDelta.Type.class);
+            for (Subscriber subscriber : recipients) {
+                boolean saw = previous != null && subscriber.follows(before);
+                boolean sees = current != null && subscriber.follows(after);
+                AvailabilityDelta.Type type = saw && sees ? AvailabilityDelta.Type.UPDATED
+                    : sees ? AvailabilityDelta.Type.CREATED
+                    : saw ? AvailabilityDelta.Type.DELETED : null;
+                if (type == null) {
+                    continue;
+                }
+                if (!messages.containsKey(type)) {
+                    messages.put(type, message(event.getVersion(), type, previous, current));
+                }
+                Set<ResponseBodyEmitter.DataWithMediaType> message = messages.get(type);
+                if (message != null) {
+                    enqueue(subscriber, message);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${availit.stream.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        if (subscriberCount.get() == 0) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("keepalive").build();
+        Set<Subscriber> all = new LinkedHashSet<>();
+        subscribersByCity.values().forEach(all::addAll);
+        all.forEach(subscriber -> enqueue(subscriber, heartbeat));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+    }
+
+    /** The {@code type} delta as an SSE event, or null when there is nothing to send. */
+    private Set<ResponseBodyEmitter.DataWithMediaType> message(long version, AvailabilityDelta.Type type,
+                                                               HospitalAvailability previous, HospitalAvailability current) {
+        AvailabilityDelta delta = switch (type) {
+            case CREATED -> toDelta(version, null, current);
+            case DELETED -> toDelta(version, previous, null);
+            case UPDATED -> toDelta(version, previous, current);
+        };
+        if (delta == null) {
+            return null;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(delta);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize availability delta for hospital {}", delta.getHospitalId(), e);
+            return null;
+        }
+        return SseEmitter.event()
+            .id(Long.toString(version))
+            .name("availability")
+            .data(json)
+            .build();
+    }
+
+    static AvailabilityDelta toDelta(long version, HospitalAvailability previous, HospitalAvailability current) {
+        if (current == null) {
+            return new AvailabilityDelta(version, AvailabilityDelta.Type.DELETED, previous.getId(), Map.of());
+        }
+        Map<String, Object> changes = new LinkedHashMap<>();
+        FIELDS.forEach((field, getter) -> {
+            Object value = getter.apply(current);
+            if (previous == null || !Objects.equals(getter.apply(previous), value)) {
+                changes.put(field, value);
+            }
+        });
+        if (previous != null && changes.isEmpty()) {
+            return null;
+        }
+        AvailabilityDelta.Type type = previous == null ? AvailabilityDelta.Type.CREATED : AvailabilityDelta.Type.UPDATED;
+        return new AvailabilityDelta(version, type, current.getId(), changes);
+    }
+
+    private static List<Map<String, Object>> locationValues(HospitalAvailability hospital) {
+        List<Map<String, Object>> values = new ArrayList<>();
+        if (hospital.getLocations() != null) {
+            for (Location location : hospital.getLocations()) {
+                Map<String, Object> value = new LinkedHashMap<>();
+                value.put("address", location.getAddress());
+                value.put("city", location.getCity());
+                value.put("state", location.getState());
+                value.put("zipCode", location.getZipCode());
+                value.put("latitude", location.getLatitude());
+                value.put("longitude", location.getLongitude());
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    private void addRecipients(String key, Set<Subscriber> recipients) {
+        Set<Subscriber> subscribers = subscribersByCity.get(key);
+        if (subscribers != null) {
+            recipients.addAll(subscribers);
+        }
+    }
+
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> message) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        if (subscriber.queued.incrementAndGet() > maxQueuedEvents) {
+            log.debug("Disconnecting slow availability subscriber after {} queued events", maxQueuedEvents);
+            subscriber.close();
+            return;
+        }
+        subscriber.queue.add(message);
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Set<ResponseBodyEmitter.DataWithMediaType> message;
+            while ((message = subscriber.queue.poll()) != null) {
+                subscriber.queued.decrementAndGet();
+                try {
+                    subscriber.emitter.send(message);
+                } catch (IOException | IllegalStateException e) {
+                    subscriber.close();
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.registered.compareAndSet(true, false)) {
+            return;
+        }
+        for (String key : subscriber.cities) {
+            subscribersByCity.computeIfPresent(key, (k, subscribers) -> {
+                subscribers.remove(subscriber);
+                return subscribers.isEmpty() ? null : subscribers;
+            });
+        }
+        subscriberCount.decrementAndGet();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> cities;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final AtomicBoolean registered = new AtomicBoolean(true);
+
+        Subscriber(SseEmitter emitter, Set<String> cities) {
+            this.emitter = emitter;
+            this.cities = Set.copyOf(cities);
+        }
+
+        /** Whether a hospital in {@code cityKeys} is in this subscriber's view. */
+        boolean follows(Set<String> cityKeys) {
+            if (cities.contains(ALL_CITIES)) {
+                return true;
+            }
+            for (String key : cityKeys) {
+                if (cities.contains(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                queue.clear();
+                unsubscribe(this);
+                emitter.complete();
+            }
+        }
+    }
+}
@@ -1,69 +1,452 @@
 package com.availit.backend.service;
 
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.datasource.ReplicaReads;
+import com.availit.backend.event.HospitalChangeEvent;
+import com.availit.backend.exception.CapacityOutOfBoundsException;
+import com.availit.backend.exception.ChangesPurgedException;
+import com.availit.backend.dto.CapacityAdjustment;
+import com.availit.backend.dto.CityCapacityStats;
+import com.availit.backend.dto.CitySuggestion;
+import com.availit.backend.dto.CursorPage;
+import com.availit.backend.dto.HospitalChanges;
+import com.availit.backend.dto.NearbyHospital;
+import com.availit.backend.index.CapacityColumnIndex;
+import com.availit.backend.index.CityCapacityAggregates;
+import com.availit.backend.index.CityDirectory;
+import com.availit.backend.index.GeoGridIndex;
+import com.availit.backend.index.TrigramNameIndex;
 import com.availit.backend.model.HospitalAvailability;
 import com.availit.backend.repository.HospitalAvailabilityRepository;
+import com.availit.backend.repository.HospitalBatchWriter;
+import com.availit.backend.repository.HospitalChangeLog;
+import com.availit.backend.repository.HospitalCityExitRepository;
+import com.availit.backend.repository.HospitalCursor;
+import com.availit.backend.repository.HospitalTombstoneRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class HospitalAvailabilityService {
 
+    private static final Logger log = LoggerFactory.getLogger(HospitalAvailabilityService.class);
+
     @Autowired
     private HospitalAvailabilityRepository repository;
 
+    @Autowired
+    private HospitalSnapshotCache snapshotCache;
+
+    @Autowired
+    private CapacityColumnIndex capacityIndex;
+
+    @Autowired
+    private GeoGridIndex geoIndex;
+
+    @Autowired
+    private TrigramNameIndex nameIndex;
+
+    @Autowired
+    private CityDirectory cityDirectory;
+
+    @Autowired
+    private CityCapacityAggregates cityAggregates;
+
+    @Autowired
+    private HospitalBatchWriter batchWriter;
+
+    @Autowired
+    private HospitalChangeLog changeLog;
+
+    @Autowired
+    private HospitalTombstoneRepository tombstoneRepository;
+
+    @Autowired
+    private HospitalCityExitRepository cityExitRepository;
+
+    @Value("${availit.changes.removal-retention-days:30}")
+    private int removalRetentionDays;
+
+    @Autowired
+    private ReplicaReads replicaReads;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     public List<HospitalAvailability> getAllHospitals() {
-        return repository.findAll();
+        return snapshotCache.getAllHospitals();
     }
 
     public Page<HospitalAvailability> getAllHospitals(Pageable pageable) {
-        return repository.findAll(pageable);
+        return replicaReads.execute(() -> {
+            Page<Long> ids = repository.findIdPage(pageable);
+            if (ids.isEmpty()) {
+                return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+            }
+            Map<Long, HospitalAvailability> hospitals = new HashMap<>();
+            repository.findByIdIn(ids.getContent()).forEach(h -> hospitals.put(h.getId(), h));
+            return ids.map(hospitals::get);
+        });
     }
 
+    /**
+     * Keyset listing: seeks past {@code after} instead of counting and skipping rows, so every page
+     * costs the same. The ordering comes from the cursor when one is given.
+     */
+    public CursorPage<HospitalAvailability> getHospitalPage(HospitalCursor.Sort sort, boolean descending, String after,
+                                                            int size, boolean includeTotal) {
+        return replicaReads.execute(() -> readHospitalPage(sort, descending, after, size, includeTotal));
+    }
+
+    private CursorPage<HospitalAvailability> readHospitalPage(HospitalCursor.Sort sort, boolean descending, String after,
+                                                              int size, boolean includeTotal) {
+        HospitalCursor cursor = after != null && !after.isBlank() ? HospitalCursor.decode(after) : null;
+        if (cursor != null) {
+            sort = cursor.sort();
+            descending = cursor.descending();
+        }
+        List<HospitalCursor> positions = repository.findKeysetPage(sort, descending, cursor, size + 1);
+        boolean hasMore = positions.size() > size;
+        if (hasMore) {
+            positions = positions.subList(0, size);
+        }
+        List<Long> ids = positions.stream().map(HospitalCursor::id).toList();
+        Map<Long, HospitalAvailability> hospitals = new HashMap<>();
+        if (!ids.isEmpty()) {
+            repository.findByIdIn(ids).forEach(h -> hospitals.put(h.getId(), h));
+        }
+        List<HospitalAvailability> content = ids.stream().map(hospitals::get).filter(Objects::nonNull).toList();
+        String next = hasMore ? positions.get(positions.size() - 1).encode() : null;
+        return new CursorPage<>(content, next, includeTotal ? repository.count() : null);
+    }
+
+    /**
+     * Hospitals written or deleted after change version {@code since}, oldest first and at most
+     * {@code limit} of them; pass the returned version back as {@code since} for the next page.
+     * Deletions are reported for every city, since a tombstone does not keep the hospital's locations;
+     * with a city, hospitals that left it are reported as deleted too.
+     *
+     * @throws ChangesPurgedException if removals after {@code since} may have been purged already
+     */
+    public HospitalChanges getChanges(long since, String city, int limit) {
+        return replicaReads.execute(() -> {
+            if (since > 0) {
+                long purgedThrough = changeLog.purgedThrough();
+                if (since < purgedThrough) {
+                    throw new ChangesPurgedException(since, purgedThrough);
+                }
+            }
+            Limit window = Limit.of(limit + 1);
+            List<Object[]> changed = city == null ? repository.findChangedSince(since, window)
+                : repository.findChangedSinceInCity(since, city, window);
+            // (hospital id, change version) of every removal from this feed, in version order
+            List<long[]> removals = new ArrayList<>();
+            tombstoneRepository.findByChangeVersionGreaterThanOrderByChangeVersion(since, window)
+                .forEach(t -> removals.add(new long[] {t.getHospitalId(), t.getChangeVersion()}));
+            if (city != null) {
+                cityExitRepository.findLeavingCitySince(city, since, window)
+                    .forEach(e -> removals.add(new long[] {e.getHospitalId(), e.getChangeVersion()}));
+                removals.sort(Comparator.comparingLong(r -> r[1]));
+            }
+            // the versions come from the id queries: a row rewritten since then must not move the watermark past others
+            List<Long> changedIds = new ArrayList<>();
+            List<Long> deleted = new ArrayList<>();
+            long version = since;
+            int c = 0;
+            int d = 0;
+            while (changedIds.size() + deleted.size() < limit && (c < changed.size() || d < removals.size())) {
+                long changedVersion = c < changed.size() ? ((Number) changed.get(c)[1]).longValue() : Long.MAX_VALUE;
+                long deletedVersion = d < removals.size() ? removals.get(d)[1] : Long.MAX_VALUE;
+                if (changedVersion < deletedVersion) {
+                    changedIds.add(((Number) changed.get(c++)[0]).longValue());
+                    version = changedVersion;
+                } else {
+                    deleted.add(removals.get(d++)[0]);
+                    version = deletedVersion;
+                }
+            }
+            Map<Long, HospitalAvailability> hospitals = new HashMap<>();
+            if (!changedIds.isEmpty()) {
+                repository.findByIdIn(changedIds).forEach(h -> hospitals.put(h.getId(), h));
+            }
+            // a hospital deleted in between is left out; its tombstone follows
+            List<HospitalAvailability> content = changedIds.stream().map(hospitals::get).filter(Objects::nonNull).toList();
+            return new HospitalChanges(content, deleted, version, c < changed.size() || d < removals.size());
+        });
+    }
+
+    @Transactional
     public HospitalAvailability createHospital(HospitalAvailability hospital) {
-        return repository.save(hospital);
+        hospital.setVersion(null);
+        HospitalAvailability saved = repository.save(hospital);
+        publishSaved(List.of(saved));
+        return saved;
     }
 
     public HospitalAvailability getHospitalById(Long id) {
-        Optional<HospitalAvailability> hospital = repository.findById(id);
-        return hospital.orElse(null);
+        return replicaReads.execute(() -> repository.findById(id).orElse(null));
     }
 
+    @Transactional
     public HospitalAvailability updateHospital(Long id, HospitalAvailability hospitalDetails) {
         Optional<HospitalAvailability> hospital = repository.findById(id);
         if (hospital.isPresent()) {
             HospitalAvailability existingHospital = hospital.get();
+            if (hospitalDetails.getVersion() != null && !hospitalDetails.getVersion().equals(existingHospital.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(HospitalAvailability.class, id);
+            }
             existingHospital.setHospitalName(hospitalDetails.getHospitalName());
             existingHospital.setTotalBeds(hospitalDetails.getTotalBeds());
             existingHospital.setAvailableBeds(hospitalDetails.getAvailableBeds());
             existingHospital.setOxygenAvailable(hospitalDetails.isOxygenAvailable());
-            return repository.save(existingHospital);
+            HospitalAvailability saved = repository.save(existingHospital);
+            publishSaved(List.of(saved));
+            return saved;
         }
         return null;
     }
 
+    @Transactional
+    public HospitalAvailability adjustCapacity(Long id, CapacityAdjustment adjustment) {
+        int updated = repository.adjustCapacity(id, adjustment.getAvailableBeds(), adjustment.getIcuBeds(), adjustment.getVentilators());
+        if (updated == 0) {
+            if (!repository.existsById(id)) {
+                return null;
+            }
+            throw new CapacityOutOfBoundsException(id);
+        }
+        // the native update leaves the second-level cache alone, so only this hospital's entry goes
+        entityManagerFactory.getCache().evict(HospitalAvailability.class, id);
+        HospitalAvailability adjusted = repository.findById(id).orElseThrow();
+        publishSaved(List.of(adjusted));
+        return adjusted;
+    }
+
+    @Transactional
     public boolean deleteHospital(Long id) {
         Optional<HospitalAvailability> hospital = repository.findById(id);
         if (hospital.isPresent()) {
-            repository.deleteById(id);
+            repository.delete(hospital.get());
+            changeLog.recordDeleted(id);
+            eventPublisher.publishEvent(HospitalChangeEvent.deleted(id));
             return true;
         }
         return false;
     }
 
     public List<HospitalAvailability> getHospitalsByCity(String city) {
-        return repository.findByLocationCityIgnoreCase(city);
+        return snapshotCache.getHospitalsByCity(city);
+    }
+
+    public List<HospitalAvailability> filterHospitals(String city, int minAvailableBeds, int minIcuBeds,
+                                                      int minVentilators, Boolean oxygenAvailable, int limit) {
+        long[] ids = capacityIndex.filter(city, minAvailableBeds, minIcuBeds, minVentilators, oxygenAvailable);
+        List<HospitalAvailability> hospitals = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            HospitalAvailability hospital = snapshotCache.getHospital(id);
+            if (hospital != null) {
+                hospitals.add(hospital);
+            }
+        }
+        hospitals.sort(Comparator.comparingInt(HospitalAvailability::getAvailableBeds).reversed()
+            .thenComparing(HospitalAvailability::getId));
+        return hospitals.size() > limit ? hospitals.subList(0, limit) : hospitals;
+    }
+
+    public List<NearbyHospital> findNearbyHospitals(double lat, double lon, double radiusKm, int minBeds, int limit) {
+        return geoIndex.nearest(lat, lon, radiusKm, minBeds, limit);
+    }
+
+    public List<HospitalAvailability> searchHospitals(String query, int limit) {
+        return nameIndex.search(query, limit);
     }
 
     public List<String> getAllCities() {
-        return repository.findDistinctCities();
+        return cityDirectory.cityNames();
+    }
+
+    public List<CitySuggestion> suggestCities(String prefix, int limit) {
+        return cityDirectory.suggest(prefix, limit);
+    }
+
+    public List<CityCapacityStats> getCityStats() {
+        return cityAggregates.stats();
+    }
+
+    public CityCapacityStats getCityStats(String city) {
+        return cityAggregates.stats(city);
+    }
+
+    /**
+     * Recomputes the per-city totals in the database and lets {@link CityCapacityAggregates} correct
+     * any drift. The query runs before taking the snapshot lock so writers are not held up by it.
+     */
+    @Scheduled(initialDelayString = "${availit.city-stats.reconcile-ms:600000}",
+               fixedDelayString = "${availit.city-stats.reconcile-ms:600000}")
+    public void reconcileCityStats() {
+        if (!cityAggregates.isBuilt()) {
+            return;
+        }
+        Map<String, long[]> sums = new HashMap<>();
+        Map<String, String> names = new HashMap<>();
+        Set<String> counted = new HashSet<>();
+        for (Object[] row : repository.findCapacityByCity()) {
+            String city = (String) row[6];
+            String key = HospitalSnapshotCache.cityKey(city);
+            // a hospital with two locations in one city counts once
+            if (!counted.add(row[0] + "/" + key)) {
+                continue;
+            }
+            names.putIfAbsent(key, city);
+            long[] totals = sums.computeIfAbsent(key, k -> new long[6]);
+            totals[0]++;
+            totals[1] += ((Number) row[1]).longValue();
+            totals[2] += ((Number) row[2]).longValue();
+            totals[3] += ((Number) row[3]).longValue();
+            totals[4] += ((Number) row[4]).longValue();
+            totals[5] += Boolean.TRUE.equals(row[5]) ? 1 : 0;
+        }
+        Map<String, CityCapacityStats> expected = new HashMap<>();
+        sums.forEach((key, t) -> expected.put(key, new CityCapacityStats(names.get(key), t[0], t[1], t[2], t[3], t[4], t[5])));
+        snapshotCache.withCurrentHospitals((version, hospitals) -> cityAggregates.reconcile(expected));
     }
 
+    /**
+     * Drops tombstones and city exits older than the retention period. Clients whose watermark
+     * predates the newest one dropped are told to sync again from the start.
+     */
+    @Scheduled(cron = "${availit.changes.purge-cron:0 45 3 * * *}")
+    public void purgeOldRemovals() {
+        int purged = changeLog.purgeRemovalsBefore(Instant.now().minus(Duration.ofDays(removalRetentionDays)));
+        if (purged > 0) {
+            log.info("Purged {} change feed removals older than {} days", purged, removalRetentionDays);
+        }
+    }
+
+    @Transactional
     public List<HospitalAvailability> createHospitals(List<HospitalAvailability> hospitals) {
-        return repository.saveAll(hospitals);
+        hospitals.forEach(h -> h.setVersion(null));
+        List<HospitalAvailability> saved = repository.saveAll(hospitals);
+        publishSaved(saved);
+        return saved;
+    }
+
+    /**
+     * Upserts hospitals read from a live source, keyed by {@code externalSourceId}. Only hospitals
+     * whose values differ from the snapshot are written, so an unchanged feed costs no database
+     * round trip. Hospitals of the source that are missing from a non-empty feed are removed, since
+     * the portal no longer lists them; an empty feed is taken as a broken page and removes nothing.
+     * Returns the number of hospitals inserted, updated or removed.
+     */
+    @Transactional
+    public int syncExternalHospitals(String sourceId, List<HospitalAvailability> incoming) {
+        String prefix = sourceId + ":";
+        Map<String, HospitalAvailability> current = new HashMap<>();
+        for (HospitalAvailability hospital : snapshotCache.getAllHospitals()) {
+            String externalId = hospital.getExternalSourceId();
+            if (externalId != null && externalId.startsWith(prefix)) {
+                current.put(externalId, hospital);
+            }
+        }
+        Map<Long, HospitalAvailability> changed = new HashMap<>();
+        Map<String, HospitalAvailability> created = new LinkedHashMap<>();
+        for (HospitalAvailability hospital : incoming) {
+            HospitalAvailability existing = current.get(hospital.getExternalSourceId());
+            if (existing == null) {
+                created.put(hospital.getExternalSourceId(), hospital);
+            } else if (!sameLiveValues(existing, hospital)) {
+                changed.put(existing.getId(), hospital);
+            }
+        }
+        List<HospitalAvailability> saved = new ArrayList<>();
+        if (!changed.isEmpty()) {
+            List<HospitalAvailability> managed = repository.findByIdIn(changed.keySet());
+            for (HospitalAvailability hospital : managed) {
+                copyLiveValues(changed.get(hospital.getId()), hospital);
+            }
+            saved.addAll(repository.saveAll(managed));
+        }
+        if (!created.isEmpty()) {
+            List<Long> ids = batchWriter.insert(new ArrayList<>(created.values()));
+            saved.addAll(repository.findByIdIn(ids));
+        }
+        if (!saved.isEmpty()) {
+            publishSaved(saved);
+        }
+        List<Long> removed = new ArrayList<>();
+        if (!incoming.isEmpty()) {
+            Set<String> listed = new HashSet<>();
+            incoming.forEach(h -> listed.add(h.getExternalSourceId()));
+            current.forEach((externalId, hospital) -> {
+                if (!listed.contains(externalId)) {
+                    removed.add(hospital.getId());
+                }
+            });
+        }
+        if (!removed.isEmpty()) {
+            repository.deleteAll(repository.findByIdIn(removed));
+            removed.forEach(changeLog::recordDeleted);
+            eventPublisher.publishEvent(HospitalChangeEvent.deleted(removed));
+        }
+        return saved.size() + removed.size();
+    }
+
+    private static boolean sameLiveValues(HospitalAvailability a, HospitalAvailability b) {
+        return Objects.equals(a.getHospitalName(), b.getHospitalName())
+            && a.getTotalBeds() == b.getTotalBeds()
+            && a.getAvailableBeds() == b.getAvailableBeds()
+            && a.getIcuBeds() == b.getIcuBeds()
+            && a.getVentilators() == b.getVentilators()
+            && a.isOxygenAvailable() == b.isOxygenAvailable()
+            && a.isCapacityReported() == b.isCapacityReported()
+            && Objects.equals(a.getAddress(), b.getAddress())
+            && Objects.equals(a.getContactNumber(), b.getContactNumber());
+    }
+
+    private static void copyLiveValues(HospitalAvailability source, HospitalAvailability target) {
+        target.setHospitalName(source.getHospitalName());
+        target.setTotalBeds(source.getTotalBeds());
+        target.setAvailableBeds(source.getAvailableBeds());
+        target.setIcuBeds(source.getIcuBeds());
+        target.setVentilators(source.getVentilators());
+        target.setOxygenAvailable(source.isOxygenAvailable());
+        target.setCapacityReported(source.isCapacityReported());
+        target.setAddress(source.getAddress());
+        target.setContactNumber(source.getContactNumber());
+    }
+
+    private void publishSaved(List<HospitalAvailability> saved) {
+        saved.forEach(h -> Hibernate.initialize(h.getLocations()));
+        changeLog.recordSaved(saved);
+        eventPublisher.publishEvent(HospitalChangeEvent.saved(saved));
     }
 }
@@ -0,0 +1,182 @@
+package com.availit.backend.service;
+
+import com.availit.backend.dto.BulkIngestReport;
+import com.availit.backend.event.HospitalChangeEvent;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import com.availit.backend.repository.HospitalBatchWriter;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streams a JSON array of hospitals from the request body and writes it in chunks. Each chunk is
+ * validated, inserted through {@link HospitalBatchWriter} and committed on its own, so heap use is
+ * bounded by the chunk size and a failing chunk does not undo the ones before it.
+ */
+@Service
+public class HospitalBulkIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(HospitalBulkIngestService.class);
+    private static final int MAX_REPORTED_REJECTIONS = 20;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private HospitalBatchWriter batchWriter;
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${availit.bulk.chunk-size:5000}")
+    private int chunkSize;
+
+    /**
+     * Ingests the array in {@code body}. Elements that are not hospital objects are rejected like
+     * invalid hospitals. When the JSON itself breaks off, the hospitals read up to that point are
+     * still written and the report says at which element reading stopped.
+     */
+    public BulkIngestReport ingest(InputStream body) throws IOException {
+        BulkIngestReport report = new BulkIngestReport();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of hospitals");
+            }
+            List<Element> chunk = new ArrayList<>(chunkSize);
+            int index = 0;
+            int firstIndex = 0;
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (token == null) {
+                        throw new JsonParseException(parser, "Unexpected end of input inside the array");
+                    }
+                    chunk.add(read(parser, token));
+                    index++;
+                    if (chunk.size() == chunkSize) {
+                        report.add(writeChunk(report.getChunks().size(), firstIndex, chunk));
+                        chunk.clear();
+                        firstIndex = index;
+                    }
+                }
+            } catch (JsonParseException e) {
+                report.stop(index, e.getOriginalMessage());
+            }
+            if (!chunk.isEmpty()) {
+                report.add(writeChunk(report.getChunks().size(), firstIndex, chunk));
+            }
+        }
+        return report;
+    }
+
+    // Binding goes through a tree, so an element of the wrong shape leaves the parser at its end.
+    private Element read(JsonParser parser, JsonToken token) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return Element.rejected("not a JSON object");
+        }
+        JsonNode node = parser.readValueAsTree();
+        try {
+            return new Element(objectMapper.treeToValue(node, HospitalAvailability.class), null);
+        } catch (JsonProcessingException e) {
+            return Element.rejected(e.getOriginalMessage());
+        }
+    }
+
+    private BulkIngestReport.ChunkResult writeChunk(int number, int firstIndex, List<Element> elements) {
+        BulkIngestReport.ChunkResult result = new BulkIngestReport.ChunkResult(number, firstIndex, elements.size());
+        List<HospitalAvailability> valid = new ArrayList<>(elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            Element element = elements.get(i);
+            String problem = element.problem() != null ? element.problem() : validate(element.hospital());
+            if (problem == null) {
+                valid.add(element.hospital());
+            } else {
+                result.reject(firstIndex + i, problem, MAX_REPORTED_REJECTIONS);
+            }
+        }
+        if (valid.isEmpty()) {
+            return result;
+        }
+        try {
+            List<Long> ids = new TransactionTemplate(transactionManager).execute(status -> batchWriter.insert(valid));
+            result.setInserted(ids.size());
+            publishInserted(ids);
+        } catch (RuntimeException e) {
+            log.warn("Bulk ingest chunk {} starting at {} failed", number, firstIndex, e);
+            result.setError(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        return result;
+    }
+
+    private void publishInserted(List<Long> ids) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<HospitalAvailability> inserted = readOnly.execute(status -> repository.findByIdIn(ids));
+        // keep the caller's persistence context from growing with every chunk
+        entityManager.clear();
+        eventPublisher.publishEvent(HospitalChangeEvent.saved(inserted));
+    }
+
+    private String validate(HospitalAvailability hospital) {
+        StringBuilder problems = new StringBuilder();
+        append(problems, validator.validate(hospital, HospitalAvailability.Submitted.class));
+        if (hospital.getLocations() != null) {
+            for (Location location : hospital.getLocations()) {
+                append(problems, validator.validate(location));
+            }
+        }
+        return problems.length() == 0 ? null : problems.toString();
+    }
+
+    private record Element(HospitalAvailability hospital, String problem) {
+        static Element rejected(String problem) {
+            return new Element(null, problem);
+        }
+    }
+
+    private static <T> void append(StringBuilder problems, Set<ConstraintViolation<T>> violations) {
+        for (ConstraintViolation<T> violation : violations) {
+            if (problems.length() > 0) {
+                problems.append("; ");
+            }
+            problems.append(violation.getPropertyPath()).append(' ').append(violation.getMessage());
+        }
+    }
+}
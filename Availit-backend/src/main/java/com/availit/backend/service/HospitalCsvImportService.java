@@ -0,0 +1,496 @@
+package com.availit.backend.service;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.dto.ImportReport;
+import com.availit.backend.event.HospitalChangeEvent;
+import com.availit.backend.ingest.CsvRecordReader;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import com.availit.backend.repository.HospitalBatchWriter;
+import com.availit.backend.repository.HospitalChangeLog;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Upserts hospitals from a CSV file such as a government free-bed report, reading it one record at
+ * a time. A row updates the hospital with the same external source id or, failing that, the same
+ * name and address compared without case, spacing or punctuation; anything else is inserted. Rows
+ * that match a hospital without changing it are not written. Each chunk of rows is committed on its
+ * own, updates through dirty checking and inserts through {@link HospitalBatchWriter}.
+ * <p>
+ * Columns the file does not have, and empty cells, leave the stored value alone. The layout written
+ * by {@link HospitalExportService} is accepted as is; its id column is ignored.
+ */
+@Service
+public class HospitalCsvImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(HospitalCsvImportService.class);
+    private static final int MAX_REPORTED_REJECTIONS = 50;
+
+    enum Column {
+        HOSPITAL_NAME("hospital_name", "name", "hospital"),
+        TOTAL_BEDS("total_beds", "beds"),
+        AVAILABLE_BEDS("available_beds", "vacant_beds", "vacant"),
+        ICU_BEDS("icu_beds", "icu"),
+        VENTILATORS("ventilators", "ventilator"),
+        OXYGEN_AVAILABLE("oxygen_available", "oxygen"),
+        ADDRESS("address"),
+        CONTACT_NUMBER("contact_number", "contact", "phone"),
+        EXTERNAL_SOURCE_ID("external_source_id", "external_id", "source_id"),
+        CITY("city"),
+        STATE("state"),
+        ZIP_CODE("zip_code", "zip", "pincode", "postal_code"),
+        LATITUDE("latitude", "lat"),
+        LONGITUDE("longitude", "lng", "lon");
+
+        private final String label;
+        private final Set<String> headers;
+
+        Column(String label, String... aliases) {
+            this.label = label;
+            this.headers = new HashSet<>();
+            headers.add(squash(label));
+            for (String alias : aliases) {
+                headers.add(squash(alias));
+            }
+        }
+
+        static Column of(String header) {
+            String squashed = squash(header);
+            for (Column column : values()) {
+                if (column.headers.contains(squashed)) {
+                    return column;
+                }
+            }
+            return null;
+        }
+
+        private static String squash(String header) {
+            return header.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        }
+    }
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private HospitalBatchWriter batchWriter;
+
+    @Autowired
+    private HospitalChangeLog changeLog;
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private HospitalSnapshotCache snapshotCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${availit.bulk.chunk-size:5000}")
+    private int chunkSize;
+
+    /**
+     * Imports {@code csv}, whose first record names the columns.
+     *
+     * @throws IllegalArgumentException if the header has neither a hospital name nor an external source id column
+     */
+    public ImportReport importCsv(Reader csv) throws IOException {
+        ImportReport report = new ImportReport();
+        try (CsvRecordReader reader = new CsvRecordReader(csv)) {
+            Column[] columns = columns(reader.next());
+            KnownHospitals known = new KnownHospitals(snapshotCache.getAllHospitals());
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            List<String> record;
+            while ((record = reader.next()) != null) {
+                if (record.stream().allMatch(String::isBlank)) {
+                    continue;
+                }
+                try {
+                    chunk.add(ImportRow.parse(reader.getRecordLine(), columns, record));
+                } catch (IllegalArgumentException e) {
+                    report.reject(reader.getRecordLine(), e.getMessage(), MAX_REPORTED_REJECTIONS);
+                    continue;
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, known, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, known, report);
+            }
+        }
+        return report;
+    }
+
+    private static Column[] columns(List<String> header) {
+        if (header == null) {
+            throw new IllegalArgumentException("The file is empty");
+        }
+        Column[] columns = new Column[header.size()];
+        boolean identified = false;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Column.of(header.get(i));
+            identified |= columns[i] == Column.HOSPITAL_NAME || columns[i] == Column.EXTERNAL_SOURCE_ID;
+        }
+        if (!identified) {
+            throw new IllegalArgumentException("Expected a header row with a hospital_name or external_source_id column");
+        }
+        return columns;
+    }
+
+    private void writeChunk(List<ImportRow> rows, KnownHospitals known, ImportReport report) {
+        Map<Long, ImportRow> updates = new LinkedHashMap<>();
+        Map<Long, Integer> matchedLines = new HashMap<>();
+        Map<String, Integer> insertedByKey = new HashMap<>();
+        Map<String, Integer> insertedByExternalId = new HashMap<>();
+        List<HospitalAvailability> inserts = new ArrayList<>();
+        for (ImportRow row : rows) {
+            HospitalAvailability existing = known.match(row);
+            if (existing == null) {
+                String key = row.naturalKey();
+                Integer first = key == null ? null : insertedByKey.get(key);
+                if (first == null && row.externalSourceId != null) {
+                    first = insertedByExternalId.get(row.externalSourceId);
+                }
+                HospitalAvailability created = new HospitalAvailability();
+                row.applyTo(created);
+                String problem;
+                if (row.hospitalName == null) {
+                    problem = "hospital_name is required for a new hospital";
+                } else if (key == null && row.externalSourceId == null) {
+                    problem = "address or external_source_id is required to match the hospital";
+                } else if (first != null) {
+                    problem = "same hospital as line " + first;
+                } else {
+                    problem = validate(created);
+                }
+                if (problem != null) {
+                    report.reject(row.line, problem, MAX_REPORTED_REJECTIONS);
+                    continue;
+                }
+                if (key != null) {
+                    insertedByKey.put(key, row.line);
+                }
+                if (row.externalSourceId != null) {
+                    insertedByExternalId.put(row.externalSourceId, row.line);
+                }
+                inserts.add(created);
+            } else {
+                Integer first = matchedLines.putIfAbsent(existing.getId(), row.line);
+                if (first != null) {
+                    report.reject(row.line, "same hospital as line " + first, MAX_REPORTED_REJECTIONS);
+                    continue;
+                }
+                HospitalAvailability merged = copy(existing);
+                if (!row.applyTo(merged)) {
+                    report.addUnchanged(1);
+                    continue;
+                }
+                String problem = validate(merged);
+                if (problem != null) {
+                    report.reject(row.line, problem, MAX_REPORTED_REJECTIONS);
+                    continue;
+                }
+                updates.put(existing.getId(), row);
+            }
+        }
+        if (!updates.isEmpty() || !inserts.isEmpty()) {
+            write(rows.get(0).line, updates, inserts, known, report);
+        }
+    }
+
+    private void write(int firstLine, Map<Long, ImportRow> updates, List<HospitalAvailability> inserts,
+                       KnownHospitals known, ImportReport report) {
+        List<HospitalAvailability> saved = new ArrayList<>();
+        try {
+            List<Long> ids = new TransactionTemplate(transactionManager).execute(status -> {
+                List<HospitalAvailability> managed = updates.isEmpty() ? List.of() : repository.findByIdIn(updates.keySet());
+                for (HospitalAvailability hospital : managed) {
+                    updates.get(hospital.getId()).applyTo(hospital);
+                }
+                changeLog.recordSaved(managed);
+                saved.addAll(managed);
+                return inserts.isEmpty() ? List.of() : batchWriter.insert(inserts);
+            });
+            for (HospitalAvailability hospital : saved) {
+                updates.remove(hospital.getId());
+            }
+            for (ImportRow gone : updates.values()) {
+                report.reject(gone.line, "the matching hospital was deleted during the import", MAX_REPORTED_REJECTIONS);
+            }
+            report.addUpdated(saved.size());
+            report.addInserted(ids.size());
+            if (!ids.isEmpty()) {
+                TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+                readOnly.setReadOnly(true);
+                saved.addAll(readOnly.execute(status -> repository.findByIdIn(ids)));
+            }
+        } catch (RuntimeException e) {
+            log.warn("CSV import of the rows from line {} failed", firstLine, e);
+            report.fail(firstLine, updates.size() + inserts.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            return;
+        } finally {
+            // keep the caller's persistence context from growing with every chunk
+            entityManager.clear();
+        }
+        saved.forEach(known::add);
+        eventPublisher.publishEvent(HospitalChangeEvent.saved(saved));
+    }
+
+    private String validate(HospitalAvailability hospital) {
+        StringBuilder problems = new StringBuilder();
+        append(problems, validator.validate(hospital, HospitalAvailability.Submitted.class));
+        if (hospital.getLocations() != null) {
+            for (Location location : hospital.getLocations()) {
+                append(problems, validator.validate(location));
+            }
+        }
+        return problems.length() == 0 ? null : problems.toString();
+    }
+
+    private static <T> void append(StringBuilder problems, Set<ConstraintViolation<T>> violations) {
+        for (ConstraintViolation<T> violation : violations) {
+            if (problems.length() > 0) {
+                problems.append("; ");
+            }
+            problems.append(violation.getPropertyPath()).append(' ').append(violation.getMessage());
+        }
+    }
+
+    private static HospitalAvailability copy(HospitalAvailability source) {
+        HospitalAvailability copy = new HospitalAvailability(source.getHospitalName(), source.getTotalBeds(),
+            source.getAvailableBeds(), source.isOxygenAvailable(), source.getAddress(), source.getContactNumber(),
+            source.getIcuBeds(), source.getVentilators());
+        copy.setExternalSourceId(source.getExternalSourceId());
+        List<Location> locations = new ArrayList<>();
+        if (source.getLocations() != null) {
+            for (Location location : source.getLocations()) {
+                Location l = new Location();
+                l.setAddress(location.getAddress());
+                l.setCity(location.getCity());
+                l.setState(location.getState());
+                l.setZipCode(location.getZipCode());
+                l.setLatitude(location.getLatitude());
+                l.setLongitude(location.getLongitude());
+                locations.add(l);
+            }
+        }
+        copy.setLocations(locations);
+        return copy;
+    }
+
+    /** Hospital name and address with case, spacing and punctuation removed, or null without both. */
+    static String naturalKey(String hospitalName, String address) {
+        if (hospitalName == null || address == null) {
+            return null;
+        }
+        return normalize(hospitalName) + '|' + normalize(address);
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    /** Every hospital the import can match, indexed by external source id and by natural key. */
+    private static final class KnownHospitals {
+        private final Map<Long, HospitalAvailability> byId = new HashMap<>();
+        private final Map<String, HospitalAvailability> byExternalId = new HashMap<>();
+        private final Map<String, HospitalAvailability> byNaturalKey = new HashMap<>();
+
+        KnownHospitals(Collection<HospitalAvailability> hospitals) {
+            hospitals.forEach(this::add);
+        }
+
+        void add(HospitalAvailability hospital) {
+            HospitalAvailability previous = byId.put(hospital.getId(), hospital);
+            if (previous != null) {
+                byExternalId.remove(previous.getExternalSourceId(), previous);
+                byNaturalKey.remove(naturalKey(previous.getHospitalName(), previous.getAddress()), previous);
+            }
+            if (hospital.getExternalSourceId() != null) {
+                byExternalId.put(hospital.getExternalSourceId(), hospital);
+            }
+            String key = naturalKey(hospital.getHospitalName(), hospital.getAddress());
+            if (key != null) {
+                byNaturalKey.putIfAbsent(key, hospital);
+            }
+        }
+
+        HospitalAvailability match(ImportRow row) {
+            if (row.externalSourceId != null) {
+                HospitalAvailability hospital = byExternalId.get(row.externalSourceId);
+                if (hospital != null) {
+                    return hospital;
+                }
+            }
+            HospitalAvailability hospital = row.naturalKey() == null ? null : byNaturalKey.get(row.naturalKey());
+            // a name and address shared with a hospital from another source is a different hospital
+            if (hospital == null || row.externalSourceId != null && hospital.getExternalSourceId() != null) {
+                return null;
+            }
+            return hospital;
+        }
+    }
+
+    /** One parsed record; null fields were not in the file or were empty. */
+    private static final class ImportRow {
+        final int line;
+        String hospitalName;
+        Integer totalBeds;
+        Integer availableBeds;
+        Integer icuBeds;
+        Integer ventilators;
+        Boolean oxygenAvailable;
+        String address;
+        String contactNumber;
+        String externalSourceId;
+        String city;
+        String state;
+        String zipCode;
+        Double latitude;
+        Double longitude;
+
+        private ImportRow(int line) {
+            this.line = line;
+        }
+
+        static ImportRow parse(int line, Column[] columns, List<String> record) {
+            ImportRow row = new ImportRow(line);
+            for (int i = 0; i < columns.length && i < record.size(); i++) {
+                String value = record.get(i).trim();
+                if (columns[i] == null || value.isEmpty()) {
+                    continue;
+                }
+                switch (columns[i]) {
+                    case HOSPITAL_NAME -> row.hospitalName = value;
+                    case TOTAL_BEDS -> row.totalBeds = parseInt(columns[i], value);
+                    case AVAILABLE_BEDS -> row.availableBeds = parseInt(columns[i], value);
+                    case ICU_BEDS -> row.icuBeds = parseInt(columns[i], value);
+                    case VENTILATORS -> row.ventilators = parseInt(columns[i], value);
+                    case OXYGEN_AVAILABLE -> row.oxygenAvailable = parseBoolean(columns[i], value);
+                    case ADDRESS -> row.address = value;
+                    case CONTACT_NUMBER -> row.contactNumber = value;
+                    case EXTERNAL_SOURCE_ID -> row.externalSourceId = value;
+                    case CITY -> row.city = value;
+                    case STATE -> row.state = value;
+                    case ZIP_CODE -> row.zipCode = value;
+                    case LATITUDE -> row.latitude = parseDouble(columns[i], value);
+                    case LONGITUDE -> row.longitude = parseDouble(columns[i], value);
+                }
+            }
+            return row;
+        }
+
+        String naturalKey() {
+            return HospitalCsvImportService.naturalKey(hospitalName, address);
+        }
+
+        /** Copies the values this row has onto {@code target} and returns whether any of them differed. */
+        boolean applyTo(HospitalAvailability target) {
+            boolean changed = setText(hospitalName, target.getHospitalName(), target::setHospitalName);
+            changed |= set(totalBeds, target.getTotalBeds(), target::setTotalBeds);
+            changed |= set(availableBeds, target.getAvailableBeds(), target::setAvailableBeds);
+            changed |= set(icuBeds, target.getIcuBeds(), target::setIcuBeds);
+            changed |= set(ventilators, target.getVentilators(), target::setVentilators);
+            changed |= set(oxygenAvailable, target.isOxygenAvailable(), target::setOxygenAvailable);
+            changed |= setText(address, target.getAddress(), target::setAddress);
+            changed |= set(contactNumber, target.getContactNumber(), target::setContactNumber);
+            changed |= set(externalSourceId, target.getExternalSourceId(), target::setExternalSourceId);
+            if (city == null && state == null && zipCode == null && latitude == null && longitude == null) {
+                return changed;
+            }
+            // the file has one location per hospital; it describes the first one
+            if (target.getLocations() == null) {
+                target.setLocations(new ArrayList<>());
+            }
+            if (target.getLocations().isEmpty()) {
+                Location location = new Location();
+                location.setAddress(target.getAddress());
+                target.getLocations().add(location);
+                changed = true;
+            }
+            Location location = target.getLocations().get(0);
+            changed |= set(city, location.getCity(), location::setCity);
+            changed |= set(state, location.getState(), location::setState);
+            changed |= set(zipCode, location.getZipCode(), location::setZipCode);
+            changed |= set(latitude, location.getLatitude(), location::setLatitude);
+            changed |= set(longitude, location.getLongitude(), location::setLongitude);
+            return changed;
+        }
+
+        /** Like {@link #set}, but a name or address that only differs in case, spacing or punctuation is kept. */
+        private static boolean setText(String value, String current, Consumer<String> setter) {
+            return current == null || value != null && !normalize(value).equals(normalize(current))
+                ? set(value, current, setter) : false;
+        }
+
+        private static <T> boolean set(T value, T current, Consumer<T> setter) {
+            if (value == null || value.equals(current)) {
+                return false;
+            }
+            setter.accept(value);
+            return true;
+        }
+
+        private static int parseInt(Column column, String value) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column.label + " is not a whole number: " + value);
+            }
+        }
+
+        private static double parseDouble(Column column, String value) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(column.label + " is not a number: " + value);
+            }
+        }
+
+        private static boolean parseBoolean(Column column, String value) {
+            switch (value.toLowerCase(Locale.ROOT)) {
+                case "true", "yes", "y", "1":
+                    return true;
+                case "false", "no", "n", "0":
+                    return false;
+                default:
+                    throw new IllegalArgumentException(column.label + " is not yes or no: " + value);
+            }
+        }
+    }
+}
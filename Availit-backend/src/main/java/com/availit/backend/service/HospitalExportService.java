@@ -0,0 +1,190 @@
+package com.availit.backend.service;
+
+import com.availit.backend.datasource.ReplicaReads;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the hospital table to an output stream as it is read from a database cursor. Each hospital
+ * is detached once written, so memory use depends on the fetch size and not on the number of rows.
+ */
+@Service
+public class HospitalExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv;charset=UTF-8", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        /** The format named {@code name}, ignoring case, or null when there is none. */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final String[] CSV_HEADER = {
+        "id", "hospital_name", "total_beds", "available_beds", "icu_beds", "ventilators", "oxygen_available",
+        "address", "contact_number", "external_source_id", "city", "state", "zip_code", "latitude", "longitude"
+    };
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private ReplicaReads replicaReads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Writes every hospital, or only those with a location in {@code cities}, to {@code out} in id
+     * order and returns how many were written. {@code out} is flushed but left open.
+     */
+    public long export(Collection<String> cities, Format format, OutputStream out) throws IOException {
+        try {
+            return replicaReads.execute(() -> {
+                try (Stream<HospitalAvailability> hospitals = repository.streamForExport(cities);
+                     RowWriter writer = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out)) {
+                    long count = 0;
+                    Iterator<HospitalAvailability> rows = hospitals.iterator();
+                    while (rows.hasNext()) {
+                        HospitalAvailability hospital = rows.next();
+                        writer.write(hospital);
+                        entityManager.detach(hospital);
+                        count++;
+                    }
+                    return count;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private interface RowWriter extends Closeable {
+        void write(HospitalAvailability hospital) throws IOException;
+    }
+
+    /** One JSON document per line, serialized exactly like the JSON API. */
+    private final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private final ObjectWriter writer;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // flushing per row would turn every hospital into its own write on the socket
+            writer = objectMapper.writerFor(HospitalAvailability.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        }
+
+        @Override
+        public void write(HospitalAvailability hospital) throws IOException {
+            writer.writeValue(generator, hospital);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    /**
+     * RFC 4180 CSV, one row per hospital. The location columns describe the hospital's first
+     * location; NDJSON carries all of them.
+     */
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer out;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            row((Object[]) CSV_HEADER);
+        }
+
+        @Override
+        public void write(HospitalAvailability h) throws IOException {
+            Location l = h.getLocations() == null || h.getLocations().isEmpty() ? null : h.getLocations().get(0);
+            // unreported capacity is written as empty cells, not as zero beds
+            boolean reported = h.isCapacityReported();
+            row(h.getId(), h.getHospitalName(), reported ? h.getTotalBeds() : null, reported ? h.getAvailableBeds() : null,
+                reported ? h.getIcuBeds() : null, reported ? h.getVentilators() : null,
+                reported ? h.isOxygenAvailable() : null, h.getAddress(), h.getContactNumber(), h.getExternalSourceId(),
+                l == null ? null : l.getCity(), l == null ? null : l.getState(), l == null ? null : l.getZipCode(),
+                l == null ? null : l.getLatitude(), l == null ? null : l.getLongitude());
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+
+        private void row(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                if (values[i] != null) {
+                    field(values[i].toString());
+                }
+            }
+            out.write("\r\n");
+        }
+
+        private void field(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.availit.backend.service;
 
 import com.availit.backend.model.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -15,6 +16,7 @@ public class JwtUtil {
     private final String SECRET_KEY = "mysecretkeymysecretkeymysecretkeymysecretkey"; // Should be at least 256 bits
     private final long EXPIRATION_TIME = 1000 * 60 * 60 * 24; // 24 hours
     private final Key key = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
 
     public String generateToken(User user) {
         return Jwts.builder()
@@ -27,19 +29,19 @@ public class JwtUtil {
     }
 
     public String extractUsername(String token) {
-        return extractAllClaims(token).getSubject();
+        return parseClaims(token).getSubject();
     }
 
     public boolean validateToken(String token, User user) {
-        final String username = extractUsername(token);
-        return (username.equals(user.getUsername()) && !isTokenExpired(token));
+        Claims claims = parseClaims(token);
+        return user.getUsername().equals(claims.getSubject()) && !claims.getExpiration().before(new Date());
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    /**
+     * Verifies the signature and expiry of {@code token} and returns its claims, so callers that need
+     * several claims pay for one HMAC check. Throws a {@link io.jsonwebtoken.JwtException} otherwise.
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-    }
-} 
\ No newline at end of file
+}
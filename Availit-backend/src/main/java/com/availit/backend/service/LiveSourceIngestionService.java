@@ -0,0 +1,167 @@
+package com.availit.backend.service;
+
+import com.availit.backend.dto.LiveSourceStatus;
+import com.availit.backend.ingest.LiveSourceAdapter;
+import com.availit.backend.model.HospitalAvailability;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Periodically pulls every {@link LiveSourceAdapter} and upserts what changed, so live cities are
+ * served from the local store instead of scraping the portals on every page view. Fetches run on
+ * their own threads, so a slow portal never holds up the shared scheduler thread.
+ */
+@Service
+public class LiveSourceIngestionService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveSourceIngestionService.class);
+
+    @Autowired
+    private List<LiveSourceAdapter> adapters;
+
+    @Autowired
+    private HospitalAvailabilityService hospitalAvailabilityService;
+
+    @Value("${availit.live.enabled:true}")
+    private boolean enabled;
+
+    @Value("${availit.live.user-agent:AvailItScraper/1.0}")
+    private String userAgent;
+
+    @Value("${availit.live.timeout-ms:20000}")
+    private long timeoutMs;
+
+    private final Map<String, LiveSourceStatus> statuses = new ConcurrentHashMap<>();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final ExecutorService fetchers = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "live-source-fetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .followRedirects(HttpClient.Redirect.NORMAL)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+
+    @Scheduled(initialDelayString = "${availit.live.initial-delay-ms:10000}",
+               fixedDelayString = "${availit.live.refresh-ms:300000}")
+    public void refreshAll() {
+        if (!enabled) {
+            return;
+        }
+        for (LiveSourceAdapter adapter : adapters) {
+            // a source still being fetched from the previous round is skipped, not queued behind itself
+            if (!inFlight.add(adapter.getSourceId())) {
+                continue;
+            }
+            try {
+                fetchers.execute(() -> {
+                    try {
+                        refresh(adapter);
+                    } finally {
+                        inFlight.remove(adapter.getSourceId());
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(adapter.getSourceId());
+            }
+        }
+    }
+
+    public LiveSourceStatus refresh(LiveSourceAdapter adapter) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(adapter.getUrl()))
+            .header("User-Agent", userAgent)
+            .timeout(Duration.ofMillis(timeoutMs))
+            .GET()
+            .build();
+        // HttpRequest.timeout stops applying once the headers arrive, so the body is bounded by
+        // waiting on the whole exchange with the same deadline
+        CompletableFuture<HttpResponse<String>> exchange = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        try {
+            HttpResponse<String> response = exchange.get(timeoutMs, TimeUnit.MILLISECONDS);
+            if (response.statusCode() != 200) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+            return ingest(adapter, new StringReader(response.body()));
+        } catch (TimeoutException e) {
+            exchange.cancel(true);
+            return failed(adapter, "timed out after " + timeoutMs + " ms");
+        } catch (ExecutionException e) {
+            return failed(adapter, e.getCause().toString());
+        } catch (IOException | RuntimeException e) {
+            return failed(adapter, e.toString());
+        } catch (InterruptedException e) {
+            exchange.cancel(true);
+            Thread.currentThread().interrupt();
+            return record(adapter, 0, 0, "interrupted");
+        }
+    }
+
+    /** Parses {@code html} with {@code adapter} and stores the result; used directly with recorded pages. */
+    public LiveSourceStatus ingest(LiveSourceAdapter adapter, Reader html) throws IOException {
+        List<HospitalAvailability> hospitals = adapter.parse(html, adapter.getUrl());
+        int changed = hospitalAvailabilityService.syncExternalHospitals(adapter.getSourceId(), hospitals);
+        log.debug("Live source {}: {} hospitals, {} changed", adapter.getSourceId(), hospitals.size(), changed);
+        return record(adapter, hospitals.size(), changed, null);
+    }
+
+    public Collection<LiveSourceStatus> getStatuses() {
+        List<LiveSourceStatus> result = new ArrayList<>();
+        for (LiveSourceAdapter adapter : adapters) {
+            LiveSourceStatus status = statuses.get(adapter.getSourceId());
+            result.add(status != null ? status
+                : new LiveSourceStatus(adapter.getSourceId(), adapter.getCity(), null, null, 0, 0, null));
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fetchers.shutdownNow();
+    }
+
+    private LiveSourceStatus failed(LiveSourceAdapter adapter, String error) {
+        log.warn("Live source {} could not be refreshed: {}", adapter.getSourceId(), error);
+        return record(adapter, 0, 0, error);
+    }
+
+    private LiveSourceStatus record(LiveSourceAdapter adapter, int hospitals, int changed, String error) {
+        Instant now = Instant.now();
+        LiveSourceStatus previous = statuses.get(adapter.getSourceId());
+        LiveSourceStatus status = error == null
+            ? new LiveSourceStatus(adapter.getSourceId(), adapter.getCity(), now, now, hospitals, changed, null)
+            : new LiveSourceStatus(adapter.getSourceId(), adapter.getCity(), now,
+                previous != null ? previous.getLastSuccess() : null,
+                previous != null ? previous.getHospitals() : 0, 0, error);
+        statuses.put(adapter.getSourceId(), status);
+        return status;
+    }
+}
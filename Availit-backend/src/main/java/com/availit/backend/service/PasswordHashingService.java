@@ -0,0 +1,138 @@
+package com.availit.backend.service;
+
+import com.availit.backend.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on its own small pool so hashing can never occupy more than a fixed share of the CPU
+ * or any servlet threads. When the pool and its queue are full, new work is refused at once with a
+ * {@link PasswordHashingBusyException} rather than queued behind a login storm.
+ */
+@Service
+public class PasswordHashingService implements MeterBinder {
+
+    private final BCryptPasswordEncoder encoder;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder rejected = new LongAdder();
+
+    @Autowired
+    public PasswordHashingService(@Value("${availit.auth.bcrypt-strength:10}") int strength,
+                                  @Value("${availit.auth.hashing.threads:0}") int threads,
+                                  @Value("${availit.auth.hashing.queue-capacity:64}") int queueCapacity) {
+        this.strength = strength;
+        this.encoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    /** True when {@code encodedPassword} was hashed with a different cost than the configured one. */
+    public boolean needsRehash(String encodedPassword) {
+        // BCrypt hashes look like $2a$10$..., with the cost as the third field
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return false;
+        }
+        int end = encodedPassword.indexOf('$', 4);
+        if (end < 0) {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, end)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public int getQueueDepth() { return executor.getQueue().size(); }
+    public int getActiveCount() { return executor.getActiveCount(); }
+    public long getHashCount() { return hashes.sum(); }
+    public long getRejectedCount() { return rejected.sum(); }
+    public long getMaxHashNanos() { return maxHashNanos.get(); }
+
+    public double getAverageHashMillis() {
+        long count = hashes.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1_000_000.0 / count;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("availit.auth.hashing.queued", this, PasswordHashingService::getQueueDepth)
+            .description("Hash requests waiting for a hashing thread")
+            .register(registry);
+        Gauge.builder("availit.auth.hashing.active", this, PasswordHashingService::getActiveCount)
+            .description("Hashing threads currently busy")
+            .register(registry);
+        FunctionCounter.builder("availit.auth.hashing.completed", this, PasswordHashingService::getHashCount)
+            .register(registry);
+        FunctionCounter.builder("availit.auth.hashing.rejected", this, PasswordHashingService::getRejectedCount)
+            .description("Hash requests refused because the pool and queue were full")
+            .register(registry);
+        TimeGauge.builder("availit.auth.hashing.average", this, TimeUnit.MILLISECONDS,
+                PasswordHashingService::getAverageHashMillis)
+            .register(registry);
+        TimeGauge.builder("availit.auth.hashing.max", this, TimeUnit.NANOSECONDS,
+                PasswordHashingService::getMaxHashNanos)
+            .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                try {
+                    return work.get();
+                } finally {
+                    long elapsed = System.nanoTime() - start;
+                    hashes.increment();
+                    hashNanos.add(elapsed);
+                    maxHashNanos.accumulate(elapsed);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingBusyException();
+        }
+    }
+}
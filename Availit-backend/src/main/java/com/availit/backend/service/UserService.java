@@ -1,42 +1,94 @@
 package com.availit.backend.service;
 
+import com.availit.backend.datasource.ReplicaReads;
+import com.availit.backend.exception.PasswordHashingBusyException;
 import com.availit.backend.model.User;
 import com.availit.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 @Service
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashing;
+    private final VerifiedPrincipalCache principalCache;
+    private final ReplicaReads replicaReads;
+    // database work after a hash runs here, keeping the password pool's few threads on BCrypt alone
+    private final Executor applicationExecutor;
 
     @Autowired
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, PasswordHashingService passwordHashing,
+                       VerifiedPrincipalCache principalCache, ReplicaReads replicaReads,
+                       @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor applicationExecutor) {
         this.userRepository = userRepository;
-        this.passwordEncoder = new BCryptPasswordEncoder();
+        this.passwordHashing = passwordHashing;
+        this.principalCache = principalCache;
+        this.replicaReads = replicaReads;
+        this.applicationExecutor = applicationExecutor;
     }
 
-    public User registerUser(String username, String password, String role) {
+    /** Hashes on the password pool and saves on the application executor; completes exceptionally when the username is taken. */
+    public CompletableFuture<User> registerUser(String username, String password, String role) {
         if (userRepository.findByUsername(username).isPresent()) {
-            throw new RuntimeException("Username already exists");
+            return CompletableFuture.failedFuture(new RuntimeException("Username already exists"));
         }
-        User user = new User();
-        user.setUsername(username);
-        user.setPassword(passwordEncoder.encode(password));
-        user.setRole(role);
-        return userRepository.save(user);
+        return passwordHashing.encode(password).thenApplyAsync(hash -> {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword(hash);
+            user.setRole(role);
+            return savePassword(user);
+        }, applicationExecutor);
     }
 
-    public Optional<User> authenticateUser(String username, String password) {
+    /** Verifies on the password pool, and rehashes the password when the configured cost has changed. */
+    public CompletableFuture<Optional<User>> authenticateUser(String username, String password) {
         Optional<User> userOpt = userRepository.findByUsername(username);
-        if (userOpt.isPresent() && passwordEncoder.matches(password, userOpt.get().getPassword())) {
+        if (userOpt.isEmpty()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        User user = userOpt.get();
+        return passwordHashing.matches(password, user.getPassword()).thenApplyAsync(matches -> {
+            if (!matches) {
+                return Optional.empty();
+            }
+            if (passwordHashing.needsRehash(user.getPassword())) {
+                rehash(user, password);
+            }
             return userOpt;
+        }, applicationExecutor);
+    }
+
+    private void rehash(User user, String password) {
+        try {
+            passwordHashing.encode(password).thenAcceptAsync(hash -> {
+                user.setPassword(hash);
+                savePassword(user);
+            }, applicationExecutor).exceptionally(e -> {
+                log.warn("Could not rehash password for {}", user.getUsername(), e);
+                return null;
+            });
+        } catch (PasswordHashingBusyException e) {
+            // the login itself succeeded; the rehash is retried on the next one
         }
-        return Optional.empty();
+    }
+
+    private User savePassword(User user) {
+        User saved = userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
+        replicaReads.recordWrite(user.getUsername());
+        return saved;
     }
 
     public Optional<User> findByUsername(String username) {
@@ -44,19 +96,21 @@ public class UserService {
     }
 
     public List<User> getAllUsers() {
-        return userRepository.findAll();
+        return replicaReads.execute(userRepository::findAll);
     }
 
     public String getCityByUsername(String username) {
-        return userRepository.findByUsername(username)
+        return replicaReads.execute(username, () -> userRepository.findByUsername(username)
                 .map(User::getCity)
-                .orElse(null);
+                .orElse(null));
     }
 
     public void updateCityByUsername(String username, String city) {
         userRepository.findByUsername(username).ifPresent(user -> {
             user.setCity(city);
             userRepository.save(user);
+            principalCache.invalidate(username);
+            replicaReads.recordWrite(username);
         });
     }
 } 
\ No newline at end of file
@@ -0,0 +1,209 @@
+package com.availit.backend.perf;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalBatchWriter;
+import com.availit.backend.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Boots the whole application on an in-memory database seeded with a synthetic dataset, drives mixed
+ * traffic at it over HTTP and fails when latency, throughput or error rate miss the objectives in
+ * application-perf.properties. Run with {@code mvn -Pperf verify}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("perf")
+class ApiLoadIT {
+
+    private static final String USERNAME = "perf-user";
+    private static final String PASSWORD = "perf-password";
+    private static final int SEED_CHUNK = 2000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private HospitalBatchWriter batchWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${perf.hospitals}")
+    private int hospitalCount;
+
+    @Value("${perf.cities}")
+    private int cityCount;
+
+    @Value("${perf.threads}")
+    private int threads;
+
+    @Value("${perf.warmup-seconds}")
+    private int warmupSeconds;
+
+    @Value("${perf.duration-seconds}")
+    private int durationSeconds;
+
+    @Value("${perf.report}")
+    private String reportPath;
+
+    @Value("${perf.slo.read-p99-ms}")
+    private double readP99Ms;
+
+    @Value("${perf.slo.write-p99-ms}")
+    private double writeP99Ms;
+
+    @Value("${perf.slo.login-p99-ms}")
+    private double loginP99Ms;
+
+    @Value("${perf.slo.min-throughput}")
+    private double minThroughput;
+
+    @Value("${perf.slo.max-error-rate}")
+    private double maxErrorRate;
+
+    private final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+
+    @Test
+    void mixedTrafficMeetsServiceLevelObjectives() throws Exception {
+        long maxId = seed();
+        userService.registerUser(USERNAME, PASSWORD, "USER").join();
+
+        String base = "http://localhost:" + port;
+        String login = "{\"username\":\"" + USERNAME + "\",\"password\":\"" + PASSWORD + "\"}";
+        List<LoadGenerator.Operation> operations = List.of(
+            new LoadGenerator.Operation("hospitalById", "read", 25,
+                random -> get(base + "/api/hospitals/" + (1 + random.nextLong(maxId))), status -> status == 200),
+            new LoadGenerator.Operation("cursorPage", "read", 15,
+                random -> get(base + "/api/hospitals/cursor?sort=availableBeds&direction=desc&size=50"), status -> status == 200),
+            new LoadGenerator.Operation("hospitalsByCity", "read", 20,
+                random -> get(base + "/api/hospitals/city/" + city(random.nextInt(cityCount))), status -> status == 200),
+            new LoadGenerator.Operation("filter", "read", 10,
+                random -> get(base + "/api/hospitals/filter?city=" + city(random.nextInt(cityCount)) + "&minAvailableBeds=20&limit=20"),
+                status -> status == 200),
+            new LoadGenerator.Operation("search", "read", 5,
+                random -> get(base + "/api/hospitals/search?q=Hospital%20" + random.nextInt(hospitalCount) + "&limit=10"),
+                status -> status == 200),
+            new LoadGenerator.Operation("cityStats", "read", 5,
+                random -> get(base + "/api/hospitals/cities/stats"), status -> status == 200),
+            // a counter already at its bound answers 409, which is a correct outcome under load
+            new LoadGenerator.Operation("adjustBeds", "write", 18,
+                random -> post(base + "/api/hospitals/" + (1 + random.nextLong(maxId)) + "/beds/adjust",
+                    "{\"availableBeds\":" + (random.nextBoolean() ? 1 : -1) + ",\"icuBeds\":0,\"ventilators\":0}"),
+                status -> status == 200 || status == 409),
+            new LoadGenerator.Operation("login", "login", 2,
+                random -> post(base + "/api/auth/login", login), status -> status == 200));
+
+        LoadGenerator.Report report = new LoadGenerator(operations, threads)
+            .run(warmupSeconds * 1000L, durationSeconds * 1000L);
+        print(report);
+        File reportFile = new File(reportPath);
+        reportFile.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, report);
+
+        Map<String, Double> p99 = LoadGenerator.worstP99ByGroup(report);
+        assertAll(
+            () -> assertTrue(p99.get("read") <= readP99Ms, "read p99 " + p99.get("read") + " ms > " + readP99Ms + " ms"),
+            () -> assertTrue(p99.get("write") <= writeP99Ms, "write p99 " + p99.get("write") + " ms > " + writeP99Ms + " ms"),
+            () -> assertTrue(p99.get("login") <= loginP99Ms, "login p99 " + p99.get("login") + " ms > " + loginP99Ms + " ms"),
+            () -> assertTrue(report.throughput() >= minThroughput,
+                "throughput " + Math.round(report.throughput()) + " req/s < " + minThroughput + " req/s"),
+            () -> assertTrue(report.errorRate() <= maxErrorRate,
+                "error rate " + report.errorRate() + " > " + maxErrorRate));
+    }
+
+    private int get(String url) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofSeconds(30)).GET().build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private int post(String url, String json) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /** Inserts the synthetic hospitals before anything reads them, so the snapshot cache loads them all at once. */
+    private long seed() {
+        Random random = new Random(7);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long maxId = 0;
+        for (int from = 0; from < hospitalCount; from += SEED_CHUNK) {
+            List<HospitalAvailability> chunk = new ArrayList<>(SEED_CHUNK);
+            for (int i = from; i < Math.min(hospitalCount, from + SEED_CHUNK); i++) {
+                chunk.add(hospital(i, random));
+            }
+            List<Long> ids = tx.execute(status -> batchWriter.insert(chunk));
+            maxId = Math.max(maxId, ids.stream().mapToLong(Long::longValue).max().orElse(0));
+        }
+        return maxId;
+    }
+
+    private HospitalAvailability hospital(int i, Random random) {
+        int total = 50 + random.nextInt(450);
+        HospitalAvailability hospital = new HospitalAvailability("Hospital " + i, total, random.nextInt(total + 1),
+            random.nextBoolean(), "Street " + i + ", Sector " + random.nextInt(40), "0205550" + (100 + i % 900),
+            random.nextInt(30), random.nextInt(15));
+        List<Location> locations = new ArrayList<>();
+        for (int j = 0; j < 1 + random.nextInt(2); j++) {
+            Location location = new Location();
+            location.setAddress("Street " + i + "-" + j);
+            location.setCity(city(random.nextInt(cityCount)));
+            location.setState("Maharashtra");
+            location.setZipCode("411001");
+            location.setLatitude(18 + random.nextDouble() * 10);
+            location.setLongitude(72 + random.nextDouble() * 10);
+            locations.add(location);
+        }
+        hospital.setLocations(locations);
+        return hospital;
+    }
+
+    private static String city(int index) {
+        return "City" + index;
+    }
+
+    private static void print(LoadGenerator.Report report) {
+        System.out.printf("%n%-16s %-6s %9s %7s %9s %9s %9s %9s%n",
+            "operation", "group", "requests", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        for (LoadGenerator.OperationStats stats : report.operations()) {
+            System.out.printf("%-16s %-6s %9d %7d %9.2f %9.2f %9.2f %9.2f%n", stats.name(), stats.group(),
+                stats.requests(), stats.errors(), stats.p50Ms(), stats.p95Ms(), stats.p99Ms(), stats.maxMs());
+        }
+        System.out.printf("%d requests in %.0f s: %.0f req/s, error rate %.4f%n%n",
+            report.requests(), report.seconds(), report.throughput(), report.errorRate());
+    }
+}
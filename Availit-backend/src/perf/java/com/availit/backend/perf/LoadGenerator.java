@@ -0,0 +1,168 @@
+package com.availit.backend.perf;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load generator: a fixed number of workers each pick a weighted random operation, run
+ * it and immediately pick the next. Latencies are kept per worker in plain arrays and only merged
+ * once the run is over, so recording costs no synchronization.
+ */
+final class LoadGenerator {
+
+    /** One kind of request. {@code call} returns the HTTP status, which {@link #expected} judges. */
+    record Operation(String name, String group, int weight, Call call, StatusCheck expected) {}
+
+    @FunctionalInterface
+    interface Call {
+        int execute(ThreadLocalRandom random) throws Exception;
+    }
+
+    @FunctionalInterface
+    interface StatusCheck {
+        boolean accepts(int status);
+    }
+
+    record OperationStats(String name, String group, long requests, long errors,
+                          double p50Ms, double p95Ms, double p99Ms, double maxMs) {}
+
+    record Report(double seconds, long requests, long errors, double throughput, List<OperationStats> operations) {
+        double errorRate() {
+            return requests == 0 ? 0 : (double) errors / requests;
+        }
+    }
+
+    private final List<Operation> operations;
+    private final int[] cumulativeWeights;
+    private final int threads;
+
+    LoadGenerator(List<Operation> operations, int threads) {
+        this.operations = List.copyOf(operations);
+        this.threads = threads;
+        cumulativeWeights = new int[operations.size()];
+        int sum = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            sum += operations.get(i).weight();
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    /** Runs unmeasured for {@code warmupMs}, then measures for {@code durationMs}. */
+    Report run(long warmupMs, long durationMs) throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmupMs * 1_000_000;
+        long end = measureFrom + durationMs * 1_000_000;
+        Worker[] workers = new Worker[threads];
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(measureFrom, end, done);
+            Thread thread = new Thread(workers[i], "load-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+
+        List<OperationStats> stats = new ArrayList<>();
+        long requests = 0;
+        long errors = 0;
+        for (int op = 0; op < operations.size(); op++) {
+            int count = 0;
+            long failed = 0;
+            for (Worker worker : workers) {
+                count += worker.counts[op];
+                failed += worker.errors[op];
+            }
+            long[] merged = new long[count];
+            int offset = 0;
+            for (Worker worker : workers) {
+                System.arraycopy(worker.latencies[op], 0, merged, offset, worker.counts[op]);
+                offset += worker.counts[op];
+            }
+            Arrays.sort(merged);
+            Operation operation = operations.get(op);
+            stats.add(new OperationStats(operation.name(), operation.group(), count, failed,
+                percentile(merged, 0.50), percentile(merged, 0.95), percentile(merged, 0.99),
+                count == 0 ? 0 : merged[count - 1] / 1e6));
+            requests += count;
+            errors += failed;
+        }
+        double seconds = durationMs / 1000.0;
+        return new Report(seconds, requests, errors, requests / seconds, stats);
+    }
+
+    /** Highest p99 among the operations of each group, which is what the group's objective is checked against. */
+    static Map<String, Double> worstP99ByGroup(Report report) {
+        Map<String, Double> worst = new LinkedHashMap<>();
+        for (OperationStats stats : report.operations()) {
+            worst.merge(stats.group(), stats.p99Ms(), Math::max);
+        }
+        return worst;
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private final class Worker implements Runnable {
+        private final long measureFrom;
+        private final long end;
+        private final CountDownLatch done;
+        private final long[][] latencies = new long[operations.size()][1024];
+        private final int[] counts = new int[operations.size()];
+        private final long[] errors = new long[operations.size()];
+
+        Worker(long measureFrom, long end, CountDownLatch done) {
+            this.measureFrom = measureFrom;
+            this.end = end;
+            this.done = done;
+        }
+
+        @Override
+        public void run() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+            try {
+                long now;
+                while ((now = System.nanoTime()) < end) {
+                    int pick = random.nextInt(totalWeight);
+                    int op = 0;
+                    while (cumulativeWeights[op] <= pick) {
+                        op++;
+                    }
+                    Operation operation = operations.get(op);
+                    boolean ok;
+                    try {
+                        ok = operation.expected().accepts(operation.call().execute(random));
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long finished = System.nanoTime();
+                    if (now >= measureFrom) {
+                        record(op, finished - now, ok);
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private void record(int op, long nanos, boolean ok) {
+            if (counts[op] == latencies[op].length) {
+                latencies[op] = Arrays.copyOf(latencies[op], counts[op] * 2);
+            }
+            latencies[op][counts[op]++] = nanos;
+            if (!ok) {
+                errors[op]++;
+            }
+        }
+    }
+}
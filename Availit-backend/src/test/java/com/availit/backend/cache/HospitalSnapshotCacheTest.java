@@ -0,0 +1,132 @@
+package com.availit.backend.cache;
+
+import com.availit.backend.event.HospitalChangeEvent;
+import com.availit.backend.event.HospitalSnapshotEvent;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HospitalSnapshotCacheTest {
+
+    private final HospitalSnapshotCache cache = new HospitalSnapshotCache();
+    private final List<HospitalSnapshotEvent> published = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ApplicationEventPublisher publisher = event -> {
+            if (event instanceof HospitalSnapshotEvent snapshotEvent) {
+                published.add(snapshotEvent);
+            }
+        };
+        ReflectionTestUtils.setField(cache, "eventPublisher", publisher);
+        // start from an empty, loaded snapshot instead of reading the database
+        ReflectionTestUtils.setField(cache, "loaded", true);
+        ReflectionTestUtils.setField(cache, "deletionRetentionMs", 600_000L);
+    }
+
+    @Test
+    void changesAreAppliedToTheCityPartitions() {
+        cache.onHospitalChange(HospitalChangeEvent.saved(List.of(hospital(1L, 1, 10, "Pune"), hospital(2L, 1, 5, "pune", "Mumbai"))));
+        cache.onHospitalChange(HospitalChangeEvent.saved(hospital(2L, 2, 5, "Mumbai")));
+
+        assertEquals(List.of(1L), ids(cache.getHospitalsByCity("PUNE")));
+        assertEquals(List.of(2L), ids(cache.getHospitalsByCity("mumbai")));
+        assertEquals(List.of(1L, 2L), ids(cache.getAllHospitals()));
+
+        cache.onHospitalChange(HospitalChangeEvent.deleted(1L));
+        assertTrue(cache.getHospitalsByCity("pune").isEmpty());
+        assertEquals(3, published.size());
+        assertEquals(cache.getVersion(), published.get(2).getVersion());
+    }
+
+    @Test
+    void anOlderSaveArrivingLateDoesNotOverwriteANewerOne() {
+        cache.onHospitalChange(HospitalChangeEvent.saved(hospital(1L, 3, 7, "Pune")));
+        cache.onHospitalChange(HospitalChangeEvent.saved(hospital(1L, 2, 9, "Delhi")));
+
+        assertEquals(7, cache.getHospital(1L).getAvailableBeds());
+        assertEquals(List.of(1L), ids(cache.getHospitalsByCity("pune")));
+        assertTrue(cache.getHospitalsByCity("delhi").isEmpty());
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    void changeFeedPositionsWinOverRowVersions() {
+        HospitalAvailability newer = hospital(1L, 1, 7, "Pune");
+        newer.setChangeVersion(20L);
+        HospitalAvailability older = hospital(1L, 5, 9, "Pune");
+        older.setChangeVersion(10L);
+
+        cache.onHospitalChange(HospitalChangeEvent.saved(newer));
+        cache.onHospitalChange(HospitalChangeEvent.saved(older));
+
+        assertEquals(7, cache.getHospital(1L).getAvailableBeds());
+    }
+
+    @Test
+    void aSaveArrivingAfterTheDeletionDoesNotBringTheHospitalBack() {
+        cache.onHospitalChange(HospitalChangeEvent.saved(hospital(1L, 1, 7, "Pune")));
+        cache.onHospitalChange(HospitalChangeEvent.deleted(1L));
+        cache.onHospitalChange(HospitalChangeEvent.saved(hospital(1L, 2, 8, "Pune")));
+
+        assertNull(cache.getHospital(1L));
+        assertTrue(cache.getHospitalsByCity("pune").isEmpty());
+        assertTrue(cache.getAllHospitals().isEmpty());
+    }
+
+    @Test
+    void deletionsAreForgottenOnceOlderThanTheRetention() {
+        ReflectionTestUtils.setField(cache, "deletionRetentionMs", 0L);
+        cache.onHospitalChange(HospitalChangeEvent.deleted(List.of(1L, 2L)));
+        cache.onHospitalChange(HospitalChangeEvent.deleted(3L));
+
+        Map<?, ?> deletedAt = (Map<?, ?>) ReflectionTestUtils.getField(cache, "deletedAt");
+        assertEquals(Set.of(3L), deletedAt.keySet());
+    }
+
+    @Test
+    void theSnapshotKeepsItsOwnCopyOfTheWrittenHospital() {
+        HospitalAvailability written = hospital(1L, 1, 7, "Pune");
+        cache.onHospitalChange(HospitalChangeEvent.saved(written));
+
+        written.setAvailableBeds(0);
+        written.getLocations().get(0).setCity("Delhi");
+
+        HospitalAvailability cached = cache.getHospital(1L);
+        assertNotSame(written, cached);
+        assertEquals(7, cached.getAvailableBeds());
+        assertEquals("Pune", cached.getLocations().get(0).getCity());
+    }
+
+    private static List<Long> ids(List<HospitalAvailability> hospitals) {
+        return hospitals.stream().map(HospitalAvailability::getId).toList();
+    }
+
+    private static HospitalAvailability hospital(Long id, long version, int availableBeds, String... cities) {
+        HospitalAvailability hospital = new HospitalAvailability("Hospital " + id, 100, availableBeds, true,
+            "Street " + id, "020-5550000", 2, 1);
+        ReflectionTestUtils.setField(hospital, "id", id);
+        hospital.setVersion(version);
+        List<Location> locations = new ArrayList<>();
+        for (String city : cities) {
+            Location location = new Location();
+            location.setCity(city);
+            locations.add(location);
+        }
+        hospital.setLocations(locations);
+        return hospital;
+    }
+}
@@ -0,0 +1,86 @@
+package com.availit.backend.config;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Reports payload size and serialization time of a city-sized hospital list in each format the API
+ * can negotiate, raw and gzipped, and checks that the binary formats round-trip and are smaller.
+ */
+class PayloadFormatReportTest {
+
+    private static final int HOSPITALS = 2_000;
+    private static final int ROUNDS = 30;
+
+    @Test
+    void reportPayloadSizeAndSerializationTime() throws IOException {
+        List<HospitalAvailability> hospitals = hospitals();
+        ObjectMapper json = new Jackson2ObjectMapperBuilder().build();
+        ObjectMapper smile = new Jackson2ObjectMapperBuilder().smile().build();
+        ObjectMapper cbor = new Jackson2ObjectMapperBuilder().cbor().build();
+
+        byte[] jsonBytes = report("json", json, hospitals);
+        byte[] smileBytes = report("smile", smile, hospitals);
+        byte[] cborBytes = report("cbor", cbor, hospitals);
+
+        assertTrue(smileBytes.length < jsonBytes.length);
+        assertTrue(cborBytes.length < jsonBytes.length);
+        List<HospitalAvailability> decoded = cbor.readValue(cborBytes, new TypeReference<>() {});
+        assertEquals(HOSPITALS, decoded.size());
+        assertEquals(hospitals.get(7).getHospitalName(), decoded.get(7).getHospitalName());
+        assertEquals(hospitals.get(7).getLocations().get(0).getLatitude(), decoded.get(7).getLocations().get(0).getLatitude());
+    }
+
+    private static byte[] report(String format, ObjectMapper mapper, List<HospitalAvailability> hospitals) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(hospitals);
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.writeValueAsBytes(hospitals);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            mapper.writeValueAsBytes(hospitals);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ROUNDS;
+        System.out.printf("%-6s %9d bytes  %8d gzipped  %7.2f ms%n", format, bytes.length, gzip(bytes).length, millis);
+        return bytes;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<HospitalAvailability> hospitals() {
+        List<HospitalAvailability> hospitals = new ArrayList<>(HOSPITALS);
+        for (int i = 0; i < HOSPITALS; i++) {
+            HospitalAvailability hospital = new HospitalAvailability(
+                "Hospital " + i, 200, i % 150, i % 3 != 0, "Street " + i + ", Pune", "020-555" + (1000 + i), i % 20, i % 7);
+            Location location = new Location();
+            location.setAddress("Street " + i + ", Pune");
+            location.setCity("Pune");
+            location.setState("Maharashtra");
+            location.setZipCode("411001");
+            location.setLatitude(18.5 + i * 0.0001);
+            location.setLongitude(73.8 + i * 0.0001);
+            hospital.setLocations(List.of(location));
+            hospitals.add(hospital);
+        }
+        return hospitals;
+    }
+}
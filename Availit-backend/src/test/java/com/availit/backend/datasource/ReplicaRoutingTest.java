@@ -0,0 +1,161 @@
+package com.availit.backend.datasource;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.User;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import com.availit.backend.repository.UserRepository;
+import com.availit.backend.service.HospitalAvailabilityService;
+import com.availit.backend.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs against two independent H2 databases standing in for a primary and its replica. Nothing
+ * replicates between them, so the rows each one holds show where a read was answered.
+ */
+@SpringBootTest(properties = {
+    "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+    "availit.datasource.replica.urls=" + ReplicaRoutingTest.REPLICA_URL,
+    "availit.datasource.replica.lag-query=SELECT MAX(lag_ms) FROM replica_lag",
+    "availit.datasource.replica.max-lag-ms=1000",
+    "availit.datasource.replica.lag-check-ms=3600000"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaRouter router;
+
+    @Autowired
+    private HospitalAvailabilityService hospitalService;
+
+    @Autowired
+    private HospitalAvailabilityRepository hospitalRepository;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.save(user("alice", "Pune"));
+        userRepository.save(user("bob", "Delhi"));
+
+        replica.execute("CREATE TABLE IF NOT EXISTS users (id BIGINT PRIMARY KEY, username VARCHAR(255), "
+            + "password VARCHAR(255), role VARCHAR(255), city VARCHAR(255))");
+        replica.execute("CREATE TABLE IF NOT EXISTS replica_lag (lag_ms BIGINT)");
+        replica.update("DELETE FROM users");
+        replica.update("INSERT INTO users VALUES (1, 'alice', 'x', 'USER', 'Replica')");
+        setReplicaLag(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readsGoToAHealthyReplica() {
+        assertEquals("Replica", userService.getCityByUsername("alice"));
+        assertEquals(1, userService.getAllUsers().size());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        setReplicaLag(5000);
+        assertEquals("Pune", userService.getCityByUsername("alice"));
+
+        setReplicaLag(200);
+        assertEquals("Replica", userService.getCityByUsername("alice"));
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToPrimary() {
+        replica.execute("DROP TABLE replica_lag");
+        router.checkLag();
+        assertEquals(Long.MAX_VALUE, router.getLagMillis().get("replica-0"));
+        assertEquals("Pune", userService.getCityByUsername("alice"));
+    }
+
+    @Test
+    void writesGoToPrimaryAndAreReadBackFromIt() {
+        replica.update("INSERT INTO users VALUES (2, 'carol', 'x', 'USER', 'Replica')");
+        userRepository.save(user("carol", "Pune"));
+
+        userService.updateCityByUsername("carol", "Mumbai");
+
+        assertEquals("Mumbai", userService.getCityByUsername("carol"));
+        assertEquals("Replica", replica.queryForObject("SELECT city FROM users WHERE username = 'carol'", String.class));
+        // other users are still read from the replica
+        assertEquals("Replica", userService.getCityByUsername("alice"));
+    }
+
+    @Test
+    void signedInUserReadsTheirOwnWrites() {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken("dave", null, List.of()));
+        assertEquals(1, userService.getAllUsers().size());
+
+        userRepository.save(user("dave", "Chennai"));
+
+        assertEquals(3, userService.getAllUsers().size());
+    }
+
+    @Test
+    void aReplicaReadDoesNotPutAnOldRowInTheSharedCache() {
+        HospitalAvailability hospital = hospitalService.createHospital(
+            new HospitalAvailability("Ruby Hall", 100, 10, true, "40 Sassoon Road", "020-5550000", 4, 2));
+        hospital.setAvailableBeds(8);
+        HospitalAvailability updated = hospitalService.updateHospital(hospital.getId(), hospital);
+        replica.execute("CREATE TABLE IF NOT EXISTS hospital_availability (id BIGINT PRIMARY KEY, "
+            + "hospital_name VARCHAR(255), total_beds INT, available_beds INT, oxygen_available BOOLEAN, "
+            + "address VARCHAR(255), contact_number VARCHAR(255), icu_beds INT, ventilators INT, version BIGINT, "
+            + "change_version BIGINT, external_source_id VARCHAR(255), capacity_reported BOOLEAN, "
+            + "feed_cities VARCHAR(4000))");
+        replica.update("DELETE FROM hospital_availability");
+        replica.update("INSERT INTO hospital_availability VALUES (?, 'Ruby Hall', 100, 10, TRUE, '40 Sassoon Road', "
+            + "'020-5550000', 4, 2, 0, 1, NULL, TRUE, NULL)", hospital.getId());
+
+        assertEquals(10, hospitalService.getHospitalById(hospital.getId()).getAvailableBeds());
+
+        // the update starts from the primary's row, so the version the client sent still matches
+        updated.setAvailableBeds(6);
+        hospitalService.updateHospital(hospital.getId(), updated);
+        assertEquals(6, hospitalRepository.findById(hospital.getId()).orElseThrow().getAvailableBeds());
+    }
+
+    private void setReplicaLag(long lagMillis) {
+        replica.update("DELETE FROM replica_lag");
+        replica.update("INSERT INTO replica_lag VALUES (?)", lagMillis);
+        router.checkLag();
+    }
+
+    private static User user(String username, String city) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("x");
+        user.setRole("USER");
+        user.setCity(city);
+        return user;
+    }
+}
@@ -0,0 +1,95 @@
+package com.availit.backend.index;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CapacityColumnIndexTest {
+
+    private final CapacityColumnIndex index = new CapacityColumnIndex();
+
+    @Test
+    void everyMinimumAndTheOxygenFlagMustHold() {
+        index.rebuild(List.of(
+            hospital(1L, 10, 4, 2, true, "Pune"),
+            hospital(2L, 5, 0, 0, false, "Pune"),
+            hospital(3L, 20, 8, 1, true, "Mumbai")));
+
+        assertArrayEquals(new long[] {1, 2, 3}, index.filter(null, 0, 0, 0, null));
+        assertArrayEquals(new long[] {1, 3}, index.filter(null, 10, 0, 0, null));
+        assertArrayEquals(new long[] {3}, index.filter(null, 10, 5, 0, null));
+        assertArrayEquals(new long[] {1}, index.filter(null, 0, 0, 2, null));
+        assertArrayEquals(new long[] {2}, index.filter(null, 0, 0, 0, false));
+        assertArrayEquals(new long[] {1, 3}, index.filter(null, 0, 0, 0, true));
+        assertArrayEquals(new long[0], index.filter(null, 21, 0, 0, null));
+    }
+
+    @Test
+    void cityFiltersIgnoreCaseAndCountEveryLocation() {
+        index.rebuild(List.of(
+            hospital(1L, 10, 0, 0, true, "Pune"),
+            hospital(2L, 10, 0, 0, true, "PUNE", "Mumbai"),
+            hospital(3L, 10, 0, 0, true, "Mumbai")));
+
+        assertArrayEquals(new long[] {1, 2}, index.filter("pune", 0, 0, 0, null));
+        assertArrayEquals(new long[] {2, 3}, index.filter("MUMBAI", 0, 0, 0, null));
+        assertArrayEquals(new long[0], index.filter("Delhi", 0, 0, 0, null));
+    }
+
+    @Test
+    void updatesMoveHospitalsBetweenCitiesAndDeletesFreeTheirSlot() {
+        HospitalAvailability moving = hospital(1L, 10, 0, 0, true, "Pune");
+        HospitalAvailability deleted = hospital(2L, 10, 0, 0, true, "Pune");
+        index.rebuild(List.of(deleted, moving));
+
+        index.apply(moving, hospital(1L, 3, 0, 0, false, "Nagpur"));
+        index.apply(deleted, null);
+
+        assertArrayEquals(new long[0], index.filter("pune", 0, 0, 0, null));
+        assertArrayEquals(new long[] {1}, index.filter("nagpur", 0, 0, 0, false));
+        assertArrayEquals(new long[0], index.filter(null, 4, 0, 0, null));
+        assertEquals(1, index.size());
+
+        // the freed slot is taken by the next hospital, so it is listed first
+        index.apply(null, hospital(3L, 7, 0, 0, true, "Pune"));
+        assertArrayEquals(new long[] {3, 1}, index.filter(null, 0, 0, 0, null));
+        assertArrayEquals(new long[] {3}, index.filter("pune", 0, 0, 0, null));
+    }
+
+    @Test
+    void slotsGrowPastTheInitialCapacity() {
+        index.rebuild(List.of());
+        for (long id = 1; id <= 3000; id++) {
+            index.apply(null, hospital(id, (int) (id % 10), 0, 0, id % 2 == 0, id % 3 == 0 ? "Pune" : "Mumbai"));
+        }
+
+        assertEquals(3000, index.size());
+        assertEquals(300, index.filter(null, 9, 0, 0, null).length);
+        long[] pune = index.filter("pune", 0, 0, 0, true);
+        assertEquals(500, pune.length);
+        assertEquals(0, Arrays.stream(pune).filter(id -> id % 6 != 0).count());
+    }
+
+    private static HospitalAvailability hospital(Long id, int availableBeds, int icuBeds, int ventilators,
+                                                 boolean oxygen, String... cities) {
+        HospitalAvailability hospital = new HospitalAvailability("Hospital " + id, 100, availableBeds, oxygen,
+            "Street " + id, "020-5550000", icuBeds, ventilators);
+        ReflectionTestUtils.setField(hospital, "id", id);
+        List<Location> locations = new ArrayList<>();
+        for (String city : cities) {
+            Location location = new Location();
+            location.setCity(city);
+            locations.add(location);
+        }
+        hospital.setLocations(locations);
+        return hospital;
+    }
+}
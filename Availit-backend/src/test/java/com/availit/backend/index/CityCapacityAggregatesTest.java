@@ -0,0 +1,101 @@
+package com.availit.backend.index;
+
+import com.availit.backend.dto.CityCapacityStats;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CityCapacityAggregatesTest {
+
+    private final CityCapacityAggregates aggregates = new CityCapacityAggregates();
+
+    @Test
+    void totalsFollowInsertsUpdatesAndDeletes() {
+        HospitalAvailability a = hospital(1L, 10, true, "Pune");
+        HospitalAvailability b = hospital(2L, 4, false, "pune", "Mumbai");
+        aggregates.rebuild(List.of(a, b));
+
+        CityCapacityStats pune = aggregates.stats("PUNE");
+        assertEquals("Pune", pune.getCity());
+        assertEquals(2, pune.getHospitals());
+        assertEquals(14, pune.getAvailableBeds());
+        assertEquals(1, pune.getHospitalsWithOxygen());
+        assertEquals(List.of("Pune", "Mumbai"), aggregates.stats().stream().map(CityCapacityStats::getCity).toList());
+
+        HospitalAvailability updated = hospital(2L, 1, true, "Mumbai");
+        aggregates.apply(b, updated);
+        assertEquals(10, aggregates.stats("pune").getAvailableBeds());
+        assertEquals(1, aggregates.stats("pune").getHospitals());
+        assertEquals(1, aggregates.stats("mumbai").getAvailableBeds());
+        assertEquals(1, aggregates.stats("mumbai").getHospitalsWithOxygen());
+
+        aggregates.apply(a, null);
+        assertNull(aggregates.stats("pune"));
+    }
+
+    @Test
+    void hospitalWithTwoLocationsInOneCityCountsOnce() {
+        aggregates.rebuild(List.of(hospital(1L, 10, true, "Pune", "PUNE")));
+
+        assertEquals(1, aggregates.stats("pune").getHospitals());
+        assertEquals(10, aggregates.stats("pune").getAvailableBeds());
+    }
+
+    @Test
+    void hospitalsWithoutReportedCapacityAreNotCountedAsEmpty() {
+        HospitalAvailability listed = hospital(2L, 0, false, "Pune");
+        listed.setCapacityReported(false);
+        aggregates.rebuild(List.of(hospital(1L, 10, true, "Pune"), listed));
+
+        assertEquals(1, aggregates.stats("pune").getHospitals());
+
+        HospitalAvailability reported = hospital(2L, 6, true, "Pune");
+        aggregates.apply(listed, reported);
+        assertEquals(2, aggregates.stats("pune").getHospitals());
+        assertEquals(16, aggregates.stats("pune").getAvailableBeds());
+
+        aggregates.apply(reported, listed);
+        assertEquals(1, aggregates.stats("pune").getHospitals());
+        assertEquals(10, aggregates.stats("pune").getAvailableBeds());
+    }
+
+    @Test
+    void driftIsCorrectedOnlyWhenSeenTwice() {
+        aggregates.rebuild(List.of(hospital(1L, 10, true, "Pune")));
+        Map<String, CityCapacityStats> database = Map.of(
+            "pune", new CityCapacityStats("Pune", 1, 100, 7, 2, 1, 1),
+            "delhi", new CityCapacityStats("Delhi", 1, 100, 3, 2, 1, 0));
+
+        assertEquals(0, aggregates.reconcile(database));
+        assertEquals(10, aggregates.stats("pune").getAvailableBeds());
+
+        assertEquals(2, aggregates.reconcile(database));
+        assertEquals(7, aggregates.stats("pune").getAvailableBeds());
+        assertEquals(3, aggregates.stats("delhi").getAvailableBeds());
+        assertEquals("Delhi", aggregates.stats("delhi").getCity());
+
+        assertEquals(0, aggregates.reconcile(database));
+    }
+
+    private static HospitalAvailability hospital(Long id, int availableBeds, boolean oxygen, String... cities) {
+        HospitalAvailability hospital = new HospitalAvailability("Hospital " + id, 100, availableBeds, oxygen,
+            "Street " + id, "020-5550000", 2, 1);
+        ReflectionTestUtils.setField(hospital, "id", id);
+        List<Location> locations = new ArrayList<>();
+        for (String city : cities) {
+            Location location = new Location();
+            location.setCity(city);
+            locations.add(location);
+        }
+        hospital.setLocations(locations);
+        return hospital;
+    }
+}
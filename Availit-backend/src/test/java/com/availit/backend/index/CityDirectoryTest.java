@@ -0,0 +1,97 @@
+package com.availit.backend.index;
+
+import com.availit.backend.dto.CitySuggestion;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CityDirectoryTest {
+
+    private final CityDirectory directory = new CityDirectory();
+
+    @Test
+    void spellingsThatDifferOnlyInCaseAreOneCity() {
+        directory.rebuild(List.of(
+            hospital(1L, "Pune"), hospital(2L, "PUNE"), hospital(3L, "pune", "Mumbai"), hospital(4L, "mumbai")));
+
+        // the first spelling seen names the city
+        assertEquals(List.of("Mumbai", "Pune"), directory.cityNames());
+        assertEquals(List.of("Pune:3", "Mumbai:2"), suggestions(directory.suggest("", 10)));
+    }
+
+    @Test
+    void aHospitalWithTwoLocationsInOneCityCountsOnce() {
+        directory.rebuild(List.of(hospital(1L, "Pune", "PUNE"), hospital(2L, "Pune")));
+
+        assertEquals(List.of("Pune:2"), suggestions(directory.suggest("p", 10)));
+    }
+
+    @Test
+    void suggestionsMatchAFoldedPrefixMostHospitalsFirst() {
+        directory.rebuild(List.of(
+            hospital(1L, "Nagpur"), hospital(2L, "Nashik"), hospital(3L, "Nashik"), hospital(4L, "Navi Mumbai"),
+            hospital(5L, "Pune")));
+
+        assertEquals(List.of("Nashik:2", "Nagpur:1", "Navi Mumbai:1"), suggestions(directory.suggest("NA", 10)));
+        assertEquals(List.of("Nashik:2", "Nagpur:1"), suggestions(directory.suggest("  na", 2)));
+        assertEquals(List.of("Navi Mumbai:1"), suggestions(directory.suggest("navi m", 10)));
+        assertTrue(directory.suggest("delhi", 10).isEmpty());
+        assertTrue(directory.suggest("n", 0).isEmpty());
+    }
+
+    @Test
+    void citiesAppearAndDisappearWithTheirHospitals() {
+        HospitalAvailability first = hospital(1L, "Pune");
+        HospitalAvailability second = hospital(2L, "pune");
+        directory.rebuild(List.of(first, second));
+
+        directory.apply(first, hospital(1L, "Nagpur"));
+        assertEquals(List.of("Nagpur:1", "Pune:1"), suggestions(directory.suggest("", 10)));
+
+        directory.apply(second, null);
+        assertEquals(List.of("Nagpur"), directory.cityNames());
+
+        // once a city is gone, the next hospital to arrive names it again
+        directory.apply(null, hospital(3L, "PUNE"));
+        assertEquals(List.of("Nagpur", "PUNE"), directory.cityNames());
+    }
+
+    @Test
+    void capacityUpdatesLeaveTheDirectoryAlone() {
+        HospitalAvailability hospital = hospital(1L, "Pune");
+        directory.rebuild(List.of(hospital));
+        Object published = ReflectionTestUtils.getField(directory, "entries");
+
+        HospitalAvailability updated = hospital(1L, "PUNE");
+        updated.setAvailableBeds(0);
+        directory.apply(hospital, updated);
+
+        assertSame(published, ReflectionTestUtils.getField(directory, "entries"));
+    }
+
+    private static List<String> suggestions(List<CitySuggestion> suggestions) {
+        return suggestions.stream().map(s -> s.getCity() + ":" + s.getHospitalCount()).toList();
+    }
+
+    private static HospitalAvailability hospital(Long id, String... cities) {
+        HospitalAvailability hospital = new HospitalAvailability("Hospital " + id, 100, 10, true,
+            "Street " + id, "020-5550000", 2, 1);
+        ReflectionTestUtils.setField(hospital, "id", id);
+        List<Location> locations = new ArrayList<>();
+        for (String city : cities) {
+            Location location = new Location();
+            location.setCity(city);
+            locations.add(location);
+        }
+        hospital.setLocations(locations);
+        return hospital;
+    }
+}
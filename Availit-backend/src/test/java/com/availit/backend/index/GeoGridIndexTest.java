@@ -0,0 +1,106 @@
+package com.availit.backend.index;
+
+import com.availit.backend.dto.NearbyHospital;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoGridIndexTest {
+
+    private final GeoGridIndex index = new GeoGridIndex();
+
+    @Test
+    void haversineMatchesKnownDistances() {
+        assertEquals(111.195, GeoGridIndex.haversineKm(0, 0, 0, 1), 0.001);
+        assertEquals(111.195, GeoGridIndex.haversineKm(10, 20, 11, 20), 0.001);
+        assertEquals(0, GeoGridIndex.haversineKm(18.52, 73.85, 18.52, 73.85), 1e-9);
+        // Pune to Mumbai
+        assertEquals(120, GeoGridIndex.haversineKm(18.5204, 73.8567, 19.0760, 72.8777), 1.0);
+    }
+
+    @Test
+    void neighboursAcrossACellBoundaryAreFound() {
+        // the query sits at the corner of its cell, the hospital just inside the diagonal neighbour
+        index.rebuild(List.of(hospital(1L, 10, new double[] {18.6001, 73.9001})));
+
+        List<NearbyHospital> nearby = index.nearest(18.5999, 73.8999, 0.1, 0, 10);
+
+        assertEquals(List.of(1L), ids(nearby));
+        assertTrue(nearby.get(0).getDistanceKm() < 0.05);
+    }
+
+    @Test
+    void theBoundingBoxCornerIsCutOffByTheRadius() {
+        // both lie inside the 10 km bounding box; only the first is within 10 km
+        index.rebuild(List.of(
+            hospital(1L, 10, new double[] {18.58, 73.85}),
+            hospital(2L, 10, new double[] {18.57, 73.92})));
+
+        assertEquals(List.of(1L), ids(index.nearest(18.5, 73.85, 10, 0, 10)));
+        assertEquals(List.of(1L, 2L), ids(index.nearest(18.5, 73.85, 11, 0, 10)));
+    }
+
+    @Test
+    void searchesWrapAroundTheAntimeridian() {
+        index.rebuild(List.of(hospital(1L, 10, new double[] {0.0, -179.99})));
+
+        List<NearbyHospital> nearby = index.nearest(0.0, 179.99, 5, 0, 10);
+
+        assertEquals(List.of(1L), ids(nearby));
+        assertEquals(2.22, nearby.get(0).getDistanceKm(), 0.01);
+    }
+
+    @Test
+    void closestComeFirstEachHospitalOnceAndOnlyWithEnoughBeds() {
+        index.rebuild(List.of(
+            hospital(1L, 10, new double[] {18.60, 73.85}, new double[] {18.51, 73.85}),
+            hospital(2L, 10, new double[] {18.53, 73.85}),
+            hospital(3L, 1, new double[] {18.50, 73.85}),
+            hospital(4L, 10, new double[] {18.55, 73.85})));
+
+        // hospital 1 is ranked by its nearer location
+        assertEquals(List.of(3L, 1L, 2L, 4L), ids(index.nearest(18.5, 73.85, 20, 0, 10)));
+        assertEquals(List.of(1L, 2L, 4L), ids(index.nearest(18.5, 73.85, 20, 5, 10)));
+        assertEquals(List.of(1L, 2L), ids(index.nearest(18.5, 73.85, 20, 5, 2)));
+        assertTrue(index.nearest(18.5, 73.85, 0, 0, 10).isEmpty());
+    }
+
+    @Test
+    void updatesMoveHospitalsAndDeletesRemoveThem() {
+        HospitalAvailability moving = hospital(1L, 10, new double[] {18.5, 73.85});
+        HospitalAvailability deleted = hospital(2L, 10, new double[] {18.51, 73.85});
+        index.rebuild(List.of(moving, deleted));
+
+        index.apply(moving, hospital(1L, 10, new double[] {28.61, 77.21}));
+        index.apply(deleted, null);
+
+        assertTrue(index.nearest(18.5, 73.85, 10, 0, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.nearest(28.6, 77.2, 10, 0, 10)));
+    }
+
+    private static List<Long> ids(List<NearbyHospital> nearby) {
+        return nearby.stream().map(n -> n.getHospital().getId()).toList();
+    }
+
+    private static HospitalAvailability hospital(Long id, int availableBeds, double[]... coordinates) {
+        HospitalAvailability hospital = new HospitalAvailability("Hospital " + id, 100, availableBeds, true,
+            "Street " + id, "020-5550000", 2, 1);
+        ReflectionTestUtils.setField(hospital, "id", id);
+        List<Location> locations = new ArrayList<>();
+        for (double[] point : coordinates) {
+            Location location = new Location();
+            location.setLatitude(point[0]);
+            location.setLongitude(point[1]);
+            locations.add(location);
+        }
+        hospital.setLocations(locations);
+        return hospital;
+    }
+}
@@ -0,0 +1,92 @@
+package com.availit.backend.index;
+
+import com.availit.backend.model.HospitalAvailability;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramNameIndexTest {
+
+    private final TrigramNameIndex index = new TrigramNameIndex();
+
+    @Test
+    void bestMatchesComeFirstAndTheLimitKeepsTheBest() {
+        index.rebuild(List.of(hospital(1L, "Ruby Hall Clinic"), hospital(2L, "Ruby Hospital"),
+            hospital(3L, "Sahyadri Hospital"), hospital(4L, "Jehangir Hospital")));
+
+        assertEquals(List.of(2L, 1L), ids(index.search("ruby", 10)));
+        // equal scores keep index order
+        assertEquals(List.of(2L, 3L, 4L), ids(index.search("hospital", 10)));
+        assertEquals(List.of(2L, 3L), ids(index.search("hospital", 2)));
+        assertTrue(index.search("hospital", 0).isEmpty());
+    }
+
+    @Test
+    void onlyMatchesAboveTheScoreThresholdAreReturned() {
+        index.rebuild(List.of(hospital(1L, "Ruby Hospital"), hospital(2L, "Jehangir Hospital")));
+
+        // a misspelling shares most trigrams with the name
+        assertEquals(List.of(2L), ids(index.search("jehangr", 10)));
+        // "hostel" shares three of its seven trigrams with "hospital", "hotel" only two of six
+        assertEquals(List.of(1L, 2L), ids(index.search("hostel", 10)));
+        assertTrue(index.search("hotel", 10).isEmpty());
+        assertTrue(index.search("xyzzy", 10).isEmpty());
+    }
+
+    @Test
+    void addressesMatchWithLessWeightThanNames() {
+        HospitalAvailability byAddress = hospital(1L, "City Care");
+        byAddress.setAddress("12 Koregaon Park Road");
+        index.rebuild(List.of(byAddress, hospital(2L, "Koregaon Clinic")));
+
+        assertEquals(List.of(2L, 1L), ids(index.search("koregaon", 10)));
+    }
+
+    @Test
+    void updatesAndDeletesReplaceWhatASearchFinds() {
+        HospitalAvailability ruby = hospital(1L, "Ruby Hospital");
+        HospitalAvailability sahyadri = hospital(2L, "Sahyadri Hospital");
+        index.rebuild(List.of(ruby, sahyadri));
+
+        HospitalAvailability renamed = hospital(1L, "Noble Hospital");
+        index.apply(ruby, renamed);
+        index.apply(sahyadri, null);
+
+        assertTrue(index.search("ruby", 10).isEmpty());
+        assertTrue(index.search("sahyadri", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("noble", 10)));
+        // counts from the previous query do not leak into the next one
+        assertEquals(List.of(1L), ids(index.search("noble", 10)));
+    }
+
+    @Test
+    void searchesKeepWorkingAfterTheIndexGrows() {
+        index.rebuild(List.of(hospital(1L, "Ruby Hospital")));
+        assertEquals(List.of(1L), ids(index.search("ruby", 10)));
+
+        List<HospitalAvailability> many = new ArrayList<>();
+        for (long id = 1; id <= 3000; id++) {
+            many.add(hospital(id, "Hospital " + id));
+        }
+        many.add(hospital(3001L, "Ruby Hospital"));
+        index.rebuild(many);
+
+        assertEquals(List.of(3001L), ids(index.search("ruby", 10)));
+        assertEquals(10, index.search("hospital", 10).size());
+    }
+
+    private static List<Long> ids(List<HospitalAvailability> hospitals) {
+        return hospitals.stream().map(HospitalAvailability::getId).toList();
+    }
+
+    private static HospitalAvailability hospital(Long id, String name) {
+        HospitalAvailability hospital = new HospitalAvailability(name, 100, 10, true, "Street " + id, "020-5550000", 2, 1);
+        ReflectionTestUtils.setField(hospital, "id", id);
+        return hospital;
+    }
+}
@@ -0,0 +1,94 @@
+package com.availit.backend.ingest;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveSourceAdapterTest {
+
+    @Test
+    void parsesDelhiFreeBedReport() throws IOException {
+        List<HospitalAvailability> hospitals = parse(new DelhiDshmAdapter(), "delhi-dshm.html");
+
+        // the header row is not centred
+        assertEquals(4, hospitals.size());
+
+        HospitalAvailability apollo = hospitals.get(0);
+        assertEquals("delhi-dshm:101", apollo.getExternalSourceId());
+        assertEquals("Indraprastha Apollo Hospital", apollo.getHospitalName());
+        assertEquals(72, apollo.getTotalBeds());
+        assertEquals(23, apollo.getAvailableBeds());
+        assertEquals(3, apollo.getIcuBeds());
+        assertEquals(1, apollo.getVentilators());
+        assertTrue(apollo.isOxygenAvailable());
+        assertTrue(apollo.isCapacityReported());
+        assertEquals("011-71791090", apollo.getContactNumber());
+
+        Location location = apollo.getLocations().get(0);
+        assertEquals("Delhi", location.getCity());
+        assertEquals("110001", location.getZipCode());
+
+        HospitalAvailability max = hospitals.get(1);
+        assertEquals("9811000002", max.getContactNumber());
+        assertFalse(max.isOxygenAvailable());
+
+        HospitalAvailability gangaRam = hospitals.get(2);
+        assertEquals(10, gangaRam.getAvailableBeds());
+        assertEquals("011-25750000", gangaRam.getContactNumber());
+
+        // a hospital without a phone number is kept, so the sync does not delist it
+        HospitalAvailability nursingHome = hospitals.get(3);
+        assertEquals("delhi-dshm:104", nursingHome.getExternalSourceId());
+        assertNull(nursingHome.getContactNumber());
+    }
+
+    @Test
+    void parsesBengaluruHospitalCards() throws IOException {
+        List<HospitalAvailability> hospitals = parse(new BengaluruUrbanAdapter(), "bengaluru-urban.html");
+
+        assertEquals(3, hospitals.size());
+
+        HospitalAvailability victoria = hospitals.get(0);
+        assertEquals("bengaluru-urban:victoria-hospital", victoria.getExternalSourceId());
+        assertEquals("Fort Road, Kalasipalya, Bengaluru, Karnataka 560002", victoria.getAddress());
+        assertEquals("080-26701150", victoria.getContactNumber());
+        assertEquals("560002", victoria.getLocations().get(0).getZipCode());
+        assertEquals("Bangalore", victoria.getLocations().get(0).getCity());
+        // the directory has no bed figures, so they are marked unknown rather than zero
+        assertFalse(victoria.isCapacityReported());
+
+        HospitalAvailability bowring = hospitals.get(1);
+        assertEquals("Bowring & Lady Curzon Hospital", bowring.getHospitalName());
+        assertEquals("bengaluru-urban:bowring-lady-curzon-hospital", bowring.getExternalSourceId());
+        assertEquals("560001", bowring.getLocations().get(0).getZipCode());
+
+        HospitalAvailability anekal = hospitals.get(2);
+        assertEquals("bengaluru-urban:primary-health-centre-anekal", anekal.getExternalSourceId());
+        assertNull(anekal.getContactNumber());
+    }
+
+    @Test
+    void phoneNumbersFitTheContactNumberColumn() {
+        assertEquals("080 2670 1150 2670", HtmlLiveSourceAdapter.phone("080 2670 1150 2670 1151 2670"));
+        assertEquals("+91 80 2670 1150", HtmlLiveSourceAdapter.phone("Ph: +91 80 2670 1150"));
+        assertNull(HtmlLiveSourceAdapter.phone("-", "N/A", null));
+    }
+
+    private static List<HospitalAvailability> parse(LiveSourceAdapter adapter, String fixture) throws IOException {
+        try (Reader html = new InputStreamReader(
+                LiveSourceAdapterTest.class.getResourceAsStream("/live/" + fixture), StandardCharsets.UTF_8)) {
+            return adapter.parse(html, "");
+        }
+    }
+}
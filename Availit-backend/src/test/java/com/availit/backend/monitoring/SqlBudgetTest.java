@@ -0,0 +1,116 @@
+package com.availit.backend.monitoring;
+
+import com.availit.backend.exception.SqlBudgetExceededException;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import com.availit.backend.repository.HospitalChangeLog;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Holds the hospital endpoints to the statement budgets in application.properties; a change that
+ * makes one of them issue more statements, such as a lazy collection loaded per row, fails here.
+ */
+@SpringBootTest(properties = "availit.sql.enforce-budgets=true")
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class SqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private HospitalChangeLog changeLog;
+
+    private Long firstId;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        List<HospitalAvailability> hospitals = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            HospitalAvailability hospital = new HospitalAvailability(
+                "Hospital " + i, 100, 10, true, "Street " + i + ", Pune", "020-5550" + i, 5, 2);
+            List<Location> locations = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                Location location = new Location();
+                location.setAddress("Street " + i + "-" + j);
+                location.setCity(j == 0 ? "Pune" : "Mumbai");
+                location.setState("Maharashtra");
+                location.setZipCode("41100" + j);
+                locations.add(location);
+            }
+            hospital.setLocations(locations);
+            hospitals.add(hospital);
+        }
+        List<HospitalAvailability> saved = repository.saveAll(hospitals);
+        changeLog.recordSaved(saved);
+        firstId = saved.get(0).getId();
+    }
+
+    @Test
+    void hospitalEndpointsStayWithinTheirBudgets() throws Exception {
+        assertEquals(2, statements("/api/hospitals/" + firstId));
+        assertEquals(3, statements("/api/hospitals/getAllHospitals?page=1&size=10"));
+        assertEquals(2, statements("/api/hospitals/cursor?size=10"));
+        statements("/api/hospitals/city/Pune");
+        // served from the snapshot once it is loaded
+        assertEquals(0, statements("/api/hospitals/city/Pune"));
+        assertEquals(0, statements("/api/hospitals/cities/stats"));
+        assertEquals(1, statements("/api/hospitals/export"));
+        assertEquals(3, statements("/api/hospitals/changes?since=0&limit=10"));
+    }
+
+    @Test
+    void requestOverBudgetFailsAndRepeatsAreCounted() {
+        SqlStatementRecorder recorder = new SqlStatementRecorder(1000);
+        SqlStatisticsFilter filter = new SqlStatisticsFilter(recorder, "GET /api/hospitals/{id}=2", 3, true, null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/hospitals/7");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/hospitals/{id}");
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(jakarta.servlet.ServletRequest req, jakarta.servlet.ServletResponse res) {
+                for (int id = 1; id <= 4; id++) {
+                    recorder.afterQuery(new ExecutionInfo(), List.of(new QueryInfo(
+                        "select * from location  where hospital_id = " + id)));
+                }
+            }
+        };
+
+        assertThrows(SqlBudgetExceededException.class,
+            () -> filter.doFilter(request, new MockHttpServletResponse(), chain));
+
+        RequestSqlStats stats = (RequestSqlStats) request.getAttribute(RequestSqlStats.ATTRIBUTE);
+        assertEquals(4, stats.getStatements());
+        assertEquals(4, stats.getRepeated(3).get("select * from location where hospital_id = ?"));
+    }
+
+    private int statements(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url)).andExpect(status().isOk()).andReturn();
+        return ((RequestSqlStats) result.getRequest().getAttribute(RequestSqlStats.ATTRIBUTE)).getStatements();
+    }
+}
@@ -0,0 +1,267 @@
+package com.availit.backend.repository;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.config.ReplicaRoutingConfig;
+import com.availit.backend.config.SecondLevelCacheConfig;
+import com.availit.backend.datasource.ReplicaReads;
+import com.availit.backend.dto.CapacityAdjustment;
+import com.availit.backend.dto.CursorPage;
+import com.availit.backend.index.SnapshotIndex;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.service.HospitalAvailabilityService;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = {
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+    "spring.jpa.properties.hibernate.generate_statistics=true",
+    "spring.jpa.show-sql=false"
+})
+@Import({HospitalAvailabilityRepositoryTest.ServiceConfig.class, SecondLevelCacheConfig.class, ReplicaRoutingConfig.class})
+class HospitalAvailabilityRepositoryTest {
+
+    @TestConfiguration
+    @ComponentScan(basePackageClasses = {HospitalAvailabilityService.class, HospitalSnapshotCache.class, SnapshotIndex.class,
+            HospitalBatchWriter.class, ReplicaReads.class},
+        useDefaultFilters = false,
+        includeFilters = @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE,
+            classes = {HospitalAvailabilityService.class, HospitalSnapshotCache.class, SnapshotIndex.class,
+                HospitalBatchWriter.class, HospitalChangeLog.class, ReplicaReads.class}))
+    static class ServiceConfig {
+    }
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private HospitalAvailabilityService service;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private HospitalBatchWriter batchWriter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAllLoadsLocationsInOneStatement() {
+        assertEquals(1, statementsFor(3, () -> repository.findAll()));
+        assertEquals(1, statementsFor(40, () -> repository.findAll()));
+    }
+
+    @Test
+    void findByCityLoadsLocationsInOneStatement() {
+        assertEquals(1, statementsFor(3, () -> repository.findByLocationCityIgnoreCase("PUNE")));
+        assertEquals(1, statementsFor(40, () -> repository.findByLocationCityIgnoreCase("pune")));
+    }
+
+    @Test
+    void pagedListingIsIndependentOfPageSize() {
+        assertEquals(3, statementsFor(40, () -> service.getAllHospitals(PageRequest.of(0, 5)).getContent()));
+        assertEquals(3, statementsFor(40, () -> service.getAllHospitals(PageRequest.of(1, 20, Sort.by("hospitalName"))).getContent()));
+    }
+
+    @Test
+    void pagedListingKeepsRequestedOrder() {
+        seed(10);
+        Page<HospitalAvailability> page = service.getAllHospitals(PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "hospitalName")));
+        assertEquals(List.of("Hospital 9", "Hospital 8", "Hospital 7", "Hospital 6"),
+            page.getContent().stream().map(HospitalAvailability::getHospitalName).toList());
+        assertEquals(10, page.getTotalElements());
+    }
+
+    @Test
+    void cursorPagesCostTheSameAtAnyDepth() {
+        assertEquals(2, statementsFor(40, () -> service.getHospitalPage(
+            HospitalCursor.Sort.HOSPITAL_NAME, false, null, 5, false).getContent()));
+        String deep = service.getHospitalPage(HospitalCursor.Sort.HOSPITAL_NAME, false, null, 30, false).getNextCursor();
+        statistics.clear();
+        service.getHospitalPage(HospitalCursor.Sort.HOSPITAL_NAME, false, deep, 5, false)
+            .getContent().forEach(h -> h.getLocations().forEach(Location::getCity));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void cursorWalksEveryHospitalOnceInOrder() {
+        seed(7);
+        HospitalAvailability unnamed = new HospitalAvailability(null, 100, 3, true, "Street X, Pune", "020-5559999", 1, 1);
+        repository.save(unnamed);
+        entityManager.flush();
+        entityManager.clear();
+
+        List<String> names = new ArrayList<>();
+        String after = null;
+        do {
+            CursorPage<HospitalAvailability> page = service.getHospitalPage(
+                HospitalCursor.Sort.HOSPITAL_NAME, true, after, 3, false);
+            page.getContent().forEach(h -> names.add(h.getHospitalName()));
+            after = page.getNextCursor();
+        } while (after != null);
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 6; i >= 0; i--) {
+            expected.add("Hospital " + i);
+        }
+        expected.add(null);
+        assertEquals(expected, names);
+        assertEquals(8, service.getHospitalPage(HospitalCursor.Sort.AVAILABLE_BEDS, false, null, 3, true).getTotalElements());
+    }
+
+    @Test
+    void publicSnapshotLoadsInOneStatement() {
+        assertEquals(1, statementsFor(40, () -> service.getAllHospitals()));
+    }
+
+    // The cache tests commit, so they run outside the test transaction and clean up after themselves.
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void repeatedFindByIdIsServedFromSecondLevelCache() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(status -> seed(1));
+            Long id = tx.execute(status -> repository.findAll().get(0).getId());
+            tx.executeWithoutResult(status -> repository.findById(id).orElseThrow().getLocations().size());
+            statistics.clear();
+            int locations = tx.execute(status -> repository.findById(id).orElseThrow().getLocations().size());
+            assertEquals(2, locations);
+            assertEquals(0, statistics.getPrepareStatementCount());
+            assertTrue(statistics.getSecondLevelCacheHitCount() >= 3);
+        } finally {
+            tx.executeWithoutResult(status -> repository.deleteAll());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void removedLocationIsNotServedFromCache() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(status -> seed(1));
+            Long id = tx.execute(status -> repository.findAll().get(0).getId());
+            tx.executeWithoutResult(status -> repository.findById(id).orElseThrow().getLocations().size());
+            tx.executeWithoutResult(status -> repository.findById(id).orElseThrow().getLocations().remove(1));
+            assertEquals(List.of("Pune"), tx.execute(status ->
+                repository.findById(id).orElseThrow().getLocations().stream().map(Location::getCity).toList()));
+            assertEquals(1, repository.findByLocationCityIgnoreCase("pune").get(0).getLocations().size());
+            assertTrue(repository.findByLocationCityIgnoreCase("mumbai").isEmpty());
+        } finally {
+            tx.executeWithoutResult(status -> repository.deleteAll());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void batchInsertsEvictCachedCityQueries() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(status -> seed(1));
+            assertEquals(1, repository.findByLocationCityIgnoreCase("Pune").size());
+            statistics.clear();
+            assertEquals(1, repository.findByLocationCityIgnoreCase("Pune").size());
+            assertEquals(1, statistics.getQueryCacheHitCount());
+
+            HospitalAvailability batched = new HospitalAvailability(
+                "Batched", 100, 10, true, "Street B, Pune", "020-5551111", 5, 2);
+            Location location = new Location();
+            location.setAddress("Street B");
+            location.setCity("Pune");
+            location.setState("Maharashtra");
+            location.setZipCode("411001");
+            batched.setLocations(List.of(location));
+            tx.executeWithoutResult(status -> batchWriter.insert(List.of(batched)));
+            assertEquals(2, repository.findByLocationCityIgnoreCase("Pune").size());
+        } finally {
+            tx.executeWithoutResult(status -> repository.deleteAll());
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void capacityAdjustmentKeepsOtherHospitalsCached() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(status -> seed(3));
+            List<Long> ids = tx.execute(status -> repository.findAll().stream().map(HospitalAvailability::getId).toList());
+            ids.forEach(id -> tx.executeWithoutResult(status -> repository.findById(id).orElseThrow()));
+            Cache cache = entityManager.getEntityManagerFactory().getCache();
+            ids.forEach(id -> assertTrue(cache.contains(HospitalAvailability.class, id)));
+
+            CapacityAdjustment admission = new CapacityAdjustment();
+            admission.setAvailableBeds(-1);
+            service.adjustCapacity(ids.get(0), admission);
+
+            assertTrue(cache.contains(HospitalAvailability.class, ids.get(1)));
+            assertTrue(cache.contains(HospitalAvailability.class, ids.get(2)));
+            int availableBeds = tx.execute(status -> repository.findById(ids.get(0)).orElseThrow().getAvailableBeds());
+            assertEquals(9, availableBeds);
+        } finally {
+            tx.executeWithoutResult(status -> repository.deleteAll());
+        }
+    }
+
+    private long statementsFor(int hospitals, Supplier<List<HospitalAvailability>> query) {
+        repository.deleteAll();
+        seed(hospitals);
+        statistics.clear();
+        List<HospitalAvailability> result = query.get();
+        // touch every collection the way JSON serialization would
+        result.forEach(h -> h.getLocations().forEach(Location::getCity));
+        assertFalse(result.isEmpty());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void seed(int count) {
+        for (int i = 0; i < count; i++) {
+            HospitalAvailability hospital = new HospitalAvailability(
+                "Hospital " + i, 100, 10, true, "Street " + i + ", Pune", "020-5550" + i, 5, 2);
+            List<Location> locations = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                Location location = new Location();
+                location.setAddress("Street " + i + "-" + j);
+                location.setCity(j == 0 ? "Pune" : "Mumbai");
+                location.setState("Maharashtra");
+                location.setZipCode("41100" + j);
+                locations.add(location);
+            }
+            hospital.setLocations(locations);
+            repository.save(hospital);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+}
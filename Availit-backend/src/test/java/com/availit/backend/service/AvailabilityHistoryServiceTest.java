@@ -0,0 +1,84 @@
+package com.availit.backend.service;
+
+import com.availit.backend.dto.AvailabilityHistory;
+import com.availit.backend.event.HospitalChangeEvent;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.repository.AvailabilityHistoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JdbcTest(properties = "availit.history.ring-capacity=4")
+@Import({AvailabilityHistoryRepository.class, AvailabilityHistoryService.class})
+class AvailabilityHistoryServiceTest {
+
+    @Autowired
+    private AvailabilityHistoryService historyService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void historyIsTheSameBeforeAndAfterFlushing() {
+        record(1L, 10, true);
+        record(1L, 10, true);
+        record(1L, 6, false);
+        record(1L, 8, true);
+        record(2L, 50, true);
+        long now = System.currentTimeMillis();
+
+        AvailabilityHistory before = historyService.getHistory(1L, now - 60_000, now + 60_000, 1);
+        historyService.flush();
+        AvailabilityHistory after = historyService.getHistory(1L, now - 60_000, now + 60_000, 1);
+
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM availability_history WHERE hospital_id = 1", Long.class));
+        for (AvailabilityHistory history : new AvailabilityHistory[] {before, after}) {
+            AvailabilityHistory.Bucket bucket = history.getBuckets().get(0);
+            // the repeated save is not a change and is not recorded
+            assertEquals(3, bucket.getSamples());
+            assertEquals(6, bucket.getAvailableBeds().getMin());
+            assertEquals(10, bucket.getAvailableBeds().getMax());
+            assertEquals(8.0, bucket.getAvailableBeds().getAvg(), 1e-9);
+            assertEquals(2.0 / 3, bucket.getOxygenAvailableRatio(), 1e-9);
+        }
+    }
+
+    @Test
+    void countsChangesOverwrittenBeforeTheyWereFlushed() {
+        for (int beds = 1; beds <= 6; beds++) {
+            record(3L, beds, true);
+        }
+        assertEquals(2, historyService.getOverwrittenCount());
+
+        historyService.flush();
+        for (int beds = 7; beds <= 10; beds++) {
+            record(3L, beds, true);
+        }
+        assertEquals(2, historyService.getOverwrittenCount());
+    }
+
+    @Test
+    void emptyBucketsAreLeftOut() {
+        record(4L, 5, true);
+        long now = System.currentTimeMillis();
+
+        AvailabilityHistory history = historyService.getHistory(4L, now - 3_600_000, now + 1, 60);
+
+        assertEquals(1, history.getBuckets().size());
+        assertTrue(history.getBuckets().get(0).getStart() <= now);
+        assertEquals(60_001, history.getBucketMs());
+    }
+
+    private void record(Long id, int availableBeds, boolean oxygen) {
+        HospitalAvailability hospital = new HospitalAvailability("Hospital " + id, 100, availableBeds, oxygen,
+            "Street " + id + ", Pune", "020-5550000", 2, 1);
+        ReflectionTestUtils.setField(hospital, "id", id);
+        historyService.onHospitalChange(HospitalChangeEvent.saved(hospital));
+    }
+}
@@ -0,0 +1,158 @@
+package com.availit.backend.service;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class AvailabilityStreamServiceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AvailabilityStreamService streamService;
+
+    @Autowired
+    private HospitalAvailabilityService hospitalService;
+
+    @Autowired
+    private HospitalCsvImportService importService;
+
+    @Value("${availit.stream.max-queued-events}")
+    private int maxQueuedEvents;
+
+    @Test
+    void subscribersOnlyReceiveTheirCitiesAndOnlyChangedFields() throws Exception {
+        MockHttpServletResponse pune = subscribe("/api/hospitals/stream?cities=PUNE");
+        MockHttpServletResponse everything = subscribe("/api/hospitals/stream");
+
+        HospitalAvailability created = hospitalService.createHospital(hospital("Streamed", "Pune"));
+        hospitalService.createHospital(hospital("Elsewhere", "Mumbai"));
+        created.setAvailableBeds(3);
+        hospitalService.updateHospital(created.getId(), created);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> count(everything, "event:availability") == 3);
+        await().atMost(Duration.ofSeconds(5)).until(() -> count(pune, "event:availability") == 2);
+        String events = pune.getContentAsString();
+        assertFalse(events.contains("Elsewhere"));
+        assertTrue(events.contains("\"type\":\"UPDATED\""));
+        assertTrue(events.contains("\"changes\":{\"availableBeds\":3}"));
+    }
+
+    @Test
+    void aHospitalMovingBetweenCitiesEntersOneViewAndLeavesTheOther() throws Exception {
+        HospitalAvailability mover = hospitalService.createHospital(hospital("Relocating", "Indore"));
+        MockHttpServletResponse indore = subscribe("/api/hospitals/stream?cities=Indore");
+        MockHttpServletResponse bhopal = subscribe("/api/hospitals/stream?cities=Bhopal");
+        MockHttpServletResponse both = subscribe("/api/hospitals/stream?cities=Indore,Bhopal");
+
+        importService.importCsv(new StringReader("hospital_name,address,city\nRelocating,Street Relocating,Bhopal\n"));
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> count(indore, "event:availability") == 1
+            && count(bhopal, "event:availability") == 1 && count(both, "event:availability") == 1);
+        assertTrue(indore.getContentAsString().contains("\"type\":\"DELETED\",\"hospitalId\":" + mover.getId()));
+        String entered = bhopal.getContentAsString();
+        assertTrue(entered.contains("\"type\":\"CREATED\",\"hospitalId\":" + mover.getId()));
+        assertTrue(entered.contains("\"hospitalName\":\"Relocating\""));
+        assertTrue(entered.contains("\"availableBeds\":10"));
+        String moved = both.getContentAsString();
+        assertTrue(moved.contains("\"type\":\"UPDATED\",\"hospitalId\":" + mover.getId()));
+        assertTrue(moved.contains("\"changes\":{\"locations\":[{\"address\":\"Street Relocating\",\"city\":\"Bhopal\""));
+    }
+
+    @Test
+    void heartbeatsReachEverySubscriber() throws Exception {
+        MockHttpServletResponse pune = subscribe("/api/hospitals/stream?cities=Pune");
+        MockHttpServletResponse delhi = subscribe("/api/hospitals/stream?cities=Delhi,Noida");
+
+        streamService.sendHeartbeats();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> count(pune, ":keepalive") == 1 && count(delhi, ":keepalive") == 1);
+    }
+
+    @Test
+    void aSubscriberWhoseQueueOverflowsIsDisconnected() throws Exception {
+        ExecutorService senders = (ExecutorService) ReflectionTestUtils.getField(streamService, "senders");
+        ExecutorService stalled = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        stalled.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ReflectionTestUtils.setField(streamService, "senders", stalled);
+        try {
+            int before = streamService.getSubscriberCount();
+            subscribe("/api/hospitals/stream?cities=Surat");
+            assertEquals(before + 1, streamService.getSubscriberCount());
+
+            // nothing is sent while the senders are stuck, so every heartbeat stays queued
+            for (int i = 0; i < maxQueuedEvents; i++) {
+                streamService.sendHeartbeats();
+            }
+            assertEquals(before + 1, streamService.getSubscriberCount());
+            streamService.sendHeartbeats();
+
+            // every subscriber was stuck behind the same senders, so all of them overflowed
+            assertEquals(0, streamService.getSubscriberCount());
+        } finally {
+            ReflectionTestUtils.setField(streamService, "senders", senders);
+            release.countDown();
+            stalled.shutdown();
+        }
+    }
+
+    private MockHttpServletResponse subscribe(String path) throws Exception {
+        return mockMvc.perform(get(path)).andExpect(request().asyncStarted()).andReturn().getResponse();
+    }
+
+    private static int count(MockHttpServletResponse response, String text) throws Exception {
+        String content = response.getContentAsString();
+        int count = 0;
+        for (int i = content.indexOf(text); i >= 0; i = content.indexOf(text, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static HospitalAvailability hospital(String name, String city) {
+        HospitalAvailability hospital = new HospitalAvailability(name, 50, 10, true, "Street " + name, "020-5550000", 4, 2);
+        Location location = new Location();
+        location.setAddress("Street " + name);
+        location.setCity(city);
+        location.setState("State");
+        location.setZipCode("411001");
+        List<Location> locations = new ArrayList<>();
+        locations.add(location);
+        hospital.setLocations(locations);
+        return hospital;
+    }
+}
@@ -0,0 +1,145 @@
+package com.availit.backend.service;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.dto.BulkIngestReport;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "availit.bulk.chunk-size=500"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class HospitalBulkIngestServiceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HospitalBulkIngestService ingestService;
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private HospitalSnapshotCache snapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        snapshotCache.invalidateAll();
+    }
+
+    @Test
+    void chunksAreCommittedWhileTheBodyIsStillBeingRead() throws Exception {
+        AtomicLong storedWhenGenerating1100 = new AtomicLong(-1);
+        BulkIngestReport report = ingestService.ingest(generated(1200, i -> {
+            if (i == 1100) {
+                storedWhenGenerating1100.set(repository.count());
+            }
+            return hospital(i, "gen:" + i);
+        }));
+
+        assertEquals(1200, report.getInserted());
+        assertEquals(List.of(0, 500, 1000), report.getChunks().stream().map(BulkIngestReport.ChunkResult::getFirstIndex).toList());
+        assertEquals(List.of(500, 500, 200), report.getChunks().stream().map(BulkIngestReport.ChunkResult::getSize).toList());
+        // the body is never held whole: two chunks were already written before the rest was produced
+        assertEquals(1000, storedWhenGenerating1100.get());
+        assertEquals(1200, snapshotCache.getAllHospitals().size());
+    }
+
+    @Test
+    void aFailingChunkDoesNotUndoTheOthers() throws Exception {
+        BulkIngestReport report = ingestService.ingest(generated(1200, i -> hospital(i, i == 601 ? "gen:600" : "gen:" + i)));
+
+        assertEquals(1, report.getFailedChunks());
+        assertNotNull(report.getChunks().get(1).getError());
+        assertEquals(0, report.getChunks().get(1).getInserted());
+        assertEquals(700, report.getInserted());
+        assertEquals(700, repository.count());
+        assertNull(report.getError());
+    }
+
+    @Test
+    void elementsThatAreNotHospitalsAreRejectedOneByOne() throws Exception {
+        String body = "[" + hospital(0, "x:0") + ", 5, [1, 2], {\"hospitalName\": \"Bad\", \"availableBeds\": \"many\"}, "
+            + "{\"hospitalName\": \"No contact\", \"address\": \"Street 9\"}, " + hospital(1, "x:1") + "]";
+
+        BulkIngestReport report = ingestService.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, report.getInserted());
+        assertEquals(4, report.getRejected());
+        List<String> rejections = report.getChunks().get(0).getRejections();
+        assertEquals(List.of("[1] not a JSON object", "[2] not a JSON object"), rejections.subList(0, 2));
+        assertTrue(rejections.get(2).startsWith("[3] "));
+        assertTrue(rejections.get(3).startsWith("[4] contactNumber"));
+    }
+
+    @Test
+    void malformedJsonPartWayReportsWhatWasWritten() throws Exception {
+        String body = "[" + hospital(0, "x:0") + ", " + hospital(1, "x:1") + ", {\"hospitalName\": \"Cut";
+
+        mockMvc.perform(post("/api/hospitals/bulk/ingest").contentType("application/json").content(body))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.inserted").value(2))
+            .andExpect(jsonPath("$.stoppedAtIndex").value(2))
+            .andExpect(jsonPath("$.error").isString());
+
+        assertEquals(2, repository.count());
+    }
+
+    @Test
+    void bodyThatIsNotAnArrayIsRejected() throws Exception {
+        mockMvc.perform(post("/api/hospitals/bulk/ingest").contentType("application/json").content("{}"))
+            .andExpect(status().isBadRequest());
+    }
+
+    /** A JSON array produced one element at a time as the parser asks for more input. */
+    private static InputStream generated(int count, IntFunction<String> element) {
+        Enumeration<InputStream> parts = new Enumeration<>() {
+            private int next = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next <= count;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                int i = next++;
+                String part = i < 0 ? "[" : i == count ? "]" : (i > 0 ? "," : "") + element.apply(i);
+                return new ByteArrayInputStream(part.getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        return new SequenceInputStream(parts);
+    }
+
+    private static String hospital(int i, String externalId) {
+        return "{\"hospitalName\": \"Hospital " + i + "\", \"totalBeds\": 50, \"availableBeds\": 10, "
+            + "\"oxygenAvailable\": true, \"address\": \"Street " + i + ", Pune\", \"contactNumber\": \"020-5550000\", "
+            + "\"icuBeds\": 4, \"ventilators\": 2, \"externalSourceId\": \"" + externalId + "\"}";
+    }
+}
@@ -0,0 +1,255 @@
+package com.availit.backend.service;
+
+import com.availit.backend.dto.CapacityAdjustment;
+import com.availit.backend.dto.HospitalChanges;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import com.availit.backend.repository.HospitalChangeLog;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class HospitalChangeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HospitalAvailabilityService service;
+
+    @Autowired
+    private HospitalCsvImportService importService;
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private HospitalChangeLog changeLog;
+
+    @Test
+    void everyKindOfWriteMovesTheHospitalToANewVersion() throws Exception {
+        HospitalAvailability created = service.createHospital(hospital("Versioned", "Pune"));
+        long v1 = repository.findById(created.getId()).orElseThrow().getChangeVersion();
+        assertEquals(v1, created.getChangeVersion());
+
+        created.setAvailableBeds(4);
+        long v2 = service.updateHospital(created.getId(), created).getChangeVersion();
+        CapacityAdjustment admission = new CapacityAdjustment();
+        admission.setAvailableBeds(-1);
+        long v3 = service.adjustCapacity(created.getId(), admission).getChangeVersion();
+        importService.importCsv(new StringReader("hospital_name,address,available_beds\nVersioned,Street Versioned,9\n"
+            + "Imported,Street Imported,1\n"));
+        HospitalAvailability imported = repository.findById(created.getId()).orElseThrow();
+
+        assertTrue(v1 < v2 && v2 < v3 && v3 < imported.getChangeVersion());
+        assertEquals(imported.getChangeVersion(), service.getHospitalById(created.getId()).getChangeVersion());
+        // the snapshot serves the stamped copy, not the one read before the commit
+        assertEquals(imported.getChangeVersion(), service.getHospitalsByCity("Pune").stream()
+            .filter(h -> h.getId().equals(created.getId())).findFirst().orElseThrow().getChangeVersion());
+    }
+
+    @Test
+    void changesSinceAWatermarkIncludeWritesAndDeletions() {
+        HospitalAvailability kept = service.createHospital(hospital("Kept", "Nagpur"));
+        HospitalAvailability updated = service.createHospital(hospital("Updated", "Nagpur"));
+        HospitalAvailability deleted = service.createHospital(hospital("Deleted", "Nagpur"));
+        long watermark = deleted.getChangeVersion();
+
+        updated.setAvailableBeds(1);
+        service.updateHospital(updated.getId(), updated);
+        service.deleteHospital(deleted.getId());
+        HospitalChanges changes = service.getChanges(watermark, null, 100);
+
+        assertEquals(List.of(updated.getId()), changes.getChanged().stream().map(HospitalAvailability::getId).toList());
+        assertEquals(List.of(deleted.getId()), changes.getDeleted());
+        assertFalse(changes.isHasMore());
+        assertTrue(changes.getVersion() > watermark);
+        HospitalChanges none = service.getChanges(changes.getVersion(), null, 100);
+        assertTrue(none.getChanged().isEmpty() && none.getDeleted().isEmpty());
+        assertEquals(changes.getVersion(), none.getVersion());
+        assertTrue(kept.getChangeVersion() <= watermark);
+    }
+
+    @Test
+    void pagesFollowVersionOrderAndCanBeFilteredByCity() {
+        long start = service.getChanges(0, null, 5000).getVersion();
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            created.add(service.createHospital(hospital("Paged " + i, i % 2 == 0 ? "Indore" : "Bhopal")).getId());
+        }
+
+        List<Long> seen = new ArrayList<>();
+        HospitalChanges page = new HospitalChanges(List.of(), List.of(), start, true);
+        while (page.isHasMore()) {
+            page = service.getChanges(page.getVersion(), null, 2);
+            assertTrue(page.getChanged().size() <= 2);
+            page.getChanged().forEach(h -> seen.add(h.getId()));
+        }
+        assertEquals(created, seen);
+
+        List<String> indore = service.getChanges(start, "indore", 100).getChanged().stream()
+            .map(HospitalAvailability::getHospitalName).toList();
+        assertEquals(List.of("Paged 0", "Paged 2", "Paged 4"), indore);
+    }
+
+    @Test
+    void unchangedResponsesAreNotModified() throws Exception {
+        HospitalAvailability hospital = service.createHospital(hospital("Tagged", "Surat"));
+        String path = "/api/hospitals/" + hospital.getId();
+        String tag = mockMvc.perform(get(path)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        String cityTag = mockMvc.perform(get("/api/hospitals/city/Surat")).andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(path).header("If-None-Match", tag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        service.createHospital(hospital("Elsewhere", "Vadodara"));
+        mockMvc.perform(get("/api/hospitals/city/Surat").header("If-None-Match", cityTag))
+            .andExpect(status().isNotModified());
+
+        hospital.setAvailableBeds(2);
+        service.updateHospital(hospital.getId(), hospital);
+
+        String newTag = mockMvc.perform(get(path).header("If-None-Match", tag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.availableBeds").value(2))
+            .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(tag, newTag);
+        mockMvc.perform(get("/api/hospitals/city/Surat").header("If-None-Match", cityTag))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void hospitalsThatLeaveALiveFeedAreRemovedFromIt() {
+        HospitalAvailability stays = external("feed:stays", "Stays", "Jaipur", true);
+        HospitalAvailability leaves = external("feed:leaves", "Leaves", "Jaipur", true);
+        service.syncExternalHospitals("feed", List.of(stays, leaves));
+        long watermark = service.getChanges(0, null, 5000).getVersion();
+        Long leavingId = repository.findAll().stream()
+            .filter(h -> "feed:leaves".equals(h.getExternalSourceId())).findFirst().orElseThrow().getId();
+
+        assertEquals(0, service.syncExternalHospitals("feed", List.of()));
+        assertEquals(1, service.syncExternalHospitals("feed", List.of(external("feed:stays", "Stays", "Jaipur", true))));
+
+        assertTrue(repository.findById(leavingId).isEmpty());
+        assertEquals(List.of(leavingId), service.getChanges(watermark, null, 100).getDeleted());
+        assertEquals(List.of("Stays"), service.getHospitalsByCity("Jaipur").stream()
+            .map(HospitalAvailability::getHospitalName).toList());
+    }
+
+    @Test
+    void liveHospitalsWithoutAPhoneNumberAreKept() {
+        HospitalAvailability unlisted = external("phone:unlisted", "Unlisted", "Bikaner", true);
+        unlisted.setContactNumber(null);
+        service.syncExternalHospitals("phone", List.of(unlisted));
+
+        HospitalAvailability stored = service.getHospitalsByCity("Bikaner").get(0);
+        assertNull(stored.getContactNumber());
+
+        HospitalAvailability fuller = external("phone:unlisted", "Unlisted", "Bikaner", true);
+        fuller.setContactNumber(null);
+        fuller.setAvailableBeds(3);
+        assertEquals(1, service.syncExternalHospitals("phone", List.of(fuller)));
+        assertEquals(3, repository.findById(stored.getId()).orElseThrow().getAvailableBeds());
+
+        // hospitals created through the API still need one
+        HospitalAvailability submitted = hospital("Submitted", "Bikaner");
+        submitted.setContactNumber(null);
+        assertThrows(ConstraintViolationException.class, () -> service.createHospital(submitted));
+    }
+
+    @Test
+    void hospitalsWithoutReportedCapacityAreLeftOutOfCapacityQueries() {
+        service.syncExternalHospitals("directory", List.of(external("directory:listed", "Listed", "Kota", false)));
+
+        assertEquals(1, service.getHospitalsByCity("Kota").stream()
+            .filter(h -> !h.isCapacityReported()).count());
+        assertTrue(service.filterHospitals("Kota", 0, 0, 0, null, 100).isEmpty());
+        assertNull(service.getCityStats("Kota"));
+    }
+
+    @Test
+    void aHospitalThatLeavesACityIsRemovedFromThatCitysFeed() throws Exception {
+        HospitalAvailability mover = service.createHospital(hospital("Mover", "Udaipur"));
+        long watermark = mover.getChangeVersion();
+
+        importService.importCsv(new StringReader("hospital_name,address,city\nMover,Street Mover,Ajmer\n"));
+
+        HospitalChanges udaipur = service.getChanges(watermark, "UDAIPUR", 100);
+        assertTrue(udaipur.getChanged().isEmpty());
+        assertEquals(List.of(mover.getId()), udaipur.getDeleted());
+        assertEquals(List.of(mover.getId()), service.getChanges(watermark, "ajmer", 100).getChanged().stream()
+            .map(HospitalAvailability::getId).toList());
+        // everyone else just sees the hospital change
+        HospitalChanges all = service.getChanges(watermark, null, 100);
+        assertEquals(List.of(mover.getId()), all.getChanged().stream().map(HospitalAvailability::getId).toList());
+        assertTrue(all.getDeleted().isEmpty());
+        assertTrue(service.getChanges(udaipur.getVersion(), "udaipur", 100).getDeleted().isEmpty());
+    }
+
+    @Test
+    void watermarksOlderThanPurgedRemovalsMustSyncAgain() throws Exception {
+        HospitalAvailability deleted = service.createHospital(hospital("Purged", "Kochi"));
+        long watermark = deleted.getChangeVersion();
+        service.deleteHospital(deleted.getId());
+        long afterDeletion = service.getChanges(watermark, null, 100).getVersion();
+
+        assertTrue(changeLog.purgeRemovalsBefore(Instant.now().plusSeconds(1)) > 0);
+
+        mockMvc.perform(get("/api/hospitals/changes?since=" + watermark)).andExpect(status().isGone());
+        assertTrue(service.getChanges(afterDeletion, null, 100).getDeleted().isEmpty());
+        assertTrue(service.getChanges(0, null, 5000).getDeleted().isEmpty());
+    }
+
+    @Test
+    void changesRejectsBadArguments() throws Exception {
+        mockMvc.perform(get("/api/hospitals/changes?since=-1")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hospitals/changes?limit=0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/hospitals/changes?since=0&limit=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.version").isNumber());
+    }
+
+    private static HospitalAvailability external(String externalId, String name, String city, boolean capacityReported) {
+        HospitalAvailability hospital = hospital(name, city);
+        hospital.setExternalSourceId(externalId);
+        hospital.setCapacityReported(capacityReported);
+        return hospital;
+    }
+
+    private static HospitalAvailability hospital(String name, String city) {
+        HospitalAvailability hospital = new HospitalAvailability(name, 50, 10, true, "Street " + name, "020-5550000", 4, 2);
+        Location location = new Location();
+        location.setAddress("Street " + name);
+        location.setCity(city);
+        location.setState("State");
+        location.setZipCode("411001");
+        List<Location> locations = new ArrayList<>();
+        locations.add(location);
+        hospital.setLocations(locations);
+        return hospital;
+    }
+}
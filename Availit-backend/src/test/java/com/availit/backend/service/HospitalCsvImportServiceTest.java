@@ -0,0 +1,186 @@
+package com.availit.backend.service;
+
+import com.availit.backend.cache.HospitalSnapshotCache;
+import com.availit.backend.dto.ImportReport;
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "availit.bulk.chunk-size=500"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class HospitalCsvImportServiceTest {
+
+    private static final String HEADER = "external_source_id,hospital_name,address,contact_number,available_beds,city,state,zip_code\n";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HospitalCsvImportService importService;
+
+    @Autowired
+    private HospitalExportService exportService;
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private HospitalSnapshotCache snapshotCache;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        HospitalAvailability dshm = hospital("LNJP Hospital", "Jawahar Lal Nehru Marg, Delhi", "Delhi");
+        dshm.setExternalSourceId("delhi-dshm:1");
+        repository.save(dshm);
+        repository.save(hospital("City Care", "12 MG Road, Pune", "Pune"));
+        repository.save(hospital("Ruby Hall", "40 Sassoon Road, Pune", "Pune"));
+        // seeded behind the snapshot's back
+        snapshotCache.invalidateAll();
+    }
+
+    @Test
+    void rowsAreMatchedByExternalIdOrByNameAndAddress() throws Exception {
+        ImportReport report = importService.importCsv(new StringReader(HEADER
+            + "delhi-dshm:1,,,,7,,,\n"
+            + ",CITY CARE,\"12, MG road  Pune\",,3,,,\n"
+            + ",Ruby Hall,40 Sassoon Road Pune,,10,,,\n"
+            + ",Sahyadri,\"30 Karve Road, Pune\",020-5550100,12,Pune,Maharashtra,411004\n"
+            + ",Jehangir,32 Sassoon Road,020-5550101,many,Pune,Maharashtra,411001\n"
+            + ",Noble,,020-5550102,4,Pune,Maharashtra,411013\n"));
+
+        assertEquals(1, report.getInserted());
+        assertEquals(2, report.getUpdated());
+        assertEquals(1, report.getUnchanged());
+        assertEquals(2, report.getRejected());
+        assertEquals(List.of("line 6: available_beds is not a whole number: many",
+            "line 7: address or external_source_id is required to match the hospital"), report.getRejections());
+
+        assertEquals(4, repository.count());
+        assertEquals(7, find("LNJP Hospital").getAvailableBeds());
+        assertEquals(3, find("City Care").getAvailableBeds());
+        assertEquals("12 MG Road, Pune", find("City Care").getAddress());
+        HospitalAvailability inserted = find("Sahyadri");
+        assertEquals(12, inserted.getAvailableBeds());
+        assertEquals("Maharashtra", inserted.getLocations().get(0).getState());
+        assertEquals("30 Karve Road, Pune", inserted.getLocations().get(0).getAddress());
+        // later readers see the import without a reload
+        assertEquals(3, snapshotCache.getAllHospitals().stream()
+            .filter(h -> h.getHospitalName().equals("City Care")).findFirst().orElseThrow().getAvailableBeds());
+    }
+
+    @Test
+    void reimportingAnExportChangesNothing() throws Exception {
+        ByteArrayOutputStream export = new ByteArrayOutputStream();
+        exportService.export(null, HospitalExportService.Format.CSV, export);
+
+        ImportReport report = importService.importCsv(new StringReader(export.toString(StandardCharsets.UTF_8)));
+
+        assertEquals(3, report.getUnchanged());
+        assertEquals(0, report.getInserted() + report.getUpdated() + report.getRejected());
+    }
+
+    @Test
+    void repeatedRowsAreRejectedWithinAChunk() throws Exception {
+        ImportReport report = importService.importCsv(new StringReader(HEADER
+            + ",Sahyadri,30 Karve Road,020-5550100,12,Pune,Maharashtra,411004\n"
+            + ",Sahyadri,30 Karve Road.,020-5550100,11,Pune,Maharashtra,411004\n"
+            + ",Ruby Hall,40 Sassoon Road Pune,,10,,,\n"
+            + ",Ruby Hall,40 Sassoon Road Pune,,9,,,\n"));
+
+        assertEquals(1, report.getInserted());
+        assertEquals(0, report.getUpdated());
+        assertEquals(1, report.getUnchanged());
+        assertEquals(List.of("line 3: same hospital as line 2", "line 5: same hospital as line 4"), report.getRejections());
+    }
+
+    @Test
+    void largeFilesAreWrittenInChunksAndOnlyChangesAreWritten() throws Exception {
+        int rows = 2000;
+        assertEquals(rows, importService.importCsv(generated(rows, 0)).getInserted());
+
+        ImportReport report = importService.importCsv(generated(rows, 1));
+
+        assertEquals(rows / 2, report.getUpdated());
+        assertEquals(rows / 2, report.getUnchanged());
+        assertEquals(rows + 3, repository.count());
+        assertEquals(rows + 3, snapshotCache.getAllHospitals().size());
+    }
+
+    @Test
+    void spreadsheetCsvIsAcceptedOverHttp() throws Exception {
+        String csv = "\uFEFFHospital Name;Address;Phone;Vacant Beds;Oxygen;City;State;Pincode\r\n"
+            + "Ruby Hall;40 Sassoon Road, Pune;;15;no;;;\r\n"
+            + "\"Inlaks\r\nBudhrani\";\"7-8 Koregaon Park; Pune\";020-5550103;6;yes;Pune;Maharashtra;411001\r\n"
+            + ";;;;;;;\r\n";
+
+        mockMvc.perform(post("/api/hospitals/import").contentType("text/csv").content(csv.getBytes(StandardCharsets.UTF_8)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.inserted").value(1))
+            .andExpect(jsonPath("$.updated").value(1))
+            .andExpect(jsonPath("$.rejected").value(0));
+
+        assertEquals(15, find("Ruby Hall").getAvailableBeds());
+        assertFalse(find("Ruby Hall").isOxygenAvailable());
+        assertEquals("7-8 Koregaon Park; Pune", find("Inlaks\r\nBudhrani").getAddress());
+    }
+
+    @Test
+    void fileWithoutAHospitalColumnIsRejected() throws Exception {
+        mockMvc.perform(post("/api/hospitals/import").contentType("text/csv").content("city,beds\nPune,4\n"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private static Reader generated(int rows, int revision) {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < rows; i++) {
+            int beds = i % 2 == 1 ? 10 + revision : 10;
+            csv.append("gen:").append(i).append(",Generated ").append(i).append(",Street ").append(i)
+                .append(",020-555").append(i).append(',').append(beds).append(",Mumbai,Maharashtra,400001\n");
+        }
+        return new StringReader(csv.toString());
+    }
+
+    private HospitalAvailability find(String name) {
+        return repository.findAll().stream()
+            .filter(h -> h.getHospitalName().equals(name))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    private static HospitalAvailability hospital(String name, String address, String city) {
+        HospitalAvailability hospital = new HospitalAvailability(name, 50, 10, true, address, "020-5550000", 4, 2);
+        Location location = new Location();
+        location.setAddress(address);
+        location.setCity(city);
+        location.setState("State");
+        location.setZipCode("411001");
+        List<Location> locations = new ArrayList<>();
+        locations.add(location);
+        hospital.setLocations(locations);
+        return hospital;
+    }
+}
@@ -0,0 +1,188 @@
+package com.availit.backend.service;
+
+import com.availit.backend.model.HospitalAvailability;
+import com.availit.backend.model.Location;
+import com.availit.backend.repository.HospitalAvailabilityRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "availit.export.fetch-size=50",
+    "management.server.port=0"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class HospitalExportServiceTest {
+
+    private static final int HOSPITALS = 300;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private HospitalExportService exportService;
+
+    @Autowired
+    private HospitalAvailabilityRepository repository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        List<HospitalAvailability> hospitals = new ArrayList<>();
+        for (int i = 0; i < HOSPITALS; i++) {
+            HospitalAvailability hospital = new HospitalAvailability(
+                "Hospital " + i, 100, i % 50, true, "Street " + i + ", Pune", "020-5550" + i, 5, 2);
+            List<Location> locations = new ArrayList<>();
+            for (int j = 0; j < 2; j++) {
+                Location location = new Location();
+                location.setAddress("Street " + i + "-" + j);
+                location.setCity(i % 3 == 0 ? (j == 0 ? "Delhi" : "Noida") : (j == 0 ? "Pune" : "Mumbai"));
+                location.setState("State");
+                location.setZipCode("41100" + j);
+                locations.add(location);
+            }
+            hospital.setLocations(locations);
+            hospitals.add(hospital);
+        }
+        hospitals.get(1).setHospitalName("Sassoon \"General\", Pune");
+        repository.saveAll(hospitals);
+    }
+
+    @Test
+    void persistenceContextStaysFlatWhileExporting() throws Exception {
+        int[] maxManaged = new int[1];
+        OutputStream probe = new OutputStream() {
+            @Override
+            public void write(int b) {
+                track();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                track();
+            }
+
+            private void track() {
+                int managed = entityManager.unwrap(SessionImplementor.class)
+                    .getPersistenceContextInternal().getNumberOfManagedEntities();
+                maxManaged[0] = Math.max(maxManaged[0], managed);
+            }
+        };
+
+        assertEquals(HOSPITALS, exportService.export(null, HospitalExportService.Format.NDJSON, probe));
+        // one hospital and its locations at a time, not the whole table
+        assertTrue(maxManaged[0] <= 6, "managed entities peaked at " + maxManaged[0]);
+    }
+
+    @Test
+    void ndjsonHasOneHospitalPerLineInIdOrder() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/hospitals/export"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson"))
+            .andReturn();
+        String[] lines = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n");
+
+        assertEquals(HOSPITALS, lines.length);
+        long previous = 0;
+        for (String line : lines) {
+            JsonNode hospital = objectMapper.readTree(line);
+            assertTrue(hospital.get("id").asLong() > previous);
+            assertEquals(2, hospital.get("locations").size());
+            previous = hospital.get("id").asLong();
+        }
+    }
+
+    @Test
+    void csvIsFilteredByCityAndQuoted() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/hospitals/export?format=csv&city=PUNE"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Disposition", "attachment; filename=\"hospitals.csv\""))
+            .andReturn();
+        String[] rows = result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\r\n");
+
+        assertEquals("id,hospital_name,total_beds,available_beds,icu_beds,ventilators,oxygen_available,address,"
+            + "contact_number,external_source_id,city,state,zip_code,latitude,longitude", rows[0]);
+        assertEquals(HOSPITALS - HOSPITALS / 3, rows.length - 1);
+        assertTrue(rows[1].contains(",\"Sassoon \"\"General\"\", Pune\",100,1,5,2,true,\"Street 1, Pune\","), rows[1]);
+        assertTrue(rows[1].endsWith(",Pune,State,411000,,"), rows[1]);
+    }
+
+    @Test
+    void exportIsGzippedWhenAccepted() throws Exception {
+        HttpResponse<byte[]> response = export("gzip, deflate");
+        assertEquals(200, response.statusCode());
+        assertEquals(Optional.of("gzip"), response.headers().firstValue("Content-Encoding"));
+        byte[] body;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            body = in.readAllBytes();
+        }
+
+        assertEquals(HOSPITALS / 3, new String(body, StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    void exportIsNotGzippedWhenGzipIsRefused() throws Exception {
+        HttpResponse<byte[]> response = export("gzip;q=0, identity");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+        assertEquals(HOSPITALS / 3, new String(response.body(), StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    void unknownFormatIsRejected() throws Exception {
+        mockMvc.perform(get("/api/hospitals/export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportIsWrittenToTheStreamGiven() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertEquals(HOSPITALS / 3, exportService.export(List.of(" delhi "), HospitalExportService.Format.CSV, out));
+        assertEquals(HOSPITALS / 3 + 1, out.toString(StandardCharsets.UTF_8).split("\r\n").length);
+    }
+
+    private HttpResponse<byte[]> export(String acceptEncoding) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/hospitals/export?city=Delhi,Noida"))
+            .header("Accept-Encoding", acceptEncoding)
+            .build();
+        return HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
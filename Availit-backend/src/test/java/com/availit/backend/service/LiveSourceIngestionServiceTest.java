@@ -0,0 +1,90 @@
+package com.availit.backend.service;
+
+import com.availit.backend.dto.LiveSourceStatus;
+import com.availit.backend.ingest.DelhiDshmAdapter;
+import com.availit.backend.ingest.LiveSourceAdapter;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LiveSourceIngestionServiceTest {
+
+    private final LiveSourceIngestionService service = new LiveSourceIngestionService();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger requests = new AtomicInteger();
+    private HttpServer portal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // answers at once with headers and the start of a page, then stops sending
+        portal = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        portal.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write("<html><body><table class=\"DataGridBody\">".getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        portal.start();
+        ReflectionTestUtils.setField(service, "timeoutMs", 300L);
+        ReflectionTestUtils.setField(service, "userAgent", "test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        portal.stop(0);
+        service.shutdown();
+    }
+
+    @Test
+    void aPortalThatStallsMidBodyTimesOut() {
+        LiveSourceAdapter adapter = new DelhiDshmAdapter();
+        ReflectionTestUtils.setField(adapter, "url", "http://localhost:" + portal.getAddress().getPort() + "/report");
+
+        long started = System.nanoTime();
+        LiveSourceStatus status = service.refresh(adapter);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertEquals("timed out after 300 ms", status.getError());
+        assertTrue(elapsedMs < 5000, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    void refreshesRunOffTheSchedulerThread() {
+        LiveSourceAdapter adapter = new DelhiDshmAdapter();
+        ReflectionTestUtils.setField(adapter, "url", "http://localhost:" + portal.getAddress().getPort() + "/report");
+        ReflectionTestUtils.setField(service, "adapters", List.of(adapter));
+        ReflectionTestUtils.setField(service, "enabled", true);
+        ReflectionTestUtils.setField(service, "timeoutMs", 2000L);
+
+        long started = System.nanoTime();
+        service.refreshAll();
+        // a second round while the first is still waiting on the portal is skipped
+        service.refreshAll();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(elapsedMs < 1000, "took " + elapsedMs + " ms");
+        await().atMost(Duration.ofSeconds(5)).until(() -> service.getStatuses().iterator().next().getError() != null);
+        assertEquals(1, requests.get());
+    }
+}
@@ -0,0 +1,59 @@
+package com.availit.backend.service;
+
+import com.availit.backend.exception.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService hashing;
+
+    @AfterEach
+    void tearDown() {
+        hashing.shutdown();
+    }
+
+    @Test
+    void hashesAndVerifiesOffTheCallingThread() {
+        hashing = new PasswordHashingService(4, 1, 4);
+
+        String hash = hashing.encode("secret").join();
+
+        assertTrue(hashing.matches("secret", hash).join());
+        assertFalse(hashing.matches("wrong", hash).join());
+        assertEquals(3, hashing.getHashCount());
+    }
+
+    @Test
+    void refusesWorkOnceThePoolAndQueueAreFull() {
+        hashing = new PasswordHashingService(12, 1, 1);
+        List<CompletableFuture<String>> accepted = new ArrayList<>();
+        accepted.add(hashing.encode("a"));
+        accepted.add(hashing.encode("b"));
+
+        assertThrows(PasswordHashingBusyException.class, () -> {
+            for (int i = 0; i < 4; i++) {
+                accepted.add(hashing.encode("c"));
+            }
+        });
+        assertTrue(hashing.getRejectedCount() > 0);
+    }
+
+    @Test
+    void flagsHashesMadeWithAnotherCost() {
+        hashing = new PasswordHashingService(5, 1, 4);
+
+        assertFalse(hashing.needsRehash(hashing.encode("secret").join()));
+        assertTrue(hashing.needsRehash(new PasswordHashingService(4, 1, 1).encode("secret").join()));
+        assertFalse(hashing.needsRehash("plain-text"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.availit.backend.service;
+
+import com.availit.backend.model.User;
+import com.availit.backend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VerifiedPrincipalCacheTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil();
+    private UserRepository userRepository;
+    private VerifiedPrincipalCache cache;
+    private User admin;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        cache = new VerifiedPrincipalCache(jwtUtil, userRepository, 100, 600_000);
+        admin = new User();
+        admin.setUsername("admin");
+        admin.setPassword("$2a$10$hash");
+        admin.setRole("ADMIN");
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
+    }
+
+    @Test
+    void repeatRequestsWithTheSameTokenSkipTheDatabase() {
+        String token = jwtUtil.generateToken(admin);
+
+        for (int i = 0; i < 5; i++) {
+            UserDetails userDetails = cache.authenticate(token).orElseThrow();
+            assertEquals("admin", userDetails.getUsername());
+            assertEquals("ROLE_ADMIN", userDetails.getAuthorities().iterator().next().getAuthority());
+        }
+        verify(userRepository, times(1)).findByUsername("admin");
+    }
+
+    @Test
+    void rejectsTamperedTokens() {
+        String token = jwtUtil.generateToken(admin);
+        cache.authenticate(token);
+
+        // the first signature character carries six real bits, unlike the last one
+        int signature = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signature) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signature) + replacement + token.substring(signature + 1);
+
+        assertTrue(cache.authenticate(tampered).isEmpty());
+        assertTrue(cache.authenticate("not-a-token").isEmpty());
+    }
+
+    @Test
+    void invalidationForcesTheUserToBeReloaded() {
+        String token = jwtUtil.generateToken(admin);
+        cache.authenticate(token);
+
+        cache.invalidate("admin");
+        assertEquals(0, cache.size());
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.empty());
+
+        assertTrue(cache.authenticate(token).isEmpty());
+    }
+
+    @Test
+    void recordsVerificationLatencyOnlyForCacheMisses() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        String token = jwtUtil.generateToken(admin);
+
+        for (int i = 0; i < 3; i++) {
+            cache.authenticate(token);
+        }
+
+        assertEquals(1, registry.get("availit.auth.token.verification").timer().count());
+        assertEquals(2, registry.get("cache.gets").tag("cache", "verifiedPrincipals").tag("result", "hit")
+            .functionCounter().count());
+    }
+}
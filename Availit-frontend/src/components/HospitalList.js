@@ -1,5 +1,5 @@
 import React, { useEffect, useState, useCallback } from 'react';
-import { getAllHospitals, deleteHospital } from '../services/hospitalService';
+import { getHospitalsByCursor, deleteHospital } from '../services/hospitalService';
 import { Button } from '../components/ui/button';
 import { Input } from '../components/ui/input';
 import { Card, CardContent, CardHeader, CardTitle } from '../components/ui/card';
@@ -19,6 +19,8 @@ function HospitalList({ onEdit, refresh }) {
   const [hospitals, setHospitals] = useState([]);
   const [search, setSearch] = useState('');
   const [loading, setLoading] = useState(true);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
   const { toast } = useToast();
   const [showStats, setShowStats] = useState(false);
   const [minBeds, setMinBeds] = useState('');
@@ -27,9 +29,10 @@ function HospitalList({ onEdit, refresh }) {
 
   const fetchHospitals = useCallback(() => {
     setLoading(true);
-    getAllHospitals({ page: 0, size: 100, sort: 'hospitalName,asc' })
+    getHospitalsByCursor({ sort: 'hospitalName', direction: 'asc', size: 100 })
       .then(res => {
         setHospitals(res.data.content);
+        setNextCursor(res.data.nextCursor);
         setLoading(false);
       })
       .catch(error => {
@@ -42,6 +45,25 @@ function HospitalList({ onEdit, refresh }) {
       });
   }, [toast]);
 
+  const loadMore = () => {
+    if (!nextCursor) return;
+    setLoadingMore(true);
+    getHospitalsByCursor({ after: nextCursor, size: 100 })
+      .then(res => {
+        setHospitals(prev => [...prev, ...res.data.content]);
+        setNextCursor(res.data.nextCursor);
+        setLoadingMore(false);
+      })
+      .catch(() => {
+        setLoadingMore(false);
+        toast({
+          title: "Error",
+          description: "Failed to load more hospitals. Please try again.",
+          variant: "destructive"
+        });
+      });
+  };
+
   useEffect(() => {
     fetchHospitals();
   }, [refresh, fetchHospitals]);
@@ -378,6 +400,13 @@ function HospitalList({ onEdit, refresh }) {
                 </MuiCardContent>
               </MuiCard>
             ))}
+            {nextCursor && (
+              <div className="flex justify-center">
+                <Button variant="outline" onClick={loadMore} disabled={loadingMore}>
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </Button>
+              </div>
+            )}
           </div>
         )}
       </CardContent>
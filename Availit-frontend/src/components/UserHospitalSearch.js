@@ -94,31 +94,7 @@ function UserHospitalSearch({ showLiveDataToast }) {
     const cityKey = cityName.trim().toLowerCase();
     if (LIVE_DATA_SOURCES[cityKey]) {
       LIVE_DATA_SOURCES[cityKey].fetch().then(data => {
-        const mapped = Array.isArray(data)
-          ? data.map(h => {
-              if (cityKey === 'bangalore') {
-                return {
-                  hospitalName: h.name || '',
-                  address: h.address || '',
-                  contactNumber: h.phone || '',
-                  // No bed/ICU/ventilator info for Bangalore
-                };
-              } else {
-                return {
-                  hospitalName: h.hospitalName || h.name || '',
-                  address: h.address || h.location || '',
-                  availableBeds: h.availableBeds || h.bedsAvailable || h.available_beds || 0,
-                  totalBeds: h.totalBeds || h.bedsTotal || h.total_beds || 0,
-                  icuBeds: h.icuBeds || h.icu || h.icu_beds || 0,
-                  ventilators: h.ventilators || h.ventilator || h.ventilators_available || 0,
-                  oxygenAvailable: h.oxygenAvailable || h.oxygen || h.oxygen_available || false,
-                  contactNumber: h.contactNumber || h.phone || h.contact || '',
-                  ...h
-                };
-              }
-            })
-          : [];
-        setHospitals(mapped);
+        setHospitals(Array.isArray(data) ? data : []);
         setLoading(false);
       }).catch(() => {
         setError(`Failed to load live ${cityName} hospital data`);
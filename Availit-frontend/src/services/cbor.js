@@ -0,0 +1,102 @@
+// Minimal CBOR (RFC 8949) decoder covering what the backend's Jackson CBOR encoder emits:
+// integers, strings, arrays, maps (definite and indefinite length), floats, booleans and null.
+export function decodeCbor(buffer) {
+  const view = new DataView(buffer);
+  const textDecoder = new TextDecoder();
+  let offset = 0;
+
+  function readLength(info) {
+    if (info < 24) return info;
+    if (info === 24) { const v = view.getUint8(offset); offset += 1; return v; }
+    if (info === 25) { const v = view.getUint16(offset); offset += 2; return v; }
+    if (info === 26) { const v = view.getUint32(offset); offset += 4; return v; }
+    if (info === 27) {
+      const v = view.getUint32(offset) * 2 ** 32 + view.getUint32(offset + 4);
+      offset += 8;
+      return v;
+    }
+    if (info === 31) return -1;
+    throw new Error(`Unsupported CBOR length encoding ${info}`);
+  }
+
+  function readHalf() {
+    const half = view.getUint16(offset);
+    offset += 2;
+    const exponent = (half >> 10) & 0x1f;
+    const fraction = half & 0x3ff;
+    const sign = half & 0x8000 ? -1 : 1;
+    if (exponent === 0) return sign * 2 ** -14 * (fraction / 1024);
+    if (exponent === 31) return fraction ? NaN : sign * Infinity;
+    return sign * 2 ** (exponent - 15) * (1 + fraction / 1024);
+  }
+
+  function isBreak() {
+    if (view.getUint8(offset) === 0xff) {
+      offset += 1;
+      return true;
+    }
+    return false;
+  }
+
+  function readString(length) {
+    if (length >= 0) {
+      const text = textDecoder.decode(new Uint8Array(buffer, offset, length));
+      offset += length;
+      return text;
+    }
+    let text = '';
+    while (!isBreak()) text += readItem();
+    return text;
+  }
+
+  function readItem() {
+    const initial = view.getUint8(offset);
+    offset += 1;
+    const major = initial >> 5;
+    const info = initial & 0x1f;
+    switch (major) {
+      case 0: return readLength(info);
+      case 1: return -1 - readLength(info);
+      case 2: {
+        const length = readLength(info);
+        const bytes = new Uint8Array(buffer.slice(offset, offset + length));
+        offset += length;
+        return bytes;
+      }
+      case 3: return readString(readLength(info));
+      case 4: {
+        const length = readLength(info);
+        const items = [];
+        if (length < 0) {
+          while (!isBreak()) items.push(readItem());
+        } else {
+          for (let i = 0; i < length; i++) items.push(readItem());
+        }
+        return items;
+      }
+      case 5: {
+        const length = readLength(info);
+        const object = {};
+        if (length < 0) {
+          while (!isBreak()) { const key = readItem(); object[key] = readItem(); }
+        } else {
+          for (let i = 0; i < length; i++) { const key = readItem(); object[key] = readItem(); }
+        }
+        return object;
+      }
+      case 6:
+        readLength(info);
+        return readItem();
+      default:
+        if (info === 20) return false;
+        if (info === 21) return true;
+        if (info === 22 || info === 23) return null;
+        if (info === 25) return readHalf();
+        if (info === 26) { const v = view.getFloat32(offset); offset += 4; return v; }
+        if (info === 27) { const v = view.getFloat64(offset); offset += 8; return v; }
+        throw new Error(`Unsupported CBOR simple value ${info}`);
+    }
+  }
+
+  return readItem();
+}
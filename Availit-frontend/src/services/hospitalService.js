@@ -1,8 +1,11 @@
 import axios from 'axios';
+import { decodeCbor } from './cbor';
 
 const API_URL = 'http://localhost:8080/api/hospitals';
 const AUTH_URL = 'http://localhost:8080/api/auth';
-const SCRAPPER_URL = 'http://localhost:4001';
+// Set REACT_APP_API_FORMAT=cbor to fetch hospital lists as CBOR instead of JSON.
+// Responses are gzipped either way; CBOR mainly saves server serialization time.
+const USE_CBOR = process.env.REACT_APP_API_FORMAT === 'cbor';
 axios.interceptors.request.use(
   (config) => {
     const token = localStorage.getItem('token');
@@ -17,6 +20,10 @@ axios.interceptors.request.use(
 export const getAllHospitals = (params) =>
   axios.get(`${API_URL}/getAllHospitals`, { params });
 
+// Keyset listing; pass the previous page's nextCursor as `after` to continue
+export const getHospitalsByCursor = (params) =>
+  axios.get(`${API_URL}/cursor`, { params });
+
 export const createHospital = (hospitalData) =>
   axios.post(API_URL, hospitalData);
 
@@ -26,13 +33,21 @@ export const updateHospital = (id, hospitalData) =>
 export const deleteHospital = (id) =>
   axios.delete(`${API_URL}/${id}`);
 
+function fetchHospitalList(url) {
+  if (!USE_CBOR) {
+    return fetch(url).then(res => res.json());
+  }
+  return fetch(url, { headers: { Accept: 'application/cbor' } })
+    .then(res => res.arrayBuffer())
+    .then(decodeCbor);
+}
+
 export function getAllHospitalsPublic() {
-  return fetch(`${API_URL}/public/hospitals`).then(res => res.json());
+  return fetchHospitalList(`${API_URL}/public/hospitals`);
 }
 
 export function getHospitalsByCity(city) {
-  return fetch(`${API_URL}/city/${encodeURIComponent(city)}`)
-    .then(res => res.json());
+  return fetchHospitalList(`${API_URL}/city/${encodeURIComponent(city)}`);
 }
 
 export function getUserCity(username) {
@@ -52,10 +67,42 @@ export function getAllCities() {
   return fetch(`${API_URL}/cities`).then(res => res.json());
 }
 
+// Live portals are imported on a schedule by the backend and served like any other city
 export function getDelhiHospitalsLive() {
-  return fetch(`${SCRAPPER_URL}/api/delhi-hospitals`).then(res => res.json());
+  return getHospitalsByCity('Delhi');
 }
 
 export function getBangaloreHospitalsLive() {
-  return fetch(`${SCRAPPER_URL}/api/bangalore-hospitals`).then(res => res.json());
-} 
\ No newline at end of file
+  return getHospitalsByCity('Bangalore');
+}
+
+export function filterHospitals({ city, minAvailableBeds, minIcuBeds, minVentilators, oxygenAvailable, limit } = {}) {
+  const params = new URLSearchParams();
+  if (city) params.set('city', city);
+  if (minAvailableBeds) params.set('minAvailableBeds', minAvailableBeds);
+  if (minIcuBeds) params.set('minIcuBeds', minIcuBeds);
+  if (minVentilators) params.set('minVentilators', minVentilators);
+  if (oxygenAvailable) params.set('oxygenAvailable', 'true');
+  if (limit) params.set('limit', limit);
+  return fetch(`${API_URL}/filter?${params.toString()}`).then(res => res.json());
+}
+
+export function getNearbyHospitals(lat, lon, { radiusKm, minBeds, limit } = {}) {
+  const params = new URLSearchParams({ lat, lon });
+  if (radiusKm) params.set('radiusKm', radiusKm);
+  if (minBeds) params.set('minBeds', minBeds);
+  if (limit) params.set('limit', limit);
+  return fetch(`${API_URL}/nearby?${params.toString()}`).then(res => res.json());
+}
+
+export function searchHospitals(query, limit) {
+  const params = new URLSearchParams({ q: query });
+  if (limit) params.set('limit', limit);
+  return fetch(`${API_URL}/search?${params.toString()}`).then(res => res.json());
+}
+
+export function suggestCities(prefix, limit) {
+  const params = new URLSearchParams({ prefix });
+  if (limit) params.set('limit', limit);
+  return fetch(`${API_URL}/cities/suggest?${params.toString()}`).then(res => res.json());
+}